@@ -0,0 +1,104 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.models.Company;
+import be.helha.gdprapp.models.GDPRRequest;
+import be.helha.gdprapp.models.Role;
+import be.helha.gdprapp.models.User;
+import be.helha.gdprapp.services.EmailDeliveryLedger;
+import be.helha.gdprapp.services.EmailService;
+import be.helha.gdprapp.services.OutboundMailScheduler;
+import be.helha.gdprapp.services.SmtpCircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.concurrent.TimeUnit;
+
+// Building each e-mail: Thymeleaf rendering of the real templates plus the MIME message, without SMTP
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmailTemplateBenchmark {
+
+    @Param({"password-reset-email", "gdpr-request-confirmation", "gdpr-request-notification", "gdpr-request-status-update"})
+    public String template;
+
+    private EmailService emailService;
+    private CapturingMailSender mailSender;
+    private User user;
+    private Company company;
+    private GDPRRequest request;
+
+    @Setup
+    public void setUp() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setTemplateMode(TemplateMode.HTML);
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(resolver);
+
+        mailSender = new CapturingMailSender();
+        emailService = new EmailService();
+        ReflectionTestUtils.setField(emailService, "emailSender", mailSender);
+        ReflectionTestUtils.setField(emailService, "templateEngine", templateEngine);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(emailService, "meterRegistry", meterRegistry);
+        SmtpCircuitBreaker smtpCircuitBreaker = new SmtpCircuitBreaker();
+        ReflectionTestUtils.setField(smtpCircuitBreaker, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(smtpCircuitBreaker, "failureThreshold", 5);
+        ReflectionTestUtils.setField(smtpCircuitBreaker, "openDurationMs", 30000L);
+        smtpCircuitBreaker.init();
+        ReflectionTestUtils.setField(emailService, "smtpCircuitBreaker", smtpCircuitBreaker);
+        ReflectionTestUtils.setField(emailService, "emailDeliveryLedger", new EmailDeliveryLedger());
+        ReflectionTestUtils.setField(emailService, "outboundMailScheduler", new OutboundMailScheduler());
+        ReflectionTestUtils.setField(emailService, "fromEmail", "noreply@gdprapp.test");
+        ReflectionTestUtils.setField(emailService, "appName", "GDPR Application");
+        ReflectionTestUtils.setField(emailService, "appUrl", "http://localhost:8080");
+
+        company = new Company("Benchmark Company", "contact@company.test");
+        company.setIdCompany(7);
+        user = new User("Jane", "Doe", "jane.doe@example.test", "hash", new Role("CLIENT"));
+        user.setIdUser(42);
+        request = new GDPRRequest("DELETION", "Please delete my account and every related record", user, company);
+        request.setIdRequest(1234);
+    }
+
+    @Benchmark
+    public void render(Blackhole blackhole) {
+        switch (template) {
+            case "password-reset-email" -> emailService.sendPasswordResetWithNewPassword(user, "Xy7!pQ2#aB9k");
+            case "gdpr-request-confirmation" -> emailService.sendGDPRRequestConfirmation(user, request);
+            case "gdpr-request-notification" -> emailService.sendGDPRRequestNotification(company, request);
+            case "gdpr-request-status-update" -> emailService.sendGDPRRequestStatusUpdate(user, request, "PENDING");
+            default -> throw new IllegalArgumentException(template);
+        }
+        blackhole.consume(mailSender.lastMessage);
+    }
+
+    // Keeps the message instead of connecting to an SMTP server
+    private static class CapturingMailSender extends JavaMailSenderImpl {
+
+        private MimeMessage lastMessage;
+
+        @Override
+        public void send(MimeMessage mimeMessage) {
+            lastMessage = mimeMessage;
+        }
+    }
+}
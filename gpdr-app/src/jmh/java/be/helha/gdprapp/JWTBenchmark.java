@@ -0,0 +1,116 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.models.Company;
+import be.helha.gdprapp.models.Role;
+import be.helha.gdprapp.models.User;
+import be.helha.gdprapp.security.JWTFilter;
+import be.helha.gdprapp.security.UserPrincipal;
+import be.helha.gdprapp.services.CustomUserDetailsService;
+import be.helha.gdprapp.utils.JWTUtils;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Token generation and verification, and the JWT filter run on every authenticated request
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JWTBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private JWTUtils jwtUtils;
+    private BenchmarkJWTFilter jwtFilter;
+    private User user;
+    private String token;
+    private String legacyToken;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JWTUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secret", "benchmarkSecretKeyThatIsLongEnoughForHmacSha512Signatures0123456789");
+        ReflectionTestUtils.setField(jwtUtils, "expirationToken", 1_800_000L);
+        ReflectionTestUtils.setField(jwtUtils, "expirationRefreshToken", 2_592_000_000L);
+
+        Company company = new Company("Benchmark Company", "contact@company.test");
+        company.setIdCompany(7);
+        user = new User("Jane", "Doe", "jane.doe@company.test", "hash", new Role("GERANT"), company);
+        user.setIdUser(42);
+        token = jwtUtils.generateToken(user);
+        // Tokens without userId make the filter fall back to the user service
+        legacyToken = jwtUtils.generateToken(user.getEmail(), "GERANT");
+
+        jwtFilter = new BenchmarkJWTFilter();
+        ReflectionTestUtils.setField(jwtFilter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(jwtFilter, "userDetailsService", new StubUserDetailsService(user));
+        ReflectionTestUtils.setField(jwtFilter, "meterRegistry", new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims parseToken() {
+        return jwtUtils.parseToken(token);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtils.validateToken(token);
+    }
+
+    @Benchmark
+    public Object filterWithClaims() throws ServletException, IOException {
+        return jwtFilter.filter(token);
+    }
+
+    @Benchmark
+    public Object filterWithLegacyToken() throws ServletException, IOException {
+        return jwtFilter.filter(legacyToken);
+    }
+
+    // Exposes the protected filter method; a fresh request each time, as OncePerRequestFilter would skip a reused one
+    private static class BenchmarkJWTFilter extends JWTFilter {
+
+        private Object filter(String token) throws ServletException, IOException {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/gdpr-requests/my-requests");
+            request.addHeader("Authorization", "Bearer " + token);
+            doFilterInternal(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+            Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            SecurityContextHolder.clearContext();
+            return principal;
+        }
+    }
+
+    // No database: always returns the same user
+    private static class StubUserDetailsService extends CustomUserDetailsService {
+
+        private final User user;
+
+        private StubUserDetailsService(User user) {
+            this.user = user;
+        }
+
+        @Override
+        public UserPrincipal loadUserByUsername(String username) {
+            return new UserPrincipal(user);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.services.PasswordGeneratorService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+// Password generation shares one SecureRandom: compare a single caller with eight concurrent ones
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PasswordGeneratorBenchmark {
+
+    private final PasswordGeneratorService passwordGeneratorService = new PasswordGeneratorService();
+
+    @Benchmark
+    @Threads(1)
+    public String generateRandomPassword() {
+        return passwordGeneratorService.generateRandomPassword();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String generateRandomPasswordContended() {
+        return passwordGeneratorService.generateRandomPassword();
+    }
+}
@@ -0,0 +1,68 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.services.AuthService;
+import be.helha.gdprapp.services.CompanyService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// Regex validators of the registration and company forms
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ValidationBenchmark {
+
+    // Same expression as the services, compiled once: baseline for String.matches
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
+
+    @Param({"jane.doe@company.test", "not-an-email-address-but-a-rather-long-string"})
+    public String email;
+
+    private final CompanyService companyService = new CompanyService();
+    private final AuthService authService = new AuthService();
+    private MethodHandle validateEmail;
+    private MethodHandle validatePassword;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(AuthService.class, MethodHandles.lookup());
+        validateEmail = lookup.findVirtual(AuthService.class, "validateEmail", MethodType.methodType(void.class, String.class));
+        validatePassword = lookup.findVirtual(AuthService.class, "validatePassword", MethodType.methodType(void.class, String.class));
+    }
+
+    @Benchmark
+    public boolean companyIsValidEmail() {
+        return companyService.isValidEmail(email);
+    }
+
+    @Benchmark
+    public boolean precompiledEmailPattern() {
+        return EMAIL_PATTERN.matcher(email).matches();
+    }
+
+    @Benchmark
+    public boolean authValidateEmail() throws Throwable {
+        try {
+            validateEmail.invoke(authService, email);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public void authValidatePassword() throws Throwable {
+        validatePassword.invoke(authService, "Secret123password");
+    }
+}
@@ -0,0 +1,214 @@
+package be.helha.gdprapp.loadtest;
+
+import be.helha.gdprapp.services.GDPRRequestService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the mixed workload against a running instance.
+ * Open loop (rate > 0): requests are scheduled at a fixed arrival rate whatever the response times,
+ * and latency is measured from the intended start, so a stalled server shows up in the percentiles
+ * instead of silently slowing the generator down (coordinated omission).
+ * At most `concurrency` requests are in flight; arrivals beyond that wait, and the wait is counted.
+ * Closed loop (rate = 0): `concurrency` users send back to back, latency is the service time.
+ * Nothing is recorded during the warmup.
+ */
+public class LoadGenerator {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestConfig config;
+    private final LoadTestData data;
+    private final String baseUrl;
+    private final HttpClient httpClient;
+
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    private volatile long recordFromNanos;
+    private volatile long recordUntilNanos;
+
+    public LoadGenerator(LoadTestConfig config, LoadTestData data, int port) {
+        this.config = config;
+        this.data = data;
+        this.baseUrl = "http://localhost:" + port;
+        this.httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        for (Operation operation : Operation.values()) {
+            // Microseconds, resized as needed
+            histograms.put(operation, new ConcurrentHistogram(3));
+            errors.put(operation, new AtomicLong());
+        }
+
+        operations = config.getMix().keySet().stream()
+                .filter(operation -> config.getMix().get(operation) > 0)
+                .toArray(Operation[]::new);
+        cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += config.getMix().get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("The operation mix has no positive weight");
+        }
+    }
+
+    public LoadTestReport run(String threadMode) throws InterruptedException {
+        long start = System.nanoTime();
+        recordFromNanos = start + TimeUnit.SECONDS.toNanos(config.getWarmupSeconds());
+        recordUntilNanos = recordFromNanos + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (config.isOpenLoop()) {
+                runOpenLoop(executor, start);
+            } else {
+                runClosedLoop(executor);
+            }
+        }
+        return new LoadTestReport(config, threadMode, histograms, errors);
+    }
+
+    private void runOpenLoop(ExecutorService executor, long start) throws InterruptedException {
+        Semaphore inFlight = new Semaphore(config.getConcurrency());
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / config.getRate());
+
+        for (long n = 0; ; n++) {
+            long intended = start + n * intervalNanos;
+            if (intended >= recordUntilNanos) {
+                return;
+            }
+
+            long delay = intended - System.nanoTime();
+            if (delay > 0) {
+                LockSupport.parkNanos(delay);
+            }
+
+            inFlight.acquire();
+            Operation operation = nextOperation();
+            executor.execute(() -> {
+                try {
+                    execute(operation, intended);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+    }
+
+    private void runClosedLoop(ExecutorService executor) {
+        for (int i = 0; i < config.getConcurrency(); i++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < recordUntilNanos) {
+                    execute(nextOperation(), System.nanoTime());
+                }
+            });
+        }
+    }
+
+    private void execute(Operation operation, long intendedStart) {
+        boolean success;
+        try {
+            HttpResponse<Void> response = httpClient.send(buildRequest(operation), HttpResponse.BodyHandlers.discarding());
+            success = response.statusCode() < 400;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            success = false;
+        }
+
+        long end = System.nanoTime();
+        if (intendedStart < recordFromNanos || intendedStart >= recordUntilNanos) {
+            return;
+        }
+        histograms.get(operation).recordValue(TimeUnit.NANOSECONDS.toMicros(end - intendedStart));
+        if (!success) {
+            errors.get(operation).incrementAndGet();
+        }
+    }
+
+    private HttpRequest buildRequest(Operation operation) {
+        switch (operation) {
+            case LOGIN: {
+                int client = data.randomActiveClient();
+                return post("/api/auth/login", null,
+                        "{\"email\":\"" + data.clientEmailOf(client) + "\",\"password\":\"" + LoadTestData.PASSWORD + "\"}");
+            }
+            case MY_REQUESTS:
+                return get("/api/gdpr-requests/my-requests", data.clientToken(data.randomActiveClient()));
+            case MANAGER_PENDING: {
+                int companyId = data.randomCompanyId();
+                return get("/api/gdpr-requests/company/" + companyId + "/pending", data.managerToken(companyId));
+            }
+            case CREATE_REQUEST: {
+                int client = data.randomActiveClient();
+                String type = ThreadLocalRandom.current().nextBoolean()
+                        ? GDPRRequestService.REQUEST_TYPE_DELETION : GDPRRequestService.REQUEST_TYPE_MODIFICATION;
+                return post("/api/gdpr-requests", data.clientToken(client),
+                        "{\"requestType\":\"" + type + "\",\"requestContent\":\"Load test request\"," +
+                        "\"userId\":" + data.clientUserId(client) + ",\"companyId\":" + data.randomCompanyId() + "}");
+            }
+            case STATUS_UPDATE: {
+                int[] request = data.randomSeededRequest();
+                String status = ThreadLocalRandom.current().nextBoolean()
+                        ? GDPRRequestService.STATUS_PROCESSED : GDPRRequestService.STATUS_PENDING;
+                return request("/api/gdpr-requests/" + request[0] + "/status", data.managerToken(request[1]))
+                        .PUT(HttpRequest.BodyPublishers.ofString("{\"status\":\"" + status + "\"}"))
+                        .build();
+            }
+            case STATISTICS:
+                return get("/api/gdpr-requests/statistics", data.adminToken());
+            default:
+                throw new IllegalStateException("Unknown operation: " + operation);
+        }
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest post(String path, String token, String body) {
+        return request(path, token).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json");
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private Operation nextOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+}
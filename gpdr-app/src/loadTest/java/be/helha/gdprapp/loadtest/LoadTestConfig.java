@@ -0,0 +1,57 @@
+package be.helha.gdprapp.loadtest;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test settings, read from loadtest.* system properties (./gradlew loadTest -Ploadtest.rate=200 ...).
+ */
+public class LoadTestConfig {
+
+    // Arrivals per second (open loop); 0 runs a closed loop of `concurrency` users instead
+    private final double rate = doubleProperty("loadtest.rate", 100);
+    private final int concurrency = intProperty("loadtest.concurrency", 64);
+    private final int warmupSeconds = intProperty("loadtest.warmupSeconds", 15);
+    private final int durationSeconds = intProperty("loadtest.durationSeconds", 60);
+
+    private final int companies = intProperty("loadtest.companies", 100);
+    private final int clients = intProperty("loadtest.clients", 2000);
+    private final int requestsPerClient = intProperty("loadtest.requestsPerClient", 5);
+
+    private final int smtpPort = intProperty("loadtest.smtpPort", 3025);
+    private final String reportDir = System.getProperty("loadtest.reportDir", "build/reports/loadtest");
+    // Request threads of the server: "platform", "virtual" or "platform,virtual" to compare both in one run
+    private final List<String> threadModes = List.of(System.getProperty("loadtest.threads", "platform").split("\\s*,\\s*"));
+    private final Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+
+    public LoadTestConfig() {
+        for (Operation operation : Operation.values()) {
+            mix.put(operation, intProperty("loadtest.mix." + operation.getName(), operation.getDefaultWeight()));
+        }
+    }
+
+    public double getRate() { return rate; }
+    public int getConcurrency() { return concurrency; }
+    public int getWarmupSeconds() { return warmupSeconds; }
+    public int getDurationSeconds() { return durationSeconds; }
+    public int getCompanies() { return companies; }
+    public int getClients() { return clients; }
+    public int getRequestsPerClient() { return requestsPerClient; }
+    public int getSmtpPort() { return smtpPort; }
+    public String getReportDir() { return reportDir; }
+    public List<String> getThreadModes() { return threadModes; }
+    public Map<Operation, Integer> getMix() { return mix; }
+
+    public boolean isOpenLoop() {
+        return rate > 0;
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty(name, String.valueOf(defaultValue)));
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        return Double.parseDouble(System.getProperty(name, String.valueOf(defaultValue)));
+    }
+}
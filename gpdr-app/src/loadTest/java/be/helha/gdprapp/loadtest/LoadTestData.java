@@ -0,0 +1,167 @@
+package be.helha.gdprapp.loadtest;
+
+import be.helha.gdprapp.models.Company;
+import be.helha.gdprapp.models.Role;
+import be.helha.gdprapp.models.User;
+import be.helha.gdprapp.services.GDPRRequestService;
+import be.helha.gdprapp.utils.JWTUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Deterministic data set for the load test, sized by LoadTestConfig:
+ * one manager per company, 1 admin, N clients (one in ten inactive) and M requests per client.
+ * Every user shares one real bcrypt hash so the login operation exercises the actual password check.
+ * Tokens are issued up front with the application's JWTUtils so other operations skip the login.
+ */
+public class LoadTestData {
+
+    public static final String PASSWORD = "LoadTest123!";
+
+    private static final int ADMIN_ID = 1;
+    private static final int FIRST_MANAGER_ID = 2;
+
+    private final int companies;
+    private final int clients;
+    private final int requestsPerClient;
+    private final int firstClientId;
+
+    private String adminToken;
+    private final List<String> managerTokens = new ArrayList<>();
+    // Only active clients can log in and create requests
+    private final List<Integer> activeClients = new ArrayList<>();
+    private final List<String> clientTokens = new ArrayList<>();
+
+    public LoadTestData(LoadTestConfig config) {
+        this.companies = config.getCompanies();
+        this.clients = config.getClients();
+        this.requestsPerClient = config.getRequestsPerClient();
+        this.firstClientId = FIRST_MANAGER_ID + companies;
+    }
+
+    public void seed(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder, JWTUtils jwtUtils) {
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+
+        // Roles are created at startup by DataInitializer
+        Role adminRole = role(jdbcTemplate, "ADMIN");
+        Role clientRole = role(jdbcTemplate, "CLIENT");
+        Role managerRole = role(jdbcTemplate, "GERANT");
+
+        List<Object[]> companyRows = new ArrayList<>();
+        for (int i = 1; i <= companies; i++) {
+            companyRows.add(new Object[] {i, "Company " + i, "contact" + i + "@company.test"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO companies (id_company, company_name, email) VALUES (?, ?, ?)", companyRows);
+
+        List<Object[]> users = new ArrayList<>();
+        users.add(new Object[] {ADMIN_ID, "Ada", "Admin", "admin@gdprapp.test", passwordHash, true, adminRole.getIdRole(), null});
+        adminToken = jwtUtils.generateToken(user(ADMIN_ID, "admin@gdprapp.test", adminRole, null));
+        for (int i = 0; i < companies; i++) {
+            users.add(new Object[] {FIRST_MANAGER_ID + i, "Manager", "M" + i, managerEmail(i), passwordHash, true, managerRole.getIdRole(), i + 1});
+            managerTokens.add(jwtUtils.generateToken(user(FIRST_MANAGER_ID + i, managerEmail(i), managerRole, i + 1)));
+        }
+        for (int i = 0; i < clients; i++) {
+            boolean active = i % 10 != 0;
+            users.add(new Object[] {firstClientId + i, "Client", "C" + i, clientEmail(i), passwordHash, active, clientRole.getIdRole(), null});
+            if (active) {
+                activeClients.add(i);
+                clientTokens.add(jwtUtils.generateToken(user(firstClientId + i, clientEmail(i), clientRole, null)));
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id_user, firstname, lastname, email, password, active, id_role, id_company) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", users);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> requests = new ArrayList<>();
+        int requestId = 1;
+        for (int i = 0; i < clients; i++) {
+            for (int j = 0; j < requestsPerClient; j++) {
+                String type = j % 2 == 0 ? GDPRRequestService.REQUEST_TYPE_DELETION : GDPRRequestService.REQUEST_TYPE_MODIFICATION;
+                String status = j % 3 == 0 ? GDPRRequestService.STATUS_PROCESSED : GDPRRequestService.STATUS_PENDING;
+                Timestamp date = Timestamp.valueOf(now.minusDays((i * requestsPerClient + j) % 90));
+                requests.add(new Object[] {requestId++, type, status, date, "Request " + j + " of client " + i,
+                        firstClientId + i, companyOf(i, j)});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO gdpr_requests (id_request, request_type, status, request_date, request_content, id_user, id_company) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", requests);
+
+        jdbcTemplate.execute("ALTER SEQUENCE companies_seq RESTART WITH " + (companies + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE users_seq RESTART WITH " + (firstClientId + clients));
+        jdbcTemplate.execute("ALTER SEQUENCE gdpr_requests_seq RESTART WITH " + requestId);
+    }
+
+    public String adminToken() {
+        return adminToken;
+    }
+
+    public String managerToken(int companyId) {
+        return managerTokens.get(companyId - 1);
+    }
+
+    public int randomCompanyId() {
+        return ThreadLocalRandom.current().nextInt(companies) + 1;
+    }
+
+    public int randomActiveClient() {
+        return ThreadLocalRandom.current().nextInt(activeClients.size());
+    }
+
+    public String clientToken(int activeClient) {
+        return clientTokens.get(activeClient);
+    }
+
+    public int clientUserId(int activeClient) {
+        return firstClientId + activeClients.get(activeClient);
+    }
+
+    public String clientEmailOf(int activeClient) {
+        return clientEmail(activeClients.get(activeClient));
+    }
+
+    // A seeded request and the company that owns it, so its manager can update it
+    public int[] randomSeededRequest() {
+        int index = ThreadLocalRandom.current().nextInt(clients * requestsPerClient);
+        int client = index / requestsPerClient;
+        return new int[] {index + 1, companyOf(client, index % requestsPerClient)};
+    }
+
+    private int companyOf(int client, int request) {
+        return (client + request) % companies + 1;
+    }
+
+    private static String managerEmail(int index) {
+        return "manager" + index + "@company.test";
+    }
+
+    private static String clientEmail(int index) {
+        return "client" + index + "@gdprapp.test";
+    }
+
+    private static Role role(JdbcTemplate jdbcTemplate, String name) {
+        Role role = new Role(name);
+        role.setIdRole(jdbcTemplate.queryForObject("SELECT id_role FROM roles WHERE role = ?", Integer.class, name));
+        return role;
+    }
+
+    // Detached user carrying only what JWTUtils puts in the claims
+    private static User user(int id, String email, Role role, Integer companyId) {
+        User user = new User();
+        user.setIdUser(id);
+        user.setEmail(email);
+        user.setActive(true);
+        user.setRole(role);
+        if (companyId != null) {
+            Company company = new Company();
+            company.setIdCompany(companyId);
+            user.setCompany(company);
+        }
+        return user;
+    }
+}
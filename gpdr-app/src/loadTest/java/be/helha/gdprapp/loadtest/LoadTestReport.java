@@ -0,0 +1,150 @@
+package be.helha.gdprapp.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Throughput and latency percentiles per operation, written as report.json and report.html.
+ */
+public class LoadTestReport {
+
+    private final Map<String, Object> settings = new LinkedHashMap<>();
+    private final List<OperationResult> results = new ArrayList<>();
+
+    public LoadTestReport(LoadTestConfig config, String threadMode, Map<Operation, Histogram> histograms, Map<Operation, AtomicLong> errors) {
+        settings.put("date", LocalDateTime.now().toString());
+        settings.put("serverThreads", threadMode);
+        settings.put("mode", config.isOpenLoop() ? "open loop" : "closed loop");
+        settings.put("rate", config.getRate());
+        settings.put("concurrency", config.getConcurrency());
+        settings.put("warmupSeconds", config.getWarmupSeconds());
+        settings.put("durationSeconds", config.getDurationSeconds());
+        settings.put("companies", config.getCompanies());
+        settings.put("clients", config.getClients());
+        settings.put("requestsPerClient", config.getRequestsPerClient());
+        settings.put("mix", config.getMix());
+
+        for (Map.Entry<Operation, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+
+            OperationResult result = new OperationResult();
+            result.setOperation(entry.getKey().getName());
+            result.setCount(histogram.getTotalCount());
+            result.setErrors(errors.get(entry.getKey()).get());
+            result.setThroughput((double) histogram.getTotalCount() / config.getDurationSeconds());
+            result.setMeanMs(histogram.getMean() / 1000.0);
+            result.setP50Ms(percentile(histogram, 50.0));
+            result.setP95Ms(percentile(histogram, 95.0));
+            result.setP99Ms(percentile(histogram, 99.0));
+            result.setP999Ms(percentile(histogram, 99.9));
+            result.setMaxMs(histogram.getMaxValue() / 1000.0);
+            results.add(result);
+        }
+    }
+
+    public Map<String, Object> getSettings() { return settings; }
+    public List<OperationResult> getResults() { return results; }
+
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(directory.resolve("report.json").toFile(), this);
+        Files.writeString(directory.resolve("report.html"), toHtml(), StandardCharsets.UTF_8);
+    }
+
+    public String toText() {
+        StringBuilder text = new StringBuilder(String.format("%-16s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "operation", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms"));
+        for (OperationResult result : results) {
+            text.append(String.format("%-16s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    result.getOperation(), result.getCount(), result.getErrors(), result.getThroughput(),
+                    result.getP50Ms(), result.getP95Ms(), result.getP99Ms(), result.getP999Ms(), result.getMaxMs()));
+        }
+        return text.toString();
+    }
+
+    private String toHtml() {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html><html><head><meta charset=\"UTF-8\"><title>GDPR App load test</title>")
+                .append("<style>body{font-family:sans-serif}table{border-collapse:collapse}")
+                .append("td,th{border:1px solid #ccc;padding:4px 8px;text-align:right}th:first-child,td:first-child{text-align:left}</style>")
+                .append("</head><body><h1>GDPR App load test</h1><ul>");
+        for (Map.Entry<String, Object> setting : settings.entrySet()) {
+            html.append("<li>").append(setting.getKey()).append(": ").append(setting.getValue()).append("</li>");
+        }
+        html.append("</ul><table><tr><th>Operation</th><th>Count</th><th>Errors</th><th>req/s</th><th>Mean ms</th>")
+                .append("<th>p50 ms</th><th>p95 ms</th><th>p99 ms</th><th>p99.9 ms</th><th>Max ms</th></tr>");
+        for (OperationResult result : results) {
+            html.append(String.format("<tr><td>%s</td><td>%d</td><td>%d</td><td>%.1f</td><td>%.2f</td><td>%.2f</td>" +
+                            "<td>%.2f</td><td>%.2f</td><td>%.2f</td><td>%.2f</td></tr>",
+                    result.getOperation(), result.getCount(), result.getErrors(), result.getThroughput(), result.getMeanMs(),
+                    result.getP50Ms(), result.getP95Ms(), result.getP99Ms(), result.getP999Ms(), result.getMaxMs()));
+        }
+        return html.append("</table></body></html>").toString();
+    }
+
+    private static double percentile(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * Inner class for the results of one operation
+     */
+    public static class OperationResult {
+        private String operation;
+        private long count;
+        private long errors;
+        private double throughput;
+        private double meanMs;
+        private double p50Ms;
+        private double p95Ms;
+        private double p99Ms;
+        private double p999Ms;
+        private double maxMs;
+
+        public String getOperation() { return operation; }
+        public void setOperation(String operation) { this.operation = operation; }
+
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+
+        public long getErrors() { return errors; }
+        public void setErrors(long errors) { this.errors = errors; }
+
+        public double getThroughput() { return throughput; }
+        public void setThroughput(double throughput) { this.throughput = throughput; }
+
+        public double getMeanMs() { return meanMs; }
+        public void setMeanMs(double meanMs) { this.meanMs = meanMs; }
+
+        public double getP50Ms() { return p50Ms; }
+        public void setP50Ms(double p50Ms) { this.p50Ms = p50Ms; }
+
+        public double getP95Ms() { return p95Ms; }
+        public void setP95Ms(double p95Ms) { this.p95Ms = p95Ms; }
+
+        public double getP99Ms() { return p99Ms; }
+        public void setP99Ms(double p99Ms) { this.p99Ms = p99Ms; }
+
+        public double getP999Ms() { return p999Ms; }
+        public void setP999Ms(double p999Ms) { this.p999Ms = p999Ms; }
+
+        public double getMaxMs() { return maxMs; }
+        public void setMaxMs(double maxMs) { this.maxMs = maxMs; }
+    }
+}
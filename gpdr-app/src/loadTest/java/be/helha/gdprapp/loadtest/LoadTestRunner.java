@@ -0,0 +1,66 @@
+package be.helha.gdprapp.loadtest;
+
+import be.helha.gdprapp.GpdrAppApplication;
+import be.helha.gdprapp.utils.JWTUtils;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.nio.file.Path;
+
+/**
+ * End-to-end load test: boots the application on an in-memory database with a fake SMTP server,
+ * seeds it, runs the mixed workload over HTTP and writes the report.
+ * With several thread modes (-Ploadtest.threads=platform,virtual) the application is booted
+ * once per mode and each mode gets its own report directory.
+ * Run with ./gradlew loadTest (see LoadTestConfig for the settings).
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = new LoadTestConfig();
+
+        GreenMail smtp = new GreenMail(new ServerSetup(config.getSmtpPort(), null, ServerSetup.PROTOCOL_SMTP));
+        smtp.start();
+        try {
+            StringBuilder summary = new StringBuilder();
+            for (String threadMode : config.getThreadModes()) {
+                Path reportDir = config.getThreadModes().size() > 1
+                        ? Path.of(config.getReportDir(), threadMode) : Path.of(config.getReportDir());
+                LoadTestReport report = run(config, threadMode, args);
+                report.write(reportDir);
+                summary.append("\nServer threads: ").append(threadMode).append(" (report in ")
+                        .append(reportDir.toAbsolutePath()).append(")\n").append(report.toText());
+            }
+
+            System.out.print(summary);
+            System.out.println("E-mails received by the fake SMTP server: " + smtp.getReceivedMessages().length);
+        } finally {
+            smtp.stop();
+        }
+    }
+
+    private static LoadTestReport run(LoadTestConfig config, String threadMode, String[] args) throws InterruptedException {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(GpdrAppApplication.class)
+                .profiles("loadtest")
+                .properties("spring.mail.port=" + config.getSmtpPort(),
+                        "spring.threads.virtual.enabled=" + "virtual".equals(threadMode))
+                .run(args);
+        try {
+            LoadTestData data = new LoadTestData(config);
+            data.seed(context.getBean(JdbcTemplate.class), context.getBean(PasswordEncoder.class), context.getBean(JWTUtils.class));
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            System.out.println("Load test against port " + port + " with " + threadMode + " threads (" + (config.isOpenLoop()
+                    ? config.getRate() + " req/s" : "closed loop") + ", concurrency " + config.getConcurrency() + ")");
+
+            return new LoadGenerator(config, data, port).run(threadMode);
+        } finally {
+            context.close();
+        }
+    }
+}
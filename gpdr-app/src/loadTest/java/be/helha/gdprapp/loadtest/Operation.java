@@ -0,0 +1,27 @@
+package be.helha.gdprapp.loadtest;
+
+// Operations of the mixed workload, with their default share of the traffic
+public enum Operation {
+    LOGIN("login", 10),
+    MY_REQUESTS("my-requests", 30),
+    MANAGER_PENDING("manager-pending", 25),
+    CREATE_REQUEST("create-request", 15),
+    STATUS_UPDATE("status-update", 10),
+    STATISTICS("statistics", 10);
+
+    private final String name;
+    private final int defaultWeight;
+
+    Operation(String name, int defaultWeight) {
+        this.name = name;
+        this.defaultWeight = defaultWeight;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+}
@@ -0,0 +1,67 @@
+package be.helha.gdprapp.configuration;
+
+import be.helha.gdprapp.security.JWTFilter;
+import be.helha.gdprapp.services.ConcurrencyLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Sheds API requests beyond the adaptive concurrency limit with 503 and Retry-After
+ * instead of letting them queue for a database connection.
+ * Runs right after the security chain so the caller's role is known: administrators
+ * and authentication calls are admitted with the critical priority.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 1)
+@ConditionalOnProperty(name = "app.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private ConcurrencyLimiter concurrencyLimiter;
+
+    @Value("${app.concurrency-limit.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (!concurrencyLimiter.tryAcquire(priority(request))) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"message\":\"Server overloaded, please retry later\"}");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            concurrencyLimiter.release(System.nanoTime() - start);
+        }
+    }
+
+    private ConcurrencyLimiter.Priority priority(HttpServletRequest request) {
+        if (request.getRequestURI().startsWith("/api/auth/") || "ADMIN".equals(request.getAttribute(JWTFilter.ROLE_ATTRIBUTE))) {
+            return ConcurrencyLimiter.Priority.CRITICAL;
+        }
+        return ConcurrencyLimiter.Priority.NORMAL;
+    }
+}
@@ -0,0 +1,17 @@
+package be.helha.gdprapp.configuration;
+
+/**
+ * Named connection pools (bulkheads) of the primary database.
+ * Interactive API traffic uses WEB; background work and reports get their own pools
+ * so they can never take the connections requests need.
+ */
+public enum ConnectionPool {
+    WEB,
+    BATCH,
+    REPORTING;
+
+    // Name used for the bean, the Hikari pool and the app.datasource.pools.<name> properties
+    public String getPoolName() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,32 @@
+package be.helha.gdprapp.configuration;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Runs before the transaction interceptor so the transaction gets its connection from the selected pool
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConnectionPoolAspect {
+
+    @Around("@annotation(be.helha.gdprapp.configuration.UsePool) || @within(be.helha.gdprapp.configuration.UsePool)")
+    public Object usePool(ProceedingJoinPoint joinPoint) throws Throwable {
+        UsePool usePool = AnnotationUtils.findAnnotation(((MethodSignature) joinPoint.getSignature()).getMethod(), UsePool.class);
+        if (usePool == null) {
+            usePool = AnnotationUtils.findAnnotation(joinPoint.getTarget().getClass(), UsePool.class);
+        }
+
+        ConnectionPool previous = ConnectionPoolContext.set(usePool.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ConnectionPoolContext.restore(previous);
+        }
+    }
+}
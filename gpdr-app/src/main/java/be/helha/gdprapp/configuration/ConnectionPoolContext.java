@@ -0,0 +1,32 @@
+package be.helha.gdprapp.configuration;
+
+/**
+ * Pool selected for the current thread, WEB unless a @UsePool method or a background job chose another one.
+ */
+public final class ConnectionPoolContext {
+
+    private static final ThreadLocal<ConnectionPool> CURRENT = new ThreadLocal<>();
+
+    private ConnectionPoolContext() {
+    }
+
+    public static ConnectionPool current() {
+        ConnectionPool pool = CURRENT.get();
+        return pool != null ? pool : ConnectionPool.WEB;
+    }
+
+    // Select a pool and return the previous selection so it can be restored
+    public static ConnectionPool set(ConnectionPool pool) {
+        ConnectionPool previous = CURRENT.get();
+        CURRENT.set(pool);
+        return previous;
+    }
+
+    public static void restore(ConnectionPool previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+}
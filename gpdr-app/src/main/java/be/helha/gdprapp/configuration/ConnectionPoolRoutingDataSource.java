@@ -0,0 +1,25 @@
+package be.helha.gdprapp.configuration;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out connections from the pool selected in ConnectionPoolContext (WEB by default).
+ */
+public class ConnectionPoolRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ConnectionPoolRoutingDataSource(Map<ConnectionPool, DataSource> pools) {
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(pools.get(ConnectionPool.WEB));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ConnectionPoolContext.current();
+    }
+}
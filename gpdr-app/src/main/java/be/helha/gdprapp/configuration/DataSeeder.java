@@ -0,0 +1,51 @@
+package be.helha.gdprapp.configuration;
+
+import be.helha.gdprapp.services.DataSeederService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Seeds a synthetic data set at startup for performance environments (app.seed.enabled).
+ * Each start appends another data set, so enable it for one run only, e.g.
+ * SEED_ENABLED=true SEED_CLIENTS=1000000 ./gradlew bootRun
+ */
+@Component
+@ConditionalOnProperty(name = "app.seed.enabled", havingValue = "true")
+public class DataSeeder implements CommandLineRunner {
+
+    @Autowired
+    private DataSeederService dataSeederService;
+
+    @Value("${app.seed.companies:1000}")
+    private int companies;
+
+    @Value("${app.seed.clients:100000}")
+    private int clients;
+
+    @Value("${app.seed.average-requests-per-client:3.0}")
+    private double averageRequestsPerClient;
+
+    @Value("${app.seed.company-skew:1.1}")
+    private double companySkew;
+
+    @Value("${app.seed.random-seed:42}")
+    private long randomSeed;
+
+    @Value("${app.seed.batch-size:5000}")
+    private int batchSize;
+
+    @Override
+    public void run(String... args) {
+        DataSeederService.SeedOptions options = new DataSeederService.SeedOptions();
+        options.setCompanies(companies);
+        options.setClients(clients);
+        options.setAverageRequestsPerClient(averageRequestsPerClient);
+        options.setCompanySkew(companySkew);
+        options.setRandomSeed(randomSeed);
+        options.setBatchSize(batchSize);
+        dataSeederService.seed(options);
+    }
+}
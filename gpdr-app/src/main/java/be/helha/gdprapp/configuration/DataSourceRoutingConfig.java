@@ -0,0 +1,135 @@
+package be.helha.gdprapp.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Routed DataSource, used as soon as one of these is enabled:
+ * - app.datasource.routing.enabled=true: read-only transactions go to the replica (app.datasource.replica.*)
+ * - app.datasource.pools.enabled=true: the primary is split into the web, batch and reporting pools,
+ *   each configured by spring.datasource.hikari.* then app.datasource.pools.<name>.* and selected with @UsePool
+ * When both are disabled, Spring Boot's single auto-configured DataSource is used.
+ */
+@Configuration
+@Conditional(DataSourceRoutingConfig.RoutingOrPoolsEnabled.class)
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.pools.enabled", havingValue = "false", matchIfMissing = true)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(@Qualifier("primaryDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.pools.enabled", havingValue = "true")
+    public HikariDataSource webPool(@Qualifier("primaryDataSourceProperties") DataSourceProperties properties, Environment environment) {
+        return createPool(ConnectionPool.WEB, properties, environment);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.pools.enabled", havingValue = "true")
+    public HikariDataSource batchPool(@Qualifier("primaryDataSourceProperties") DataSourceProperties properties, Environment environment) {
+        return createPool(ConnectionPool.BATCH, properties, environment);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.pools.enabled", havingValue = "true")
+    public HikariDataSource reportingPool(@Qualifier("primaryDataSourceProperties") DataSourceProperties properties, Environment environment) {
+        return createPool(ConnectionPool.REPORTING, properties, environment);
+    }
+
+    // Takes the place of the single primary pool when the pools are split
+    @Bean(name = "primaryDataSource")
+    @ConditionalOnProperty(name = "app.datasource.pools.enabled", havingValue = "true")
+    public DataSource pooledPrimaryDataSource(@Qualifier("webPool") DataSource web,
+                                              @Qualifier("batchPool") DataSource batch,
+                                              @Qualifier("reportingPool") DataSource reporting) {
+        Map<ConnectionPool, DataSource> pools = new EnumMap<>(ConnectionPool.class);
+        pools.put(ConnectionPool.WEB, web);
+        pools.put(ConnectionPool.BATCH, batch);
+        pools.put(ConnectionPool.REPORTING, reporting);
+        return new ConnectionPoolRoutingDataSource(pools);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+    @ConfigurationProperties("app.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Qualifier("replicaDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replica,
+                                 @Value("${app.datasource.routing.replica-retry-ms:30000}") long retryDelayMs) {
+        DataSource replicaDataSource = replica.getIfAvailable();
+        DataSource target = replicaDataSource != null
+                ? new ReplicaRoutingDataSource(primary, replicaDataSource, retryDelayMs)
+                : primary;
+        return new LazyConnectionDataSourceProxy(target);
+    }
+
+    // Shared Hikari settings first, then the overrides of the named pool
+    private HikariDataSource createPool(ConnectionPool pool, DataSourceProperties properties, Environment environment) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder binder = Binder.get(environment);
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        binder.bind("app.datasource.pools." + pool.getPoolName(), Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(pool.getPoolName());
+        return dataSource;
+    }
+
+    static class RoutingOrPoolsEnabled extends AnyNestedCondition {
+
+        RoutingOrPoolsEnabled() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+        static class RoutingEnabled {
+        }
+
+        @ConditionalOnProperty(name = "app.datasource.pools.enabled", havingValue = "true")
+        static class PoolsEnabled {
+        }
+    }
+}
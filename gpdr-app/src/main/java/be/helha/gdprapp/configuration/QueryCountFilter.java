@@ -0,0 +1,54 @@
+package be.helha.gdprapp.configuration;
+
+import be.helha.gdprapp.services.QueryStatisticsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements of each HTTP request and warns past app.sql.n-plus-one-threshold,
+ * which is almost always a lazy association loaded in a loop.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "app.sql.monitoring.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCountFilter.class);
+
+    @Autowired
+    private QueryStatisticsService queryStatisticsService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.sql.n-plus-one-threshold:20}")
+    private int threshold;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        queryStatisticsService.startRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int queries = queryStatisticsService.endRequest();
+            meterRegistry.summary("gdpr.sql.queries.per.request").record(queries);
+            if (queries > threshold) {
+                log.warn("Possible N+1: {} SQL statements for {} {}", queries, request.getMethod(), request.getRequestURI());
+            }
+        }
+    }
+}
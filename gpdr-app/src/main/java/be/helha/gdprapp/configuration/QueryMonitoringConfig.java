@@ -0,0 +1,79 @@
+package be.helha.gdprapp.configuration;
+
+import be.helha.gdprapp.services.QueryStatisticsService;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Wraps the application DataSource with datasource-proxy so every statement is timed and counted
+ * by QueryStatisticsService, without Hibernate's SQL logging.
+ * Disable with app.sql.monitoring.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql.monitoring.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryMonitoringConfig {
+
+    // Static: post-processors are created before the other beans
+    @Bean
+    public static BeanPostProcessor queryMonitoringDataSourcePostProcessor(ObjectProvider<QueryStatisticsService> queryStatisticsService) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Only the DataSource used by JPA and JdbcTemplate, not the pools behind it
+                if (!(bean instanceof DataSource dataSource) || !"dataSource".equals(beanName)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name("gdpr")
+                        .listener(new StatisticsListener(queryStatisticsService))
+                        .build();
+            }
+        };
+    }
+
+    private static class StatisticsListener implements QueryExecutionListener {
+
+        private final ObjectProvider<QueryStatisticsService> queryStatisticsService;
+
+        private StatisticsListener(ObjectProvider<QueryStatisticsService> queryStatisticsService) {
+            this.queryStatisticsService = queryStatisticsService;
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            QueryStatisticsService service = queryStatisticsService.getObject();
+            for (QueryInfo queryInfo : queryInfoList) {
+                service.record(queryInfo.getQuery(), execInfo.getElapsedTime(), firstParameterSet(queryInfo));
+            }
+        }
+
+        private List<Object> firstParameterSet(QueryInfo queryInfo) {
+            if (queryInfo.getParametersList().isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<Object> parameters = new ArrayList<>();
+            for (ParameterSetOperation operation : queryInfo.getParametersList().get(0)) {
+                Object[] args = operation.getArgs();
+                parameters.add(args.length > 1 ? args[1] : null);
+            }
+            return parameters;
+        }
+    }
+}
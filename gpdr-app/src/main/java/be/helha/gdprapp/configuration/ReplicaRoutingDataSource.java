@@ -0,0 +1,72 @@
+package be.helha.gdprapp.configuration;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica and everything else to the primary.
+ * If the replica cannot hand out a connection, reads fall back to the primary and the
+ * replica is skipped for retryDelayMs before being tried again.
+ * Must be wrapped in a LazyConnectionDataSourceProxy so the connection is only fetched
+ * once the transaction's read-only flag is known.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private final DataSource primary;
+    private final long retryDelayMs;
+    private volatile long replicaDownUntil;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, long retryDelayMs) {
+        this.primary = primary;
+        this.retryDelayMs = retryDelayMs;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && System.currentTimeMillis() >= replicaDownUntil) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        try {
+            return super.getConnection();
+        } catch (SQLException e) {
+            return fallbackToPrimary(e, null, null);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        try {
+            return super.getConnection(username, password);
+        } catch (SQLException e) {
+            return fallbackToPrimary(e, username, password);
+        }
+    }
+
+    // Only a failing replica falls back, primary errors are rethrown
+    private Connection fallbackToPrimary(SQLException e, String username, String password) throws SQLException {
+        if (!REPLICA.equals(determineCurrentLookupKey())) {
+            throw e;
+        }
+
+        replicaDownUntil = System.currentTimeMillis() + retryDelayMs;
+        logger.warn("Read replica unavailable, falling back to primary for " + retryDelayMs + " ms: " + e.getMessage());
+        return username != null ? primary.getConnection(username, password) : primary.getConnection();
+    }
+}
@@ -0,0 +1,97 @@
+package be.helha.gdprapp.configuration;
+
+import be.helha.gdprapp.services.RequestPartitionService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+/**
+ * Turns gdpr_requests into a table partitioned by month of request_date.
+ * Runs once, after Hibernate created the table and SequenceMigration moved its id to the sequence.
+ * In a single transaction (the table is locked meanwhile):
+ * - the table is renamed and an empty partitioned copy takes its name, with the same columns and defaults,
+ * - one partition per month from the oldest request to months-ahead from now, plus a default partition,
+ * - rows are copied, the old table dropped, then the primary key, indexes and foreign keys are rebuilt.
+ * A primary key of a partitioned table must contain the partition key, so it becomes (id_request, request_date);
+ * ids still come from gdpr_requests_seq and stay unique. Skipped once the table is partitioned,
+ * or when disabled. Only PostgreSQL databases are migrated.
+ */
+@Component
+@DependsOn({"entityManagerFactory", "sequenceMigration"})
+public class RequestPartitionMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestPartitionMigration.class);
+
+    private static final String TABLE = RequestPartitionService.TABLE;
+    private static final String OLD_TABLE = TABLE + "_unpartitioned";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RequestPartitionService requestPartitionService;
+
+    @Value("${app.partitions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @PostConstruct
+    public void migrate() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!enabled || !"PostgreSQL".equals(database) || requestPartitionService.isPartitioned()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        Long rows = new TransactionTemplate(transactionManager).execute(status -> partition());
+        log.info("Partitioned {} by month of request_date: {} rows moved in {} ms", TABLE, rows, System.currentTimeMillis() - start);
+    }
+
+    private Long partition() {
+        jdbcTemplate.execute("LOCK TABLE " + TABLE + " IN ACCESS EXCLUSIVE MODE");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO " + OLD_TABLE);
+        // The sequence would be dropped with the old table
+        jdbcTemplate.execute("ALTER SEQUENCE gdpr_requests_seq OWNED BY NONE");
+        jdbcTemplate.execute("CREATE TABLE " + TABLE + " (LIKE " + OLD_TABLE + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS) " +
+                "PARTITION BY RANGE (request_date)");
+
+        LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT MIN(request_date) FROM " + OLD_TABLE, LocalDateTime.class);
+        YearMonth now = YearMonth.now();
+        YearMonth first = oldest == null || YearMonth.from(oldest).isAfter(now) ? now : YearMonth.from(oldest);
+        for (YearMonth month = first; !month.isAfter(now.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            requestPartitionService.createPartition(month);
+        }
+        jdbcTemplate.execute("CREATE TABLE " + RequestPartitionService.DEFAULT_PARTITION + " PARTITION OF " + TABLE + " DEFAULT");
+
+        long rows = jdbcTemplate.update("INSERT INTO " + TABLE + " SELECT * FROM " + OLD_TABLE);
+        // Frees the names of the old primary key and indexes
+        jdbcTemplate.execute("DROP TABLE " + OLD_TABLE);
+
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT " + TABLE + "_pkey PRIMARY KEY (id_request, request_date)");
+        jdbcTemplate.execute("CREATE INDEX idx_gdpr_requests_status_due_date ON " + TABLE + " (status, due_date)");
+        jdbcTemplate.execute("CREATE INDEX idx_gdpr_requests_request_date ON " + TABLE + " (request_date)");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT fk_gdpr_requests_user " +
+                "FOREIGN KEY (id_user) REFERENCES users (id_user)");
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " ADD CONSTRAINT fk_gdpr_requests_company " +
+                "FOREIGN KEY (id_company) REFERENCES companies (id_company)");
+        jdbcTemplate.execute("ALTER SEQUENCE gdpr_requests_seq OWNED BY " + TABLE + ".id_request");
+        return rows;
+    }
+}
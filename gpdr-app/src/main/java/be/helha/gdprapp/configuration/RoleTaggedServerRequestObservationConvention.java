@@ -0,0 +1,29 @@
+package be.helha.gdprapp.configuration;
+
+import be.helha.gdprapp.security.JWTFilter;
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adds the caller's role to http.server.requests, so latency is grouped by URI template and role.
+ * The role is read from the request attribute set by JWTFilter: the security context is
+ * already cleared when the observation stops.
+ */
+@Component
+public class RoleTaggedServerRequestObservationConvention extends DefaultServerRequestObservationConvention {
+
+    private static final String ANONYMOUS = "ANONYMOUS";
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and(role(context));
+    }
+
+    private KeyValue role(ServerRequestObservationContext context) {
+        Object role = context.getCarrier().getAttribute(JWTFilter.ROLE_ATTRIBUTE);
+        return KeyValue.of("role", role != null ? role.toString() : ANONYMOUS);
+    }
+}
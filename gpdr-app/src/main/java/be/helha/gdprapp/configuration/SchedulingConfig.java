@@ -0,0 +1,10 @@
+package be.helha.gdprapp.configuration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Enables the @Scheduled background jobs (notification digests)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
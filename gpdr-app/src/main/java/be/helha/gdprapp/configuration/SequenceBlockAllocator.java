@@ -0,0 +1,52 @@
+package be.helha.gdprapp.configuration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reserves ids from the pooled sequences for inserts made outside Hibernate (JDBC batches).
+ * Each sequence value is the low end of a block of ALLOCATION_SIZE ids, like Hibernate's pooled-lo
+ * optimizer, so both can insert into the same table. The next-value statement comes from the
+ * Hibernate dialect, so it works on PostgreSQL and on H2.
+ */
+@Component
+public class SequenceBlockAllocator {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // sequence -> next value statement
+    private final Map<String, String> nextValueSql = new ConcurrentHashMap<>();
+
+    /**
+     * Reserve ids, one sequence call per block
+     * @param sequence Sequence name
+     * @param count Number of ids
+     * @return Reserved ids, in block order
+     */
+    public List<Integer> reserve(String sequence, int count) {
+        String sql = nextValueSql.computeIfAbsent(sequence, name -> entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect().getSequenceSupport().getSequenceNextValString(name));
+
+        List<Integer> ids = new ArrayList<>(count);
+        int blocks = (count + SequenceMigration.ALLOCATION_SIZE - 1) / SequenceMigration.ALLOCATION_SIZE;
+        for (int block = 0; block < blocks; block++) {
+            long low = jdbcTemplate.queryForObject(sql, Long.class);
+            for (int i = 0; i < SequenceMigration.ALLOCATION_SIZE && ids.size() < count; i++) {
+                ids.add((int) (low + i));
+            }
+        }
+        return ids;
+    }
+}
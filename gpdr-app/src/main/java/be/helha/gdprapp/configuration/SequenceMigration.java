@@ -0,0 +1,68 @@
+package be.helha.gdprapp.configuration;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves the primary keys from IDENTITY columns to the pooled sequences used by the entities.
+ * Runs after Hibernate has updated the schema (so the sequences exist) and before any insert:
+ * - each sequence is moved past the highest existing id (never backwards),
+ * - the identity is dropped and the column defaults to the sequence, so SQL inserts
+ *   that omit the id keep working without colliding with Hibernate's blocks.
+ * Every step is idempotent. Only PostgreSQL databases are migrated.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SequenceMigration {
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    // table -> {id column, sequence}
+    private static final Map<String, String[]> SEQUENCES = Map.of(
+            "roles", new String[] {"id_role", "roles_seq"},
+            "companies", new String[] {"id_company", "companies_seq"},
+            "users", new String[] {"id_user", "users_seq"},
+            "gdpr_requests", new String[] {"id_request", "gdpr_requests_seq"}
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void migrate() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return;
+        }
+
+        for (Map.Entry<String, String[]> entry : SEQUENCES.entrySet()) {
+            migrateTable(entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+        }
+    }
+
+    private void migrateTable(String table, String idColumn, String sequence) {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence + " START WITH 1 INCREMENT BY " + ALLOCATION_SIZE);
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + ALLOCATION_SIZE);
+
+        // Next value handed out by the sequence must be above every existing id
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(" + idColumn + "), 0) FROM " + table, Long.class);
+        Map<String, Object> state = jdbcTemplate.queryForMap("SELECT last_value, is_called FROM " + sequence);
+        long lastValue = ((Number) state.get("last_value")).longValue();
+        boolean called = Boolean.TRUE.equals(state.get("is_called"));
+        long nextValue = called ? lastValue + ALLOCATION_SIZE : lastValue;
+        if (nextValue <= maxId) {
+            jdbcTemplate.queryForObject("SELECT setval('" + sequence + "', ?, false)", Long.class, maxId + 1);
+        }
+
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + idColumn + " DROP IDENTITY IF EXISTS");
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + idColumn + " SET DEFAULT nextval('" + sequence + "')");
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " OWNED BY " + table + "." + idColumn);
+    }
+}
@@ -0,0 +1,37 @@
+package be.helha.gdprapp.configuration;
+
+import be.helha.gdprapp.services.SmtpCircuitBreaker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the SMTP circuit breaker in /actuator/health.
+ * An open circuit is DEGRADED (still HTTP 200): the API keeps serving without e-mails,
+ * so a mail outage must not get the instance restarted or taken out of the load balancer.
+ */
+@Component
+public class SmtpCircuitBreakerHealthIndicator implements HealthIndicator {
+
+    public static final Status DEGRADED = new Status("DEGRADED", "Mail delivery suspended");
+
+    @Autowired
+    private SmtpCircuitBreaker smtpCircuitBreaker;
+
+    @Override
+    public Health health() {
+        SmtpCircuitBreaker.State state = smtpCircuitBreaker.getState();
+        Health.Builder builder = state == SmtpCircuitBreaker.State.CLOSED ? Health.up() : Health.status(DEGRADED);
+        builder.withDetail("state", state)
+                .withDetail("consecutiveFailures", smtpCircuitBreaker.getConsecutiveFailures());
+        if (smtpCircuitBreaker.getLastError() != null) {
+            builder.withDetail("lastError", smtpCircuitBreaker.getLastError());
+        }
+        if (state == SmtpCircuitBreaker.State.OPEN) {
+            builder.withDetail("retryInMs", smtpCircuitBreaker.getRemainingOpenMs());
+        }
+        return builder.build();
+    }
+}
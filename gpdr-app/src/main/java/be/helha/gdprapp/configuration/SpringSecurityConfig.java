@@ -1,11 +1,15 @@
 package be.helha.gdprapp.configuration;
 
 import be.helha.gdprapp.security.JWTFilter;
+import be.helha.gdprapp.security.TimedPasswordEncoder;
+import be.helha.gdprapp.security.UserAuthenticationProvider;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -41,6 +45,10 @@ public class SpringSecurityConfig {
 
                     auth.requestMatchers("/", "/error").permitAll();
 
+                    // Monitoring: health is public, metrics and the Prometheus scrape are admin only
+                    auth.requestMatchers("/actuator/health", "/actuator/health/**").permitAll();
+                    auth.requestMatchers("/actuator/**").hasRole("ADMIN");
+
 
                     // UC1 - CLIENT: GDPR requests management
                     auth.requestMatchers("/api/gdpr/my-requests").hasRole("CLIENT");
@@ -54,6 +62,8 @@ public class SpringSecurityConfig {
                     // UC3 - ADMIN: User management
                     auth.requestMatchers("/api/admin/**").hasRole("ADMIN");
                     auth.requestMatchers("/api/users/**").hasRole("ADMIN");
+                    auth.requestMatchers(HttpMethod.PUT, "/api/companies/*/notifications").hasRole("ADMIN");
+                    auth.requestMatchers("/api/gdpr-requests/analytics/**").hasRole("ADMIN");
 
                     // Any other request requires authentication
                     auth.anyRequest().authenticated();
@@ -63,14 +73,15 @@ public class SpringSecurityConfig {
                 .build();
     }
 
+    // Single provider: one user lookup per login, principal keeps the loaded entity
     @Bean
-    public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
-        return config.getAuthenticationManager();
+    public AuthenticationManager authenticationManager(UserAuthenticationProvider userAuthenticationProvider) {
+        return new ProviderManager(userAuthenticationProvider);
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 
 // Dans votre SpringSecurityConfig.java, remplacez la méthode corsConfigurationSource par :
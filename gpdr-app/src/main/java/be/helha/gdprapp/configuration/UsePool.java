@@ -0,0 +1,20 @@
+package be.helha.gdprapp.configuration;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Run a service method (or every method of a class) on a named connection pool.
+ * Only effective when the method starts the transaction: a transaction that is already
+ * running keeps the connection it has.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface UsePool {
+
+    ConnectionPool value();
+}
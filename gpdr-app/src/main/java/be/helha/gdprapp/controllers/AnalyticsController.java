@@ -0,0 +1,30 @@
+package be.helha.gdprapp.controllers;
+
+import be.helha.gdprapp.services.ProcessingTimeAnalytics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@CrossOrigin(origins = "*")
+public class AnalyticsController {
+
+    @Autowired
+    private ProcessingTimeAnalytics processingTimeAnalytics;
+
+    // Get the p50/p90/p99 processing times and the backlog of every company (Admin only)
+    @GetMapping("/processing-time")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProcessingTimeAnalytics.ProcessingTimeReport> getProcessingTimeReport() {
+        return ResponseEntity.ok(processingTimeAnalytics.getReport());
+    }
+
+    // Get the processing times and the backlog of a company (Admin only)
+    @GetMapping("/processing-time/{companyId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProcessingTimeAnalytics.ProcessingTimeStatistics> getCompanyProcessingTime(@PathVariable Integer companyId) {
+        return ResponseEntity.ok(processingTimeAnalytics.getCompanyStatistics(companyId));
+    }
+}
@@ -0,0 +1,34 @@
+package be.helha.gdprapp.controllers;
+
+import be.helha.gdprapp.services.GDPRRequestArchiver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/archive")
+@CrossOrigin(origins = "*")
+public class ArchiveController {
+
+    @Autowired
+    private GDPRRequestArchiver gdprRequestArchiver;
+
+    // Get the state of the archival of processed requests (Admin only)
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<GDPRRequestArchiver.ArchiveStatus> getStatus() {
+        return ResponseEntity.ok(gdprRequestArchiver.getStatus());
+    }
+
+    // Start an archival run now instead of waiting for the nightly one (Admin only)
+    @PostMapping("/run")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<GDPRRequestArchiver.ArchiveStatus> run() {
+        if (!gdprRequestArchiver.archiveInBackground()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(gdprRequestArchiver.getStatus());
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(gdprRequestArchiver.getStatus());
+    }
+}
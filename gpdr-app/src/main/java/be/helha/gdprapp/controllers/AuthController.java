@@ -1,8 +1,10 @@
 package be.helha.gdprapp.controllers;
 
 import be.helha.gdprapp.models.User;
+import be.helha.gdprapp.security.UserPrincipal;
 import be.helha.gdprapp.services.AuthService;
 import be.helha.gdprapp.utils.JWTUtils;
+import io.jsonwebtoken.Claims;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,7 +15,7 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -65,15 +67,14 @@ public class AuthController {
     @Operation(summary = "Login user", description = "Authenticate user and return JWT token")
     public ResponseEntity<?> authenticateUser(@RequestBody LoginRequest loginRequest) {
         try {
-            // Authenticate user
+            // Authenticate user (single lookup, principal carries the loaded entity)
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             loginRequest.getEmail(),
                             loginRequest.getPassword())
             );
 
-            // Get user information from our service
-            User user = authService.getUserByEmail(loginRequest.getEmail());
+            User user = ((UserPrincipal) authentication.getPrincipal()).getUser();
 
             // Generate JWT token using our User entity
             String jwt = jwtUtils.generateToken(user);
@@ -98,12 +99,10 @@ public class AuthController {
     @PostMapping("/refresh")
     public ResponseEntity<?> refreshToken(@RequestBody TokenRefreshRequest request) {
         try {
-            String oldToken = request.getToken();
-
-            // Validate old token
-            if (jwtUtils.validateToken(oldToken)) {
-                String email = jwtUtils.extractUsername(oldToken);
-                User user = authService.getUserByEmail(email);
+            // Validate old token (parsed once)
+            Claims claims = jwtUtils.parseValidToken(request.getToken());
+            if (claims != null) {
+                User user = resolveUser(claims.getSubject());
 
                 // Generate new token
                 String newToken = jwtUtils.generateToken(user);
@@ -129,10 +128,9 @@ public class AuthController {
     @PostMapping("/validate")
     public ResponseEntity<?> validateToken(@RequestBody TokenValidationRequest request) {
         try {
-            boolean isValid = jwtUtils.validateToken(request.getToken());
-            if (isValid) {
-                String email = jwtUtils.extractUsername(request.getToken());
-                User user = authService.getUserByEmail(email);
+            Claims claims = jwtUtils.parseValidToken(request.getToken());
+            if (claims != null) {
+                User user = resolveUser(claims.getSubject());
                 return ResponseEntity.ok(new UserInfoResponse(
                         user.getIdUser(),
                         user.getEmail(),
@@ -185,6 +183,16 @@ public class AuthController {
         }
     }
 
+    // Reuse the user entity already loaded for this request, query only otherwise
+    private User resolveUser(String email) {
+        Authentication current = SecurityContextHolder.getContext().getAuthentication();
+        if (current != null && current.getPrincipal() instanceof UserPrincipal principal
+                && principal.getUser() != null && principal.getUsername().equals(email)) {
+            return principal.getUser();
+        }
+        return authService.getUserByEmail(email);
+    }
+
     // Inner classes for request/response DTOs
     public static class LoginRequest {
         private String email;
@@ -0,0 +1,31 @@
+package be.helha.gdprapp.controllers;
+
+import be.helha.gdprapp.services.ReferenceDataCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@CrossOrigin(origins = "*")
+public class CacheController {
+
+    @Autowired
+    private ReferenceDataCacheService referenceDataCacheService;
+
+    // Get hit ratios of the second-level cache (Admin only)
+    @GetMapping("/statistics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ReferenceDataCacheService.CacheStatistics> getCacheStatistics() {
+        return ResponseEntity.ok(referenceDataCacheService.getCacheStatistics());
+    }
+
+    // Clear the reference data cache (Admin only)
+    @DeleteMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> evictAll() {
+        referenceDataCacheService.evictAll();
+        return ResponseEntity.noContent().build();
+    }
+}
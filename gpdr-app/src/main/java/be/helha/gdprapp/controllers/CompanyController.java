@@ -126,6 +126,26 @@ public class CompanyController {
         }
     }
 
+    // Update company notification settings (Admin only)
+    @PutMapping("/{id}/notifications")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Update notification settings",
+            description = "Notify the company of each request (IMMEDIATE) or send grouped e-mails (BATCHED, DIGEST)",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<?> updateNotificationSettings(@PathVariable Integer id, @RequestBody NotificationSettingsRequest request) {
+        try {
+            if (companyService.getCompanyById(id).isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+
+            Company updatedCompany = companyService.updateNotificationSettings(id, request.getMode(), request.getIntervalMinutes());
+            return ResponseEntity.ok(updatedCompany);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Error updating notification settings: " + e.getMessage()));
+        }
+    }
+
     // Delete company (Admin only)
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
@@ -274,6 +294,18 @@ public class CompanyController {
         }
     }
 
+    // Inner class for requests
+    public static class NotificationSettingsRequest {
+        private String mode;
+        private Integer intervalMinutes;
+
+        // Getters and setters
+        public String getMode() { return mode; }
+        public void setMode(String mode) { this.mode = mode; }
+        public Integer getIntervalMinutes() { return intervalMinutes; }
+        public void setIntervalMinutes(Integer intervalMinutes) { this.intervalMinutes = intervalMinutes; }
+    }
+
     // Inner classes for responses
     public static class ErrorResponse {
         private String message;
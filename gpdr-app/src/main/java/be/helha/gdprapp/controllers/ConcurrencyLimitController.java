@@ -0,0 +1,23 @@
+package be.helha.gdprapp.controllers;
+
+import be.helha.gdprapp.services.ConcurrencyLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/limiter")
+@CrossOrigin(origins = "*")
+public class ConcurrencyLimitController {
+
+    @Autowired
+    private ConcurrencyLimiter concurrencyLimiter;
+
+    // Get the current concurrency limit, in-flight requests and rejections (Admin only)
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ConcurrencyLimiter.LimiterStatistics> getLimiterStatistics() {
+        return ResponseEntity.ok(concurrencyLimiter.getStatistics());
+    }
+}
@@ -0,0 +1,25 @@
+package be.helha.gdprapp.controllers;
+
+import be.helha.gdprapp.services.ConnectionPoolService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/pools")
+@CrossOrigin(origins = "*")
+public class ConnectionPoolController {
+
+    @Autowired
+    private ConnectionPoolService connectionPoolService;
+
+    // Get active/idle/waiting connections of every pool (Admin only)
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, ConnectionPoolService.PoolStatistics>> getPoolStatistics() {
+        return ResponseEntity.ok(connectionPoolService.getPoolStatistics());
+    }
+}
@@ -0,0 +1,23 @@
+package be.helha.gdprapp.controllers;
+
+import be.helha.gdprapp.services.DeadlineTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/deadlines")
+@CrossOrigin(origins = "*")
+public class DeadlineController {
+
+    @Autowired
+    private DeadlineTracker deadlineTracker;
+
+    // Get the tracked requests and the reminders and escalations sent (Admin only)
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<DeadlineTracker.DeadlineStatistics> getDeadlineStatistics() {
+        return ResponseEntity.ok(deadlineTracker.getStatistics());
+    }
+}
@@ -1,7 +1,9 @@
 package be.helha.gdprapp.controllers;
 
 import be.helha.gdprapp.models.GDPRRequest;
+import be.helha.gdprapp.security.CurrentUserContext;
 import be.helha.gdprapp.services.GDPRRequestService;
+import be.helha.gdprapp.services.RequestRollupService;
 import be.helha.gdprapp.services.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -14,6 +16,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -30,6 +33,12 @@ public class GDPRRequestController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private CurrentUserContext currentUserContext;
+
+    @Autowired
+    private RequestRollupService requestRollupService;
+
     // Get all GDPR requests (Admin only)
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -42,7 +51,7 @@ public class GDPRRequestController {
 
     // Get GDPR request by ID
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or @gdprRequestService.canUserAccessRequest(#id, @userService.getCurrentUser().idUser)")
+    @PreAuthorize("hasRole('ADMIN') or @gdprRequestService.canCurrentUserAccessRequest(#id)")
     @Operation(summary = "Get GDPR request by ID", description = "Retrieve a GDPR request by its ID",
             security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<GDPRRequest> getGDPRRequestById(@PathVariable Integer id) {
@@ -137,7 +146,10 @@ public class GDPRRequestController {
             gdprRequest.setCompany(new be.helha.gdprapp.models.Company());
             gdprRequest.getCompany().setIdCompany(requestDTO.getCompanyId());
 
-            GDPRRequest savedRequest = gdprRequestService.createGDPRRequest(gdprRequest);
+            // Bursty creation traffic can be coalesced into batched inserts
+            GDPRRequest savedRequest = gdprRequestService.isGroupCommitEnabled()
+                    ? gdprRequestService.createGDPRRequestGrouped(gdprRequest)
+                    : gdprRequestService.createGDPRRequest(gdprRequest);
             return ResponseEntity.status(HttpStatus.CREATED).body(savedRequest);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -163,7 +175,7 @@ public class GDPRRequestController {
 
     // Update GDPR request content (User's own pending requests or Admin)
     @PutMapping("/{id}/content")
-    @PreAuthorize("hasRole('ADMIN') or @gdprRequestService.canUserAccessRequest(#id, @userService.getCurrentUser().idUser)")
+    @PreAuthorize("hasRole('ADMIN') or @gdprRequestService.canCurrentUserAccessRequest(#id)")
     @Operation(summary = "Update GDPR request content", description = "Update the content of a GDPR request",
             security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<?> updateRequestContent(@PathVariable Integer id,
@@ -179,7 +191,7 @@ public class GDPRRequestController {
 
     // Delete GDPR request
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or @gdprRequestService.canUserAccessRequest(#id, @userService.getCurrentUser().idUser)")
+    @PreAuthorize("hasRole('ADMIN') or @gdprRequestService.canCurrentUserAccessRequest(#id)")
     @Operation(summary = "Delete GDPR request", description = "Delete a GDPR request",
             security = @SecurityRequirement(name = "bearerAuth"))
     public ResponseEntity<?> deleteGDPRRequest(@PathVariable Integer id) {
@@ -228,11 +240,13 @@ public class GDPRRequestController {
     public ResponseEntity<List<GDPRRequest>> getMyRequestsByStatus(@PathVariable String status,
                                                                    Authentication authentication) {
         try {
-            String userEmail = authentication.getName();
-            be.helha.gdprapp.models.User user = userService.getUserByEmail(userEmail)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            // User id comes from the token, no lookup by email needed
+            Integer userId = currentUserContext.getUserId();
+            if (userId == null) {
+                throw new RuntimeException("User not found");
+            }
 
-            List<GDPRRequest> requests = gdprRequestService.getUserRequestsByStatus(user.getIdUser(), status);
+            List<GDPRRequest> requests = gdprRequestService.getUserRequestsByStatus(userId, status);
             return ResponseEntity.ok(requests);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(null);
@@ -299,6 +313,24 @@ public class GDPRRequestController {
         return ResponseEntity.ok(stats);
     }
 
+    // Get the number of requests per day (read from the daily rollups)
+    @GetMapping("/analytics/timeseries")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get requests per day", description = "Get the number of GDPR requests per day, optionally for one company, type or status",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<List<RequestRollupService.TimeseriesPoint>> getRequestTimeseries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Integer companyId,
+            @RequestParam(required = false) String requestType,
+            @RequestParam(required = false) String status) {
+        try {
+            return ResponseEntity.ok(requestRollupService.getTimeseries(from, to, companyId, requestType, status));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(null);
+        }
+    }
+
     // Get valid request types
     @GetMapping("/valid-types")
     @PreAuthorize("hasRole('CLIENT') or hasRole('ADMIN') or hasRole('GERANT')")
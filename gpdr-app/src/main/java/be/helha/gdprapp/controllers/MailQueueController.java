@@ -0,0 +1,25 @@
+package be.helha.gdprapp.controllers;
+
+import be.helha.gdprapp.services.OutboundMailScheduler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/mail/queue")
+@CrossOrigin(origins = "*")
+public class MailQueueController {
+
+    @Autowired
+    private OutboundMailScheduler outboundMailScheduler;
+
+    // Get depth, active tenants and wait times of the outbound mail lanes (Admin only)
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<OutboundMailScheduler.LaneStatistics>> getQueueStatistics() {
+        return ResponseEntity.ok(outboundMailScheduler.getStatistics());
+    }
+}
@@ -0,0 +1,31 @@
+package be.helha.gdprapp.controllers;
+
+import be.helha.gdprapp.services.RequestPartitionMaintenance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/partitions")
+@CrossOrigin(origins = "*")
+public class PartitionController {
+
+    @Autowired
+    private RequestPartitionMaintenance requestPartitionMaintenance;
+
+    // Get the monthly partitions of gdpr_requests with their estimated size (Admin only)
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RequestPartitionMaintenance.PartitionStatus> getStatus() {
+        return ResponseEntity.ok(requestPartitionMaintenance.getStatus());
+    }
+
+    // Create the partitions of the coming months now instead of waiting for the nightly run (Admin only)
+    @PostMapping("/create-ahead")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RequestPartitionMaintenance.PartitionStatus> createAhead() {
+        requestPartitionMaintenance.createAhead();
+        return ResponseEntity.ok(requestPartitionMaintenance.getStatus());
+    }
+}
@@ -0,0 +1,33 @@
+package be.helha.gdprapp.controllers;
+
+import be.helha.gdprapp.services.QueryStatisticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/queries")
+@CrossOrigin(origins = "*")
+public class QueryStatisticsController {
+
+    @Autowired
+    private QueryStatisticsService queryStatisticsService;
+
+    // Get the statements with the highest total execution time (Admin only)
+    @GetMapping("/top")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<QueryStatisticsService.QueryStatistics>> getTopQueries(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(queryStatisticsService.getTopQueries(limit));
+    }
+
+    // Reset the statement statistics (Admin only)
+    @DeleteMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> reset() {
+        queryStatisticsService.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,43 @@
+package be.helha.gdprapp.controllers;
+
+import be.helha.gdprapp.services.RequestRollupBackfill;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/admin/rollups")
+@CrossOrigin(origins = "*")
+public class RollupController {
+
+    @Autowired
+    private RequestRollupBackfill requestRollupBackfill;
+
+    // Get the progress of the last rollup rebuild (Admin only)
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RequestRollupBackfill.BackfillStatus> getStatus() {
+        return ResponseEntity.ok(requestRollupBackfill.getStatus());
+    }
+
+    // Rebuild the daily rollups of a range of days in the background (Admin only)
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RequestRollupBackfill.BackfillStatus> rebuild(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            if (!requestRollupBackfill.rebuildInBackground(from, to)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(requestRollupBackfill.getStatus());
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(requestRollupBackfill.getStatus());
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package be.helha.gdprapp.controllers;
+
+import be.helha.gdprapp.services.VirtualThreadPinningMonitor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/threads")
+@CrossOrigin(origins = "*")
+public class ThreadingController {
+
+    @Autowired
+    private VirtualThreadPinningMonitor virtualThreadPinningMonitor;
+
+    // Get the code sites where virtual threads were pinned to their carrier (Admin only)
+    @GetMapping("/pinning")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<VirtualThreadPinningMonitor.PinningStatistics> getPinningStatistics() {
+        return ResponseEntity.ok(virtualThreadPinningMonitor.getPinningStatistics());
+    }
+}
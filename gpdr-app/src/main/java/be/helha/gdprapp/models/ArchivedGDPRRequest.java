@@ -0,0 +1,53 @@
+package be.helha.gdprapp.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Processed request moved out of gdpr_requests once older than the retention window.
+// Read-only: looked up by id and by user when the request is no longer in gdpr_requests.
+@Entity
+@Table(name = "gdpr_requests_archive", indexes = {
+        @Index(name = "idx_gdpr_requests_archive_user", columnList = "id_user, request_date"),
+        @Index(name = "idx_gdpr_requests_archive_company", columnList = "id_company"),
+        @Index(name = "idx_gdpr_requests_archive_request_date", columnList = "request_date")
+})
+@Data
+@NoArgsConstructor
+public class ArchivedGDPRRequest {
+
+    // Same id as in gdpr_requests
+    @Id
+    @Column(name = "id_request")
+    private Integer idRequest;
+
+    @Column(name = "request_type", nullable = false)
+    private String requestType;
+
+    @Column(name = "status", nullable = false)
+    private String status;
+
+    @Column(name = "request_date", nullable = false)
+    private LocalDateTime requestDate;
+
+    @Column(name = "request_content", length = 150)
+    private String requestContent;
+
+    @Column(name = "due_date")
+    private LocalDateTime dueDate;
+
+    @Column(name = "processed_date")
+    private LocalDateTime processedDate;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_user", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_company", nullable = false)
+    private Company company;
+}
@@ -5,9 +5,13 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "companies")
 @Table(name = "companies")
 @Data
 @NoArgsConstructor
@@ -15,7 +19,8 @@ import java.util.List;
 public class Company {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "companies_generator")
+    @SequenceGenerator(name = "companies_generator", sequenceName = "companies_seq", allocationSize = 50)
     @Column(name = "id_company")
     private Integer idCompany;
 
@@ -25,6 +30,13 @@ public class Company {
     @Column(name = "email", length = 50, nullable = false)
     private String email;
 
+    // How new requests are notified: "IMMEDIATE" (one e-mail each), "BATCHED" (one e-mail every
+    // notificationIntervalMinutes) or "DIGEST" (one e-mail a day). Null is treated as IMMEDIATE.
+    @Column(name = "notification_mode", length = 10)
+    private String notificationMode = "IMMEDIATE";
+
+    @Column(name = "notification_interval_minutes")
+    private Integer notificationIntervalMinutes;
 
     @OneToMany(mappedBy = "company", fetch = FetchType.LAZY)
     @JsonIgnore
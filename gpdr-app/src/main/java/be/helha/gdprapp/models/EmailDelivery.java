@@ -0,0 +1,42 @@
+package be.helha.gdprapp.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// One e-mail send attempt, written asynchronously by EmailDeliveryLedger
+@Entity
+@Table(name = "email_deliveries", indexes = @Index(name = "idx_email_deliveries_sent_at", columnList = "sent_at"))
+@Data
+@NoArgsConstructor
+public class EmailDelivery {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "email_deliveries_generator")
+    @SequenceGenerator(name = "email_deliveries_generator", sequenceName = "email_deliveries_seq", allocationSize = 50)
+    @Column(name = "id_delivery")
+    private Long idDelivery;
+
+    @Column(name = "template", length = 50, nullable = false)
+    private String template;
+
+    // SHA-256 of the lower-cased address: deliveries can be grouped per recipient without storing it
+    @Column(name = "recipient_hash", length = 64, nullable = false)
+    private String recipientHash;
+
+    @Column(name = "status", length = 10, nullable = false)
+    private String status; // "SENT", "FAILED", "REJECTED"
+
+    @Column(name = "latency_ms", nullable = false)
+    private Long latencyMs;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    @Column(name = "sent_at", nullable = false)
+    private LocalDateTime sentAt;
+
+    @Column(name = "error", length = 255)
+    private String error;
+}
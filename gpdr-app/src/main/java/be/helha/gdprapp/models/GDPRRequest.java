@@ -7,14 +7,18 @@ import lombok.AllArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "gdpr_requests")
+@Table(name = "gdpr_requests", indexes = {
+        @Index(name = "idx_gdpr_requests_status_due_date", columnList = "status, due_date"),
+        @Index(name = "idx_gdpr_requests_request_date", columnList = "request_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class GDPRRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "gdpr_requests_generator")
+    @SequenceGenerator(name = "gdpr_requests_generator", sequenceName = "gdpr_requests_seq", allocationSize = 50)
     @Column(name = "id_request")
     private Integer idRequest;
 
@@ -30,6 +34,18 @@ public class GDPRRequest {
     @Column(name = "request_content", length = 150)
     private String requestContent;
 
+    // Date by which the company must answer (one month after the request); null on requests created before it existed
+    @Column(name = "due_date")
+    private LocalDateTime dueDate;
+
+    // When the request was last marked PROCESSED; null while pending and on requests processed before it existed
+    @Column(name = "processed_date")
+    private LocalDateTime processedDate;
+
+    // Deadline notices already sent: reminders first, then the escalation (null counts as 0)
+    @Column(name = "reminder_level")
+    private Integer reminderLevel = 0;
+
     // Simple relations with foreign keys - GARDÉES (pas de problème circulaire)
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "id_user", nullable = false)
@@ -46,6 +62,7 @@ public class GDPRRequest {
         this.user = user;
         this.company = company;
         this.requestDate = LocalDateTime.now();
+        this.dueDate = this.requestDate.plusMonths(1);
         this.status = "PENDING";
     }
 }
\ No newline at end of file
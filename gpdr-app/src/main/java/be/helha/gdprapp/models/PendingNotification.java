@@ -0,0 +1,41 @@
+package be.helha.gdprapp.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// A new request waiting for the next notification e-mail of its company (BATCHED or DIGEST mode).
+// Ids only: the digest loads the requests when it is sent.
+// claimed_at is set while a digest including it is being sent, and cleared if the e-mail fails.
+@Entity
+@Table(name = "pending_notifications", indexes = @Index(name = "idx_pending_notifications_company", columnList = "id_company, created_at"))
+@Data
+@NoArgsConstructor
+public class PendingNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pending_notifications_generator")
+    @SequenceGenerator(name = "pending_notifications_generator", sequenceName = "pending_notifications_seq", allocationSize = 50)
+    @Column(name = "id_notification")
+    private Long idNotification;
+
+    @Column(name = "id_company", nullable = false)
+    private Integer idCompany;
+
+    @Column(name = "id_request", nullable = false)
+    private Integer idRequest;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "claimed_at")
+    private LocalDateTime claimedAt;
+
+    // Constructor for convenience
+    public PendingNotification(Integer idCompany, Integer idRequest, LocalDateTime createdAt) {
+        this.idCompany = idCompany;
+        this.idRequest = idRequest;
+        this.createdAt = createdAt;
+    }
+}
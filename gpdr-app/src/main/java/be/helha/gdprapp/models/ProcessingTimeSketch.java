@@ -0,0 +1,30 @@
+package be.helha.gdprapp.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Processing-time distribution of a company, as a compressed HdrHistogram of seconds.
+// Merged with the new samples of each instance, so reports never read the request history.
+@Entity
+@Table(name = "processing_time_sketches")
+@Data
+@NoArgsConstructor
+public class ProcessingTimeSketch {
+
+    @Id
+    @Column(name = "id_company")
+    private Integer idCompany;
+
+    @Column(name = "histogram", nullable = false, length = 1048576)
+    private byte[] histogram;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructor for convenience
+    public ProcessingTimeSketch(Integer idCompany) {
+        this.idCompany = idCompany;
+    }
+}
@@ -0,0 +1,20 @@
+package be.helha.gdprapp.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Number of requests made on a day, by company, type and current status.
+// Kept up to date by the request write paths; charts read these rows instead of gdpr_requests.
+@Entity
+@Table(name = "request_daily_rollups", indexes = @Index(name = "idx_request_daily_rollups_day", columnList = "rollup_day, id_company"))
+@Data
+@NoArgsConstructor
+public class RequestDailyRollup {
+
+    @EmbeddedId
+    private RequestDailyRollupId id;
+
+    @Column(name = "request_count", nullable = false)
+    private long requestCount;
+}
@@ -0,0 +1,30 @@
+package be.helha.gdprapp.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// Key of a daily rollup row: requests of one company, type and status made on one day
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RequestDailyRollupId implements Serializable {
+
+    @Column(name = "rollup_day", nullable = false)
+    private LocalDate rollupDay;
+
+    @Column(name = "id_company", nullable = false)
+    private Integer idCompany;
+
+    @Column(name = "request_type", nullable = false)
+    private String requestType;
+
+    @Column(name = "status", nullable = false)
+    private String status;
+}
@@ -5,6 +5,8 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import java.util.List;
 
 @Entity
@@ -15,7 +17,8 @@ import java.util.List;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_generator")
+    @SequenceGenerator(name = "users_generator", sequenceName = "users_seq", allocationSize = 50)
     @Column(name = "id_user")
     private Integer idUser;
 
@@ -36,7 +39,9 @@ public class User {
     private Boolean active = true;
 
     // Simple relation with Role - GARDÉE (pas de problème circulaire car ManyToOne)
+    // Resolved by id from the second-level cache instead of joining roles on every user load
     @ManyToOne(fetch = FetchType.EAGER)
+    @Fetch(FetchMode.SELECT)
     @JoinColumn(name = "id_role", nullable = false)
     private Role role;
 
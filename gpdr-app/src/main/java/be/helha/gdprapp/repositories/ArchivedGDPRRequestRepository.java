@@ -0,0 +1,38 @@
+package be.helha.gdprapp.repositories;
+
+import be.helha.gdprapp.models.ArchivedGDPRRequest;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ArchivedGDPRRequestRepository extends JpaRepository<ArchivedGDPRRequest, Integer> {
+
+    // Archived request with its user (and role) and company, serialized like a live one
+    @EntityGraph(attributePaths = {"user", "user.role", "company"})
+    Optional<ArchivedGDPRRequest> findWithPartiesByIdRequest(Integer idRequest);
+
+    // Archived history of a user, most recent first
+    @EntityGraph(attributePaths = {"user", "user.role", "company"})
+    List<ArchivedGDPRRequest> findByUserIdUserOrderByRequestDateDesc(Integer idUser);
+
+    // Date of the oldest archived request (rollup rebuilds start from it)
+    @Query("SELECT MIN(a.requestDate) FROM ArchivedGDPRRequest a")
+    LocalDateTime findFirstRequestDate();
+
+    // Copy requests from gdpr_requests (same transaction as their delete)
+    @Modifying
+    @Query(value = "INSERT INTO gdpr_requests_archive (id_request, request_type, status, request_date, request_content, " +
+            "due_date, processed_date, id_user, id_company, archived_at) " +
+            "SELECT id_request, request_type, status, request_date, request_content, due_date, processed_date, id_user, id_company, :archivedAt " +
+            "FROM gdpr_requests WHERE id_request IN (:ids)", nativeQuery = true)
+    int copyFromRequests(@Param("ids") Collection<Integer> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
@@ -1,8 +1,11 @@
 package be.helha.gdprapp.repositories;
 
 import be.helha.gdprapp.models.Company;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
@@ -30,7 +33,8 @@ public interface CompanyRepository extends JpaRepository<Company, Integer> {
     // Find companies by email containing (for search) - MÉTHODE AJOUTÉE
     List<Company> findByEmailContainingIgnoreCase(String email);
 
-    // Find all companies ordered by name
+    // Find all companies ordered by name (dropdowns, served from the query cache)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Company> findAllByOrderByCompanyNameAsc();
 
     // Find all companies ordered by email
@@ -0,0 +1,20 @@
+package be.helha.gdprapp.repositories;
+
+import be.helha.gdprapp.models.EmailDelivery;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailDeliveryRepository extends JpaRepository<EmailDelivery, Long> {
+
+    // Number of deliveries per status: rows of {status, count}
+    @Query("SELECT d.status, COUNT(d) FROM EmailDelivery d GROUP BY d.status")
+    List<Object[]> countByStatusGrouped();
+
+    // Number of deliveries since a date (today's volume)
+    long countBySentAtGreaterThanEqual(LocalDateTime date);
+}
@@ -3,54 +3,159 @@ package be.helha.gdprapp.repositories;
 import be.helha.gdprapp.models.GDPRRequest;
 import be.helha.gdprapp.models.User;
 import be.helha.gdprapp.models.Company;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface GDPRRequestRepository extends JpaRepository<GDPRRequest, Integer> {
 
+    // Lists are serialized with their user (and role) and company: joined instead of loaded row by row
+    @EntityGraph(attributePaths = {"user", "user.role", "company"})
+    @Override
+    List<GDPRRequest> findAll();
+
     // UC1 - Client: View own requests
     List<GDPRRequest> findByUser(User user);
 
     // UC1 - Client: View own requests ordered by date (most recent first)
+    @EntityGraph(attributePaths = {"user", "user.role", "company"})
     List<GDPRRequest> findByUserOrderByRequestDateDesc(User user);
 
     // UC2 - Manager: View requests for company
     List<GDPRRequest> findByCompany(Company company);
 
     // UC2 - Manager: View requests for company ordered by date
+    @EntityGraph(attributePaths = {"user", "user.role", "company"})
     List<GDPRRequest> findByCompanyOrderByRequestDateDesc(Company company);
 
     // Filter by status
     List<GDPRRequest> findByStatus(String status);
 
     // Pending requests for a company (UC2)
+    @EntityGraph(attributePaths = {"user", "user.role", "company"})
     List<GDPRRequest> findByCompanyAndStatus(Company company, String status);
 
     // History of processed requests ordered by date
+    @EntityGraph(attributePaths = {"user", "user.role", "company"})
     List<GDPRRequest> findByStatusOrderByRequestDateDesc(String status);
 
     // Find by request type
+    @EntityGraph(attributePaths = {"user", "user.role", "company"})
     List<GDPRRequest> findByRequestType(String requestType);
 
     // Find by user and status
+    @EntityGraph(attributePaths = {"user", "user.role", "company"})
     List<GDPRRequest> findByUserAndStatus(User user, String status);
 
     // Count requests by status
     long countByStatus(String status);
 
+    // Count requests by type
+    long countByRequestType(String requestType);
+
     // Count requests by company
     long countByCompany(Company company);
 
-    // Find requests between dates
+    // Find requests between dates (a range on the partition key: only the months in the range are read)
+    @EntityGraph(attributePaths = {"user", "user.role", "company"})
     List<GDPRRequest> findByRequestDateBetween(LocalDateTime startDate, LocalDateTime endDate);
 
-    // Custom query: Find recent requests (last 30 days)
+    // Custom query: Find recent requests (last 30 days, only the latest partitions are read)
+    @EntityGraph(attributePaths = {"user", "user.role", "company"})
     @Query("SELECT r FROM GDPRRequest r WHERE r.requestDate >= :thirtyDaysAgo ORDER BY r.requestDate DESC")
     List<GDPRRequest> findRecentRequests(@Param("thirtyDaysAgo") LocalDateTime thirtyDaysAgo);
-}
\ No newline at end of file
+
+    // Requests listed in a notification digest, with their user
+    @EntityGraph(attributePaths = {"user"})
+    @Query("SELECT r FROM GDPRRequest r WHERE r.idRequest IN :ids ORDER BY r.requestDate")
+    List<GDPRRequest> findWithUserByIdIn(@Param("ids") Collection<Integer> ids);
+
+    // Request with its user and company, for the deadline e-mails
+    @EntityGraph(attributePaths = {"user", "company"})
+    Optional<GDPRRequest> findWithPartiesByIdRequest(Integer idRequest);
+
+    // Pending requests with deadline notices left, due up to a date (range on the status, due_date index)
+    @Query("SELECT r.idRequest AS idRequest, r.dueDate AS dueDate, r.reminderLevel AS reminderLevel FROM GDPRRequest r " +
+            "WHERE r.status = 'PENDING' AND r.dueDate <= :until AND COALESCE(r.reminderLevel, 0) < :levels")
+    List<PendingDeadline> findPendingDeadlines(@Param("until") LocalDateTime until, @Param("levels") int levels);
+
+    // Same, for due dates in (from, until]
+    @Query("SELECT r.idRequest AS idRequest, r.dueDate AS dueDate, r.reminderLevel AS reminderLevel FROM GDPRRequest r " +
+            "WHERE r.status = 'PENDING' AND r.dueDate > :from AND r.dueDate <= :until AND COALESCE(r.reminderLevel, 0) < :levels")
+    List<PendingDeadline> findPendingDeadlinesBetween(@Param("from") LocalDateTime from, @Param("until") LocalDateTime until,
+                                                       @Param("levels") int levels);
+
+    // Record a deadline notice, only if the request is still pending and no other instance sent it first
+    @Modifying
+    @Query("UPDATE GDPRRequest r SET r.reminderLevel = :next " +
+            "WHERE r.idRequest = :id AND r.status = 'PENDING' AND COALESCE(r.reminderLevel, 0) = :current")
+    int advanceReminderLevel(@Param("id") Integer id, @Param("current") int current, @Param("next") int next);
+
+    // Due date of requests created before deadlines were tracked
+    @Modifying
+    @Query(value = "UPDATE gdpr_requests SET due_date = request_date + INTERVAL '1' MONTH WHERE due_date IS NULL", nativeQuery = true)
+    int backfillDueDates();
+
+    // Oldest processed requests past the retention window, locked until they are archived (range on the request_date index)
+    @Query(value = "SELECT id_request FROM gdpr_requests WHERE status = 'PROCESSED' AND request_date < :cutoff " +
+            "AND (processed_date IS NULL OR processed_date < :cutoff) ORDER BY request_date LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<Integer> lockArchivableIds(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    // Remove archived requests
+    @Modifying
+    @Query(value = "DELETE FROM gdpr_requests WHERE id_request IN (:ids)", nativeQuery = true)
+    int deleteArchived(@Param("ids") Collection<Integer> ids);
+
+    // Date of the oldest request
+    @Query("SELECT MIN(r.requestDate) FROM GDPRRequest r")
+    LocalDateTime findFirstRequestDate();
+
+    // Backlog of each company: pending requests and the oldest one (reads the pending rows only)
+    @Query("SELECT r.company.idCompany AS idCompany, COUNT(r) AS pending, MIN(r.requestDate) AS oldestRequestDate " +
+            "FROM GDPRRequest r WHERE r.status = 'PENDING' GROUP BY r.company.idCompany")
+    List<CompanyBacklog> findCompanyBacklogs();
+
+    // Same, for one company
+    @Query("SELECT r.company.idCompany AS idCompany, COUNT(r) AS pending, MIN(r.requestDate) AS oldestRequestDate " +
+            "FROM GDPRRequest r WHERE r.status = 'PENDING' AND r.company.idCompany = :companyId GROUP BY r.company.idCompany")
+    Optional<CompanyBacklog> findCompanyBacklog(@Param("companyId") Integer companyId);
+
+    // Names and e-mails needed by the creation e-mails, in a single SELECT
+    @Query("SELECT u.firstname AS firstname, u.lastname AS lastname, u.email AS userEmail, " +
+            "c.companyName AS companyName, c.email AS companyEmail, c.notificationMode AS companyNotificationMode " +
+            "FROM User u, Company c WHERE u.idUser = :userId AND c.idCompany = :companyId")
+    Optional<RequestParties> findRequestParties(@Param("userId") Integer userId, @Param("companyId") Integer companyId);
+
+    // Projection of a pending request for the deadline tracker
+    interface PendingDeadline {
+        Integer getIdRequest();
+        LocalDateTime getDueDate();
+        Integer getReminderLevel();
+    }
+
+    // Projection of the pending requests of a company
+    interface CompanyBacklog {
+        Integer getIdCompany();
+        Long getPending();
+        LocalDateTime getOldestRequestDate();
+    }
+
+    // Projection of the user and company of a request
+    interface RequestParties {
+        String getFirstname();
+        String getLastname();
+        String getUserEmail();
+        String getCompanyName();
+        String getCompanyEmail();
+        String getCompanyNotificationMode();
+    }
+}
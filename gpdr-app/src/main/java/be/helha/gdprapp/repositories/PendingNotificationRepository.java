@@ -0,0 +1,50 @@
+package be.helha.gdprapp.repositories;
+
+import be.helha.gdprapp.models.PendingNotification;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PendingNotificationRepository extends JpaRepository<PendingNotification, Long> {
+
+    // Companies with pending notifications, their mode and their oldest pending notification
+    @Query("SELECT c.idCompany AS idCompany, c.notificationMode AS notificationMode, " +
+            "c.notificationIntervalMinutes AS notificationIntervalMinutes, MIN(p.createdAt) AS oldest, COUNT(p) AS pending " +
+            "FROM PendingNotification p, Company c WHERE c.idCompany = p.idCompany " +
+            "GROUP BY c.idCompany, c.notificationMode, c.notificationIntervalMinutes")
+    List<PendingCompany> findPendingCompanies();
+
+    // Lock the pending notifications of a company that no digest is sending (or whose claim expired);
+    // rows locked by another instance are skipped
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT p FROM PendingNotification p WHERE p.idCompany = :idCompany " +
+            "AND (p.claimedAt IS NULL OR p.claimedAt < :claimExpiredBefore) ORDER BY p.createdAt")
+    List<PendingNotification> findClaimableByIdCompany(@Param("idCompany") Integer idCompany,
+                                                       @Param("claimExpiredBefore") LocalDateTime claimExpiredBefore);
+
+    // Put notifications back in the queue after a failed digest
+    @Modifying
+    @Query("UPDATE PendingNotification p SET p.claimedAt = NULL WHERE p.idNotification IN :ids")
+    int releaseClaims(@Param("ids") Collection<Long> ids);
+
+    // Projection of a company waiting for its notification e-mail
+    interface PendingCompany {
+        Integer getIdCompany();
+        String getNotificationMode();
+        Integer getNotificationIntervalMinutes();
+        LocalDateTime getOldest();
+        Long getPending();
+    }
+}
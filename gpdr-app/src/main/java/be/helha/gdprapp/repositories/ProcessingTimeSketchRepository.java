@@ -0,0 +1,17 @@
+package be.helha.gdprapp.repositories;
+
+import be.helha.gdprapp.models.ProcessingTimeSketch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ProcessingTimeSketchRepository extends JpaRepository<ProcessingTimeSketch, Integer> {
+
+    // Lock the sketch of a company while new samples are merged into it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ProcessingTimeSketch> findForUpdateByIdCompany(Integer idCompany);
+}
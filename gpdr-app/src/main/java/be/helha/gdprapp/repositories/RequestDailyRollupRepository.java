@@ -0,0 +1,64 @@
+package be.helha.gdprapp.repositories;
+
+import be.helha.gdprapp.models.RequestDailyRollup;
+import be.helha.gdprapp.models.RequestDailyRollupId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RequestDailyRollupRepository extends JpaRepository<RequestDailyRollup, RequestDailyRollupId> {
+
+    // Create the row of a key at zero; a row created meanwhile by another transaction is kept
+    @Modifying
+    @Query(value = "INSERT INTO request_daily_rollups (rollup_day, id_company, request_type, status, request_count) " +
+            "VALUES (:day, :companyId, :requestType, :status, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfMissing(@Param("day") LocalDate day, @Param("companyId") Integer companyId,
+                        @Param("requestType") String requestType, @Param("status") String status);
+
+    // Add to the count of a key in place (no read, no lost update)
+    @Modifying
+    @Query("UPDATE RequestDailyRollup r SET r.requestCount = r.requestCount + :delta WHERE r.id.rollupDay = :day " +
+            "AND r.id.idCompany = :companyId AND r.id.requestType = :requestType AND r.id.status = :status")
+    int addToCount(@Param("day") LocalDate day, @Param("companyId") Integer companyId,
+                   @Param("requestType") String requestType, @Param("status") String status, @Param("delta") long delta);
+
+    // Requests per day, optionally for one company, type or status
+    @Query("SELECT r.id.rollupDay AS day, SUM(r.requestCount) AS requestCount FROM RequestDailyRollup r " +
+            "WHERE r.id.rollupDay BETWEEN :from AND :to " +
+            "AND (:companyId IS NULL OR r.id.idCompany = :companyId) " +
+            "AND (:requestType IS NULL OR r.id.requestType = :requestType) " +
+            "AND (:status IS NULL OR r.id.status = :status) " +
+            "GROUP BY r.id.rollupDay ORDER BY r.id.rollupDay")
+    List<DailyCount> findDailyCounts(@Param("from") LocalDate from, @Param("to") LocalDate to, @Param("companyId") Integer companyId,
+                                     @Param("requestType") String requestType, @Param("status") String status);
+
+    // Rebuild of a range of days: remove their rows...
+    @Modifying
+    @Query(value = "DELETE FROM request_daily_rollups WHERE rollup_day >= :from AND rollup_day < :until", nativeQuery = true)
+    int deleteDays(@Param("from") LocalDate from, @Param("until") LocalDate until);
+
+    // ...and count the requests of these days again, live and archived (range on the request_date indexes)
+    @Modifying
+    @Query(value = "INSERT INTO request_daily_rollups (rollup_day, id_company, request_type, status, request_count) " +
+            "SELECT CAST(request_date AS DATE), id_company, request_type, status, COUNT(*) FROM (" +
+            "SELECT request_date, id_company, request_type, status FROM gdpr_requests " +
+            "WHERE request_date >= :from AND request_date < :until " +
+            "UNION ALL " +
+            "SELECT request_date, id_company, request_type, status FROM gdpr_requests_archive " +
+            "WHERE request_date >= :from AND request_date < :until) r " +
+            "GROUP BY CAST(request_date AS DATE), id_company, request_type, status", nativeQuery = true)
+    int insertDays(@Param("from") LocalDateTime from, @Param("until") LocalDateTime until);
+
+    // Projection of the requests of a day
+    interface DailyCount {
+        LocalDate getDay();
+        Long getRequestCount();
+    }
+}
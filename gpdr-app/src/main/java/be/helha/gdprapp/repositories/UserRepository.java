@@ -3,6 +3,7 @@ package be.helha.gdprapp.repositories;
 import be.helha.gdprapp.models.Company;
 import be.helha.gdprapp.models.Role;
 import be.helha.gdprapp.models.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -15,16 +16,23 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
 
-    // For authentication
+    // Lists are serialized with the role and company of each user: joined instead of loaded row by row
+    @EntityGraph(attributePaths = {"role", "company"})
+    @Override
+    List<User> findAll();
+
+    // For authentication (the role comes from the second-level cache, no join needed)
     Optional<User> findByEmail(String email);
 
     // Check if email already exists
     boolean existsByEmail(String email);
 
     // Find users by role
+    @EntityGraph(attributePaths = {"role", "company"})
     List<User> findByRole(Role role);
 
     // Find active users
+    @EntityGraph(attributePaths = {"role", "company"})
     List<User> findByActiveTrue();
 
     // Find users by role name (alternative method)
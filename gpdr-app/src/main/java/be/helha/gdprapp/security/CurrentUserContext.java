@@ -0,0 +1,107 @@
+package be.helha.gdprapp.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Request-scoped view of the authenticated user.
+ * Identity (id, role, company) comes from the principal the JWT filter built from the token,
+ * so authorisation checks cost no query. Entity loads can be memoized for the duration of the
+ * HTTP request, letting a @PreAuthorize check and the handler share the same lookup.
+ * Outside of a web request nothing is memoized and loaders are called directly.
+ */
+@Component
+public class CurrentUserContext {
+
+    private static final String CACHE_ATTRIBUTE = CurrentUserContext.class.getName() + ".ENTITY_CACHE";
+
+    // Current principal, or null when the request is anonymous
+    public UserPrincipal getPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal;
+        }
+        return null;
+    }
+
+    public Integer getUserId() {
+        UserPrincipal principal = getPrincipal();
+        return principal != null ? principal.getIdUser() : null;
+    }
+
+    public String getRole() {
+        UserPrincipal principal = getPrincipal();
+        return principal != null ? principal.getRole() : null;
+    }
+
+    public Integer getCompanyId() {
+        UserPrincipal principal = getPrincipal();
+        return principal != null ? principal.getCompanyId() : null;
+    }
+
+    public boolean hasRole(String roleName) {
+        String role = getRole();
+        return role != null && role.equals(roleName);
+    }
+
+    public boolean isCurrentUser(Integer userId) {
+        Integer currentUserId = getUserId();
+        return currentUserId != null && currentUserId.equals(userId);
+    }
+
+    /**
+     * Load an entity at most once per HTTP request
+     * @param type Entity type (part of the memo key)
+     * @param id Entity ID
+     * @param loader Repository lookup used on the first call
+     * @return Memoized result of the loader
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> load(Class<T> type, Object id, Supplier<Optional<T>> loader) {
+        Map<String, Optional<?>> cache = getCache();
+        if (cache == null || id == null) {
+            return loader.get();
+        }
+
+        String key = type.getName() + '#' + id;
+        Optional<?> cached = cache.get(key);
+        if (cached == null) {
+            cached = loader.get();
+            cache.put(key, cached);
+        }
+        return (Optional<T>) cached;
+    }
+
+    // Forget a memoized entity (after a delete for instance)
+    public void evict(Class<?> type, Object id) {
+        Map<String, Optional<?>> cache = getCache();
+        if (cache != null) {
+            cache.remove(type.getName() + '#' + id);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Optional<?>> getCache() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+
+        Map<String, Optional<?>> cache =
+                (Map<String, Optional<?>>) attributes.getAttribute(CACHE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cache == null) {
+            cache = new HashMap<>();
+            attributes.setAttribute(CACHE_ATTRIBUTE, cache, RequestAttributes.SCOPE_REQUEST);
+        }
+        return cache;
+    }
+}
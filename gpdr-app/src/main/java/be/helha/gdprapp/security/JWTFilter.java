@@ -3,6 +3,8 @@ package be.helha.gdprapp.security;
 import be.helha.gdprapp.services.CustomUserDetailsService;
 import be.helha.gdprapp.utils.JWTUtils;
 import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -10,7 +12,6 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -20,33 +21,59 @@ import java.io.IOException;
 @Component
 public class JWTFilter extends OncePerRequestFilter {
 
+    // Role of the authenticated caller, kept on the request for the HTTP metrics
+    public static final String ROLE_ATTRIBUTE = JWTFilter.class.getName() + ".role";
+
     @Autowired
     private JWTUtils jwtUtils;
 
     @Autowired
     private CustomUserDetailsService userDetailsService; // Changed from UserRepository
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        // Only the token check is timed, not the rest of the chain
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "anonymous";
         try {
             String jwt = parseJWTFromHeader(request);
-            if (jwt != null && jwtUtils.validateToken(jwt)) {
-                Claims claims = jwtUtils.parseToken(jwt);
-                String username = claims.getSubject();
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                if(userDetails != null) {
+            Claims claims = jwt != null ? jwtUtils.parseValidToken(jwt) : null;
+            outcome = jwt != null ? "rejected" : outcome;
+            if (claims != null) {
+                UserPrincipal principal = resolvePrincipal(claims);
+                if (principal != null && principal.isEnabled()) {
                     UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authentication);
+                    request.setAttribute(ROLE_ATTRIBUTE, principal.getRole());
+                    outcome = "authenticated";
                 }
             }
         } catch (Exception e) {
             logger.error("Cannot set user authentication: {}", e);
+            outcome = "error";
         }
+        sample.stop(meterRegistry.timer("gdpr.security.jwt", "outcome", outcome));
         filterChain.doFilter(request, response);
     }
 
+    // Identity comes from the signed claims; only tokens issued before they carried a userId hit the database
+    private UserPrincipal resolvePrincipal(Claims claims) {
+        Integer userId = claims.get("userId", Integer.class);
+        String role = claims.get("roles", String.class);
+        if (userId == null || role == null) {
+            return userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+
+        Integer companyId = claims.get("companyId", Integer.class);
+        Boolean active = claims.get("active", Boolean.class);
+        return new UserPrincipal(userId, claims.getSubject(), role, companyId, !Boolean.FALSE.equals(active));
+    }
+
     private String parseJWTFromHeader(HttpServletRequest request) {
         String authorization = request.getHeader("Authorization");
         if(authorization != null && authorization.startsWith("Bearer ")) {
@@ -54,4 +81,4 @@ public class JWTFilter extends OncePerRequestFilter {
         }
         return null;
     }
-}
\ No newline at end of file
+}
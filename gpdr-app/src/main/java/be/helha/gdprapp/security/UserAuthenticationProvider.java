@@ -0,0 +1,70 @@
+package be.helha.gdprapp.security;
+
+import be.helha.gdprapp.services.CustomUserDetailsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Authenticates email/password logins with a single user lookup.
+ * The resulting authentication carries a {@link UserPrincipal}, so the caller
+ * can build the JWT from the same entity instead of loading the user again.
+ */
+@Component
+public class UserAuthenticationProvider implements AuthenticationProvider {
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    // Hash compared against when the email is unknown, so both paths pay one bcrypt check
+    private volatile String dummyPasswordHash;
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String email = authentication.getName();
+        String password = authentication.getCredentials() != null ? authentication.getCredentials().toString() : "";
+
+        UserPrincipal principal;
+        try {
+            principal = userDetailsService.loadUserByUsername(email);
+        } catch (UsernameNotFoundException e) {
+            passwordEncoder.matches(password, getDummyPasswordHash());
+            throw new BadCredentialsException("Bad credentials");
+        }
+
+        if (!passwordEncoder.matches(password, principal.getPassword())) {
+            throw new BadCredentialsException("Bad credentials");
+        }
+
+        if (!principal.isEnabled()) {
+            throw new DisabledException("User account is disabled");
+        }
+
+        UsernamePasswordAuthenticationToken result =
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+        result.setDetails(authentication.getDetails());
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+    private String getDummyPasswordHash() {
+        if (dummyPasswordHash == null) {
+            dummyPasswordHash = passwordEncoder.encode("userNotFoundPassword");
+        }
+        return dummyPasswordHash;
+    }
+}
@@ -0,0 +1,111 @@
+package be.helha.gdprapp.security;
+
+import be.helha.gdprapp.models.Company;
+import be.helha.gdprapp.models.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Spring Security principal carrying the identity we authorise on: id, email, role, company and active flag.
+ * At login it wraps the loaded {@link User} entity so the JWT can be built without a second lookup.
+ * On authenticated API calls it is rebuilt from the token claims alone and {@link #getUser()} is null.
+ */
+public class UserPrincipal implements UserDetails {
+
+    private final Integer idUser;
+    private final String email;
+    private final String password;
+    private final String role;
+    private final Integer companyId;
+    private final boolean active;
+    private final User user;
+    private final Collection<? extends GrantedAuthority> authorities;
+
+    // Principal backed by a loaded entity (role is always initialised, company may be a lazy proxy)
+    public UserPrincipal(User user) {
+        this(user.getIdUser(), user.getEmail(), user.getPassword(), user.getRole().getRole(),
+                companyIdOf(user.getCompany()), Boolean.TRUE.equals(user.getActive()), user);
+    }
+
+    // Principal rebuilt from token claims, no database access
+    public UserPrincipal(Integer idUser, String email, String role, Integer companyId, boolean active) {
+        this(idUser, email, null, role, companyId, active, null);
+    }
+
+    private UserPrincipal(Integer idUser, String email, String password, String role,
+                          Integer companyId, boolean active, User user) {
+        this.idUser = idUser;
+        this.email = email;
+        this.password = password;
+        this.role = role;
+        this.companyId = companyId;
+        this.active = active;
+        this.user = user;
+        this.authorities = Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+
+    // Reading the id of a lazy proxy does not initialise it
+    private static Integer companyIdOf(Company company) {
+        return company != null ? company.getIdCompany() : null;
+    }
+
+    // Loaded entity, or null when the principal was built from a token
+    public User getUser() {
+        return user;
+    }
+
+    public Integer getIdUser() {
+        return idUser;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public Integer getCompanyId() {
+        return companyId;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return active;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return active;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return active;
+    }
+}
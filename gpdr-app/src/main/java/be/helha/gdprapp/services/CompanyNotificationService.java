@@ -0,0 +1,195 @@
+package be.helha.gdprapp.services;
+
+import be.helha.gdprapp.configuration.ConnectionPool;
+import be.helha.gdprapp.configuration.UsePool;
+import be.helha.gdprapp.models.Company;
+import be.helha.gdprapp.models.GDPRRequest;
+import be.helha.gdprapp.models.PendingNotification;
+import be.helha.gdprapp.repositories.CompanyRepository;
+import be.helha.gdprapp.repositories.GDPRRequestRepository;
+import be.helha.gdprapp.repositories.PendingNotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Notifies companies of their new GDPR requests according to their notification mode.
+ * IMMEDIATE companies get one e-mail per request. For BATCHED and DIGEST companies the request
+ * is queued in pending_notifications and NotificationDispatcher later sends one digest e-mail
+ * per company for everything queued in the window.
+ * A digest claims its rows in a short transaction and is sent outside of it, so no row lock
+ * or pooled connection is held while waiting for SMTP.
+ */
+@Service
+public class CompanyNotificationService {
+
+    public static final String MODE_IMMEDIATE = "IMMEDIATE";
+    public static final String MODE_BATCHED = "BATCHED";
+    public static final String MODE_DIGEST = "DIGEST";
+
+    @Autowired
+    private PendingNotificationRepository pendingNotificationRepository;
+
+    @Autowired
+    private GDPRRequestRepository gdprRequestRepository;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.notifications.default-interval-minutes:15}")
+    private int defaultIntervalMinutes;
+
+    @Value("${app.notifications.digest-hour:8}")
+    private int digestHour;
+
+    @Value("${app.notifications.digest-max-items:200}")
+    private int digestMaxItems;
+
+    @Value("${app.notifications.claim-timeout-minutes:15}")
+    private int claimTimeoutMinutes;
+
+    /**
+     * Notify the company of a new request, now or through its next digest
+     * @param request Created request, its company carries the notification mode
+     */
+    public void notifyNewRequest(GDPRRequest request) {
+        Company company = request.getCompany();
+        if (!isQueued(company.getNotificationMode())) {
+            emailService.sendGDPRRequestNotification(company, request);
+            return;
+        }
+
+        pendingNotificationRepository.save(new PendingNotification(company.getIdCompany(), request.getIdRequest(), LocalDateTime.now()));
+    }
+
+    /**
+     * Find the companies whose digest is due
+     * @param now Current time
+     * @return Company IDs
+     */
+    @UsePool(ConnectionPool.BATCH)
+    @Transactional(readOnly = true)
+    public List<Integer> findDueCompanies(LocalDateTime now) {
+        List<Integer> due = new ArrayList<>();
+        for (PendingNotificationRepository.PendingCompany company : pendingNotificationRepository.findPendingCompanies()) {
+            if (isDue(company.getNotificationMode(), company.getNotificationIntervalMinutes(), company.getOldest(), now)) {
+                due.add(company.getIdCompany());
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Send one digest with every pending notification of a company, then clear them.
+     * The notifications are claimed and committed first, the e-mail is sent outside any transaction,
+     * then they are deleted; if the e-mail fails they are released and stay queued.
+     * @param companyId Company ID
+     * @return Number of requests in the digest (0 if another instance is sending it)
+     */
+    @UsePool(ConnectionPool.BATCH)
+    public int sendDigest(Integer companyId) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Digest digest = transactionTemplate.execute(status -> claimDigest(companyId));
+        if (digest == null) {
+            return 0;
+        }
+
+        try {
+            if (!digest.requests.isEmpty()) {
+                emailService.sendGDPRRequestDigest(digest.company, digest.requests, digest.notificationIds.size());
+            }
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> pendingNotificationRepository.releaseClaims(digest.notificationIds));
+            throw e;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> pendingNotificationRepository.deleteAllByIdInBatch(digest.notificationIds));
+        return digest.notificationIds.size();
+    }
+
+    // Lock the company's unclaimed notifications, mark them claimed and load what the e-mail shows
+    private Digest claimDigest(Integer companyId) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PendingNotification> pending = pendingNotificationRepository.findClaimableByIdCompany(companyId,
+                now.minusMinutes(claimTimeoutMinutes));
+        if (pending.isEmpty()) {
+            return null;
+        }
+
+        Company company = companyRepository.findById(companyId).orElse(null);
+        if (company == null) {
+            pendingNotificationRepository.deleteAllInBatch(pending);
+            return null;
+        }
+
+        // The newest requests are listed, the total tells how many there were
+        List<Integer> requestIds = new ArrayList<>();
+        for (int i = Math.max(0, pending.size() - digestMaxItems); i < pending.size(); i++) {
+            requestIds.add(pending.get(i).getIdRequest());
+        }
+        List<GDPRRequest> requests = gdprRequestRepository.findWithUserByIdIn(requestIds);
+
+        List<Long> notificationIds = new ArrayList<>(pending.size());
+        for (PendingNotification notification : pending) {
+            // Written on commit
+            notification.setClaimedAt(now);
+            notificationIds.add(notification.getIdNotification());
+        }
+        return new Digest(company, requests, notificationIds);
+    }
+
+    /**
+     * Check if the digest of a company is due
+     * @param mode Notification mode of the company
+     * @param intervalMinutes Batch interval of the company, null for the default
+     * @param oldest Creation time of its oldest pending notification
+     * @param now Current time
+     * @return true if the digest must be sent now
+     */
+    public boolean isDue(String mode, Integer intervalMinutes, LocalDateTime oldest, LocalDateTime now) {
+        if (MODE_BATCHED.equals(mode)) {
+            int interval = intervalMinutes != null && intervalMinutes > 0 ? intervalMinutes : defaultIntervalMinutes;
+            return !oldest.plusMinutes(interval).isAfter(now);
+        }
+        if (MODE_DIGEST.equals(mode)) {
+            // First digest time after the oldest notification
+            LocalDateTime digestTime = oldest.toLocalDate().atTime(digestHour, 0);
+            if (!digestTime.isAfter(oldest)) {
+                digestTime = digestTime.plusDays(1);
+            }
+            return !digestTime.isAfter(now);
+        }
+        // Company switched back to IMMEDIATE: flush what is still queued
+        return true;
+    }
+
+    public static boolean isQueued(String mode) {
+        return MODE_BATCHED.equals(mode) || MODE_DIGEST.equals(mode);
+    }
+
+    // Claimed notifications of a company and the content of their e-mail
+    private static class Digest {
+        private final Company company;
+        private final List<GDPRRequest> requests;
+        private final List<Long> notificationIds;
+
+        Digest(Company company, List<GDPRRequest> requests, List<Long> notificationIds) {
+            this.company = company;
+            this.requests = requests;
+            this.notificationIds = notificationIds;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package be.helha.gdprapp.services;
 
+import be.helha.gdprapp.configuration.ConnectionPool;
+import be.helha.gdprapp.configuration.UsePool;
 import be.helha.gdprapp.models.Company;
 import be.helha.gdprapp.repositories.CompanyRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,10 +22,14 @@ public class CompanyService {
     @Autowired
     private CompanyRepository companyRepository;
 
+    @Autowired
+    private ReferenceDataCacheService referenceDataCacheService;
+
     /**
      * Get all companies
      * @return List of all companies
      */
+    @Transactional(readOnly = true)
     public List<Company> getAllCompanies() {
         return companyRepository.findAll();
     }
@@ -34,6 +40,7 @@ public class CompanyService {
      * @return Optional containing the company if found
      */
     public Optional<Company> getCompanyById(Integer id) {
+        // Not read-only: the controller loads the company before updating it in the same session
         return companyRepository.findById(id);
     }
 
@@ -42,6 +49,7 @@ public class CompanyService {
      * @param email Company email
      * @return Optional containing the company if found
      */
+    @Transactional(readOnly = true)
     public Optional<Company> getCompanyByEmail(String email) {
         return companyRepository.findByEmail(email);
     }
@@ -51,6 +59,7 @@ public class CompanyService {
      * @param companyName Company name
      * @return Optional containing the company if found
      */
+    @Transactional(readOnly = true)
     public Optional<Company> getCompanyByName(String companyName) {
         return companyRepository.findByCompanyName(companyName);
     }
@@ -103,7 +112,9 @@ public class CompanyService {
         company.setCompanyName(company.getCompanyName().trim());
         company.setEmail(company.getEmail().trim().toLowerCase());
 
-        return companyRepository.save(company);
+        Company savedCompany = companyRepository.save(company);
+        referenceDataCacheService.evictCompany(savedCompany.getIdCompany());
+        return savedCompany;
     }
 
     /**
@@ -142,7 +153,37 @@ public class CompanyService {
         existingCompany.setCompanyName(newName);
         existingCompany.setEmail(newEmail);
 
-        return companyRepository.save(existingCompany);
+        Company savedCompany = companyRepository.save(existingCompany);
+        referenceDataCacheService.evictCompany(id);
+        return savedCompany;
+    }
+
+    /**
+     * Update how a company is notified of its new GDPR requests
+     * @param id Company ID
+     * @param mode IMMEDIATE, BATCHED or DIGEST
+     * @param intervalMinutes Batch interval for BATCHED, null for the default
+     * @return Updated company
+     * @throws RuntimeException if company not found or validation fails
+     */
+    public Company updateNotificationSettings(Integer id, String mode, Integer intervalMinutes) {
+        Company existingCompany = companyRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Company not found with id: " + id));
+
+        String newMode = mode == null ? CompanyNotificationService.MODE_IMMEDIATE : mode.trim().toUpperCase();
+        if (!newMode.equals(CompanyNotificationService.MODE_IMMEDIATE) && !CompanyNotificationService.isQueued(newMode)) {
+            throw new RuntimeException("Notification mode must be IMMEDIATE, BATCHED or DIGEST");
+        }
+        if (intervalMinutes != null && (intervalMinutes < 1 || intervalMinutes > 1440)) {
+            throw new RuntimeException("Notification interval must be between 1 and 1440 minutes");
+        }
+
+        existingCompany.setNotificationMode(newMode);
+        existingCompany.setNotificationIntervalMinutes(intervalMinutes);
+
+        Company savedCompany = companyRepository.save(existingCompany);
+        referenceDataCacheService.evictCompany(id);
+        return savedCompany;
     }
 
     /**
@@ -156,12 +197,14 @@ public class CompanyService {
         }
 
         companyRepository.deleteById(id);
+        referenceDataCacheService.evictCompany(id);
     }
 
     /**
      * Get companies count
      * @return Total number of companies
      */
+    @Transactional(readOnly = true)
     public long getCompaniesCount() {
         return companyRepository.count();
     }
@@ -171,6 +214,7 @@ public class CompanyService {
      * @param name Name to search for
      * @return List of companies matching the search criteria
      */
+    @Transactional(readOnly = true)
     public List<Company> searchCompaniesByName(String name) {
         if (name == null || name.trim().isEmpty()) {
             return getAllCompanies();
@@ -183,6 +227,7 @@ public class CompanyService {
      * @param email Email to search for
      * @return List of companies matching the search criteria
      */
+    @Transactional(readOnly = true)
     public List<Company> searchCompaniesByEmail(String email) {
         if (email == null || email.trim().isEmpty()) {
             return getAllCompanies();
@@ -196,6 +241,7 @@ public class CompanyService {
      * @param size Page size
      * @return Page of companies
      */
+    @Transactional(readOnly = true)
     public Page<Company> getCompaniesWithPagination(int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
         return companyRepository.findAll(pageable);
@@ -233,6 +279,7 @@ public class CompanyService {
      * Get all company names (for dropdowns)
      * @return List of company names
      */
+    @Transactional(readOnly = true)
     public List<String> getAllCompanyNames() {
         List<Company> companies = companyRepository.findAllByOrderByCompanyNameAsc();
         List<String> companyNames = new ArrayList<String>();
@@ -248,6 +295,7 @@ public class CompanyService {
      * Get all company emails (for dropdowns)
      * @return List of company emails
      */
+    @Transactional(readOnly = true)
     public List<String> getAllCompanyEmails() {
         List<Company> companies = companyRepository.findAllByOrderByEmailAsc();
         List<String> companyEmails = new ArrayList<String>();
@@ -274,6 +322,8 @@ public class CompanyService {
      * Get company statistics
      * @return CompanyStatistics object with various statistics
      */
+    @Transactional(readOnly = true)
+    @UsePool(ConnectionPool.REPORTING)
     public CompanyStatistics getCompanyStatistics() {
         long totalCompanies = getCompaniesCount();
 
@@ -0,0 +1,191 @@
+package be.helha.gdprapp.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptive limit on the number of API requests in flight (gradient algorithm).
+ * The limit follows the ratio between the long-term and the recent average latency:
+ * while recent latency stays within `tolerance` times the long-term average the limit grows
+ * by about sqrt(limit), once it rises above it the limit shrinks in proportion, down to half per sample.
+ * Normal requests may only use `normal-share` of the limit; the rest is kept for the
+ * priority classes (administrators and authentication) so they still get in under overload.
+ */
+@Service
+public class ConcurrencyLimiter {
+
+    public enum Priority { CRITICAL, NORMAL }
+
+    // Samples averaged by the long-term and the recent latency
+    private static final double LONG_WINDOW = 600.0;
+    private static final double SHORT_WINDOW = 10.0;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.concurrency-limit.initial-limit:50}")
+    private int initialLimit;
+
+    @Value("${app.concurrency-limit.min-limit:8}")
+    private int minLimit;
+
+    @Value("${app.concurrency-limit.max-limit:400}")
+    private int maxLimit;
+
+    @Value("${app.concurrency-limit.tolerance:2.0}")
+    private double tolerance;
+
+    @Value("${app.concurrency-limit.smoothing:0.2}")
+    private double smoothing;
+
+    @Value("${app.concurrency-limit.normal-share:0.8}")
+    private double normalShare;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejectedCritical = new LongAdder();
+    private final LongAdder rejectedNormal = new LongAdder();
+
+    private volatile double limit;
+    private double longRttNanos;
+    private double shortRttNanos;
+
+    @PostConstruct
+    public void init() {
+        limit = initialLimit;
+        Gauge.builder("gdpr.limiter.limit", this, ConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("gdpr.limiter.in.flight", inFlight, AtomicInteger::get)
+                .description("API requests currently admitted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admit a request if the limit allows it
+     * @param priority Priority class of the request
+     * @return true if admitted, the caller must then call release
+     */
+    public boolean tryAcquire(Priority priority) {
+        int allowed = priority == Priority.CRITICAL ? (int) limit : Math.max(1, (int) (limit * normalShare));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                (priority == Priority.CRITICAL ? rejectedCritical : rejectedNormal).increment();
+                meterRegistry.counter("gdpr.limiter.rejected", "priority", priority.name()).increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release an admitted request and feed its latency to the limit
+     * @param latencyNanos Time the request spent in the application
+     */
+    public void release(long latencyNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        update(latencyNanos, inFlightBefore);
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Get the current limit and the admission counters
+     * @return LimiterStatistics object
+     */
+    public LimiterStatistics getStatistics() {
+        LimiterStatistics stats = new LimiterStatistics();
+        stats.setLimit(getLimit());
+        stats.setNormalLimit(Math.max(1, (int) (limit * normalShare)));
+        stats.setInFlight(inFlight.get());
+        stats.setAccepted(accepted.sum());
+        stats.setRejectedCritical(rejectedCritical.sum());
+        stats.setRejectedNormal(rejectedNormal.sum());
+        synchronized (this) {
+            stats.setLongLatencyMs(longRttNanos / 1_000_000.0);
+            stats.setShortLatencyMs(shortRttNanos / 1_000_000.0);
+        }
+        return stats;
+    }
+
+    // Short computation only: no blocking call while holding the monitor
+    private synchronized void update(long latencyNanos, int inFlightBefore) {
+        if (longRttNanos == 0) {
+            longRttNanos = latencyNanos;
+            shortRttNanos = latencyNanos;
+        } else {
+            longRttNanos += (latencyNanos - longRttNanos) / LONG_WINDOW;
+            shortRttNanos += (latencyNanos - shortRttNanos) / SHORT_WINDOW;
+        }
+
+        // After a slow period the long-term average lags behind: let it recover faster
+        if (longRttNanos / shortRttNanos > 2.0) {
+            longRttNanos *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+        // Far below the limit the latency says nothing about the capacity: do not grow
+        if (gradient == 1.0 && inFlightBefore < limit / 2) {
+            return;
+        }
+
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    /**
+     * Inner class for the limiter statistics
+     */
+    public static class LimiterStatistics {
+        private int limit;
+        private int normalLimit;
+        private int inFlight;
+        private long accepted;
+        private long rejectedCritical;
+        private long rejectedNormal;
+        private double longLatencyMs;
+        private double shortLatencyMs;
+
+        public int getLimit() { return limit; }
+        public void setLimit(int limit) { this.limit = limit; }
+
+        public int getNormalLimit() { return normalLimit; }
+        public void setNormalLimit(int normalLimit) { this.normalLimit = normalLimit; }
+
+        public int getInFlight() { return inFlight; }
+        public void setInFlight(int inFlight) { this.inFlight = inFlight; }
+
+        public long getAccepted() { return accepted; }
+        public void setAccepted(long accepted) { this.accepted = accepted; }
+
+        public long getRejectedCritical() { return rejectedCritical; }
+        public void setRejectedCritical(long rejectedCritical) { this.rejectedCritical = rejectedCritical; }
+
+        public long getRejectedNormal() { return rejectedNormal; }
+        public void setRejectedNormal(long rejectedNormal) { this.rejectedNormal = rejectedNormal; }
+
+        public double getLongLatencyMs() { return longLatencyMs; }
+        public void setLongLatencyMs(double longLatencyMs) { this.longLatencyMs = longLatencyMs; }
+
+        public double getShortLatencyMs() { return shortLatencyMs; }
+        public void setShortLatencyMs(double shortLatencyMs) { this.shortLatencyMs = shortLatencyMs; }
+    }
+}
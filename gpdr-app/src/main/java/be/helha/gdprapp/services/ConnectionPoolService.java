@@ -0,0 +1,90 @@
+package be.helha.gdprapp.services;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Saturation of the Hikari pools: the single primary pool, or the web/batch/reporting pools
+ * and the replica when they are enabled.
+ */
+@Service
+public class ConnectionPoolService {
+
+    @Autowired
+    private Map<String, DataSource> dataSources;
+
+    /**
+     * Get the usage of every connection pool
+     * @return Map of pool name to its statistics
+     */
+    public Map<String, PoolStatistics> getPoolStatistics() {
+        Map<String, PoolStatistics> statistics = new LinkedHashMap<>();
+        // Pools may sit behind the SQL statistics proxy or the routing DataSource: keep each one once
+        for (DataSource dataSource : dataSources.values()) {
+            HikariDataSource pool = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+            if (pool != null) {
+                statistics.putIfAbsent(pool.getPoolName(), toStatistics(pool));
+            }
+        }
+        return statistics;
+    }
+
+    private PoolStatistics toStatistics(HikariDataSource pool) {
+        PoolStatistics stats = new PoolStatistics();
+        stats.setMaximumPoolSize(pool.getMaximumPoolSize());
+        stats.setConnectionTimeoutMs(pool.getConnectionTimeout());
+
+        // No MXBean until the pool has opened its first connection
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        if (mxBean != null) {
+            stats.setActiveConnections(mxBean.getActiveConnections());
+            stats.setIdleConnections(mxBean.getIdleConnections());
+            stats.setTotalConnections(mxBean.getTotalConnections());
+            stats.setThreadsAwaitingConnection(mxBean.getThreadsAwaitingConnection());
+            stats.setSaturation(pool.getMaximumPoolSize() == 0 ? 0.0
+                    : (double) mxBean.getActiveConnections() / pool.getMaximumPoolSize());
+        }
+        return stats;
+    }
+
+    /**
+     * Inner class for the usage of one connection pool
+     */
+    public static class PoolStatistics {
+        private int maximumPoolSize;
+        private long connectionTimeoutMs;
+        private int activeConnections;
+        private int idleConnections;
+        private int totalConnections;
+        private int threadsAwaitingConnection;
+        private double saturation;
+
+        public int getMaximumPoolSize() { return maximumPoolSize; }
+        public void setMaximumPoolSize(int maximumPoolSize) { this.maximumPoolSize = maximumPoolSize; }
+
+        public long getConnectionTimeoutMs() { return connectionTimeoutMs; }
+        public void setConnectionTimeoutMs(long connectionTimeoutMs) { this.connectionTimeoutMs = connectionTimeoutMs; }
+
+        public int getActiveConnections() { return activeConnections; }
+        public void setActiveConnections(int activeConnections) { this.activeConnections = activeConnections; }
+
+        public int getIdleConnections() { return idleConnections; }
+        public void setIdleConnections(int idleConnections) { this.idleConnections = idleConnections; }
+
+        public int getTotalConnections() { return totalConnections; }
+        public void setTotalConnections(int totalConnections) { this.totalConnections = totalConnections; }
+
+        public int getThreadsAwaitingConnection() { return threadsAwaitingConnection; }
+        public void setThreadsAwaitingConnection(int threadsAwaitingConnection) { this.threadsAwaitingConnection = threadsAwaitingConnection; }
+
+        public double getSaturation() { return saturation; }
+        public void setSaturation(double saturation) { this.saturation = saturation; }
+    }
+}
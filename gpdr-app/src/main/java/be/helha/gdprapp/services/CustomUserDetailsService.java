@@ -2,17 +2,12 @@ package be.helha.gdprapp.services;
 
 import be.helha.gdprapp.models.User;
 import be.helha.gdprapp.repositories.UserRepository;
+import be.helha.gdprapp.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
-import java.util.Collections;
-
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
@@ -20,24 +15,12 @@ public class CustomUserDetailsService implements UserDetailsService {
     private UserRepository userRepository;
 
     @Override
-    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        // Find user by email
+    public UserPrincipal loadUserByUsername(String username) throws UsernameNotFoundException {
+        // Find user by email (role is fetched in the same query)
         User user = userRepository.findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + username));
 
-        // Create and return Spring Security UserDetails object
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail())
-                .password(user.getPassword())
-                .authorities(getAuthorities(user))
-                .accountExpired(!user.getActive())
-                .accountLocked(!user.getActive())
-                .credentialsExpired(false)
-                .disabled(!user.getActive())
-                .build();
-    }
-
-    private Collection<? extends GrantedAuthority> getAuthorities(User user) {
-        return (Collection<? extends GrantedAuthority>) Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole().getRole()));
+        // Wrap our entity so callers can reuse it without another lookup
+        return new UserPrincipal(user);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,287 @@
+package be.helha.gdprapp.services;
+
+import be.helha.gdprapp.configuration.ConnectionPool;
+import be.helha.gdprapp.configuration.SequenceBlockAllocator;
+import be.helha.gdprapp.configuration.UsePool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Synthetic data for performance environments.
+ * Generates companies (one manager each), clients and GDPR requests from a fixed random seed,
+ * so the same options always produce the same data set.
+ * Request volume is skewed like production: companies follow a Zipf distribution
+ * (a few huge companies and a long tail) and requests per client are geometric
+ * (most clients have one or two, a few have many).
+ * Rows are appended with JDBC batches, one transaction per batch; ids are reserved from
+ * the pooled sequences like Hibernate does, so the application can keep inserting afterwards.
+ * Every user shares one password hash computed once. Refused when a production profile is active.
+ */
+@Service
+public class DataSeederService {
+
+    private static final Logger log = LoggerFactory.getLogger(DataSeederService.class);
+
+    public static final String SEED_PASSWORD = "Seed123!";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SequenceBlockAllocator sequenceBlockAllocator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private RoleService roleService;
+
+    @Autowired
+    private ReferenceDataCacheService referenceDataCacheService;
+
+    @Autowired
+    private RequestRollupBackfill requestRollupBackfill;
+
+    @Autowired
+    private RequestPartitionService requestPartitionService;
+
+    @Autowired
+    private Environment environment;
+
+    /**
+     * Append a synthetic data set
+     * @param options Volumes, skew and random seed
+     * @return SeedResult with the number of rows inserted
+     */
+    @UsePool(ConnectionPool.BATCH)
+    public SeedResult seed(SeedOptions options) {
+        if (environment.acceptsProfiles(Profiles.of("prod", "production"))) {
+            throw new IllegalStateException("Data seeding is disabled in production");
+        }
+        if (options.getCompanies() <= 0 || options.getClients() < 0 || options.getBatchSize() <= 0) {
+            throw new IllegalArgumentException("Invalid seed options");
+        }
+
+        long start = System.currentTimeMillis();
+        SplittableRandom random = new SplittableRandom(options.getRandomSeed());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        String passwordHash = passwordEncoder.encode(SEED_PASSWORD);
+
+        roleService.createDefaultRoles();
+        int clientRole = roleService.getRoleByName("CLIENT").get().getIdRole();
+        int managerRole = roleService.getRoleByName("GERANT").get().getIdRole();
+
+        SeedResult result = new SeedResult();
+        int[] companyIds = insertCompanies(options, passwordHash, managerRole, transactionTemplate, result);
+        referenceDataCacheService.evictCompany(null);
+
+        ZipfSampler companySampler = new ZipfSampler(companyIds.length, options.getCompanySkew());
+        LocalDateTime now = LocalDateTime.now();
+        // Past months need their partition before rows land in the default one
+        requestPartitionService.createPartitions(YearMonth.from(now.minusDays(730)), YearMonth.from(now));
+        List<Object[]> clients = new ArrayList<>(options.getBatchSize());
+        List<Object[]> requests = new ArrayList<>(options.getBatchSize());
+
+        for (int done = 0; done < options.getClients(); done += clients.size()) {
+            clients.clear();
+            int count = Math.min(options.getBatchSize(), options.getClients() - done);
+            List<Integer> userIds = transactionTemplate.execute(status -> sequenceBlockAllocator.reserve("users_seq", count));
+            for (int i = 0; i < count; i++) {
+                int userId = userIds.get(i);
+                // One client in twenty is inactive
+                clients.add(new Object[] {userId, "Client", "C" + userId, "client" + userId + "@seed.test",
+                        passwordHash, random.nextInt(20) != 0, clientRole, null});
+            }
+            transactionTemplate.executeWithoutResult(status -> insertUsers(clients));
+            result.setClients(result.getClients() + clients.size());
+
+            for (Object[] client : clients) {
+                int requestCount = geometric(random, options.getAverageRequestsPerClient());
+                for (int j = 0; j < requestCount; j++) {
+                    requests.add(newRequest(random, (Integer) client[0], companyIds[companySampler.sample(random)], now));
+                    if (requests.size() == options.getBatchSize()) {
+                        flushRequests(requests, transactionTemplate, result);
+                    }
+                }
+            }
+        }
+        flushRequests(requests, transactionTemplate, result);
+
+        // Requests are inserted without their rollup updates: count the seeded days once at the end
+        requestRollupBackfill.rebuild(now.toLocalDate().minusDays(730), now.toLocalDate());
+
+        result.setElapsedMs(System.currentTimeMillis() - start);
+        log.info("Seeded {} companies, {} clients and {} GDPR requests in {} ms",
+                result.getCompanies(), result.getClients(), result.getRequests(), result.getElapsedMs());
+        return result;
+    }
+
+    private int[] insertCompanies(SeedOptions options, String passwordHash, int managerRole,
+                                  TransactionTemplate transactionTemplate, SeedResult result) {
+        int[] companyIds = new int[options.getCompanies()];
+        for (int done = 0; done < companyIds.length; ) {
+            int count = Math.min(options.getBatchSize(), companyIds.length - done);
+            int offset = done;
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Integer> ids = sequenceBlockAllocator.reserve("companies_seq", count);
+                List<Integer> managerIds = sequenceBlockAllocator.reserve("users_seq", count);
+                List<Object[]> companies = new ArrayList<>(count);
+                List<Object[]> managers = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    int id = ids.get(i);
+                    companyIds[offset + i] = id;
+                    companies.add(new Object[] {id, "Seed Company " + id, "contact" + id + "@seed-company.test"});
+                    managers.add(new Object[] {managerIds.get(i), "Manager", "M" + id, "manager" + id + "@seed-company.test",
+                            passwordHash, true, managerRole, id});
+                }
+                jdbcTemplate.batchUpdate("INSERT INTO companies (id_company, company_name, email) VALUES (?, ?, ?)", companies);
+                insertUsers(managers);
+            });
+            done += count;
+        }
+        result.setCompanies(companyIds.length);
+        result.setManagers(companyIds.length);
+        return companyIds;
+    }
+
+    private void insertUsers(List<Object[]> users) {
+        jdbcTemplate.batchUpdate("INSERT INTO users (id_user, firstname, lastname, email, password, active, id_role, id_company) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", users);
+    }
+
+    private void flushRequests(List<Object[]> requests, TransactionTemplate transactionTemplate, SeedResult result) {
+        if (requests.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Integer> ids = sequenceBlockAllocator.reserve("gdpr_requests_seq", requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                requests.get(i)[0] = ids.get(i);
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO gdpr_requests (id_request, request_type, status, request_date, request_content, id_user, id_company, " +
+                    "due_date, reminder_level) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", requests);
+        });
+        result.setRequests(result.getRequests() + requests.size());
+        requests.clear();
+    }
+
+    // Spread over the last two years; older requests are more likely to be processed
+    private Object[] newRequest(SplittableRandom random, int userId, int companyId, LocalDateTime now) {
+        int ageDays = random.nextInt(730);
+        String type = random.nextInt(3) == 0 ? GDPRRequestService.REQUEST_TYPE_MODIFICATION : GDPRRequestService.REQUEST_TYPE_DELETION;
+        String status = random.nextInt(730) < ageDays + 30 ? GDPRRequestService.STATUS_PROCESSED : GDPRRequestService.STATUS_PENDING;
+        LocalDateTime requestDate = now.minusDays(ageDays).minusSeconds(random.nextInt(86400));
+        LocalDateTime dueDate = requestDate.plusMonths(GDPRRequestService.RESPONSE_PERIOD_MONTHS);
+        // Requests already overdue when seeded get no deadline e-mails
+        int reminderLevel = dueDate.isBefore(now) ? RequestDeadlineService.NOTICES_DONE : 0;
+        return new Object[] {null, type, status, Timestamp.valueOf(requestDate), "Synthetic " + type.toLowerCase() + " request", userId, companyId,
+                Timestamp.valueOf(dueDate), reminderLevel};
+    }
+
+    // Geometric distribution on 1..n with the given mean
+    private static int geometric(SplittableRandom random, double mean) {
+        if (mean <= 1.0) {
+            return 1;
+        }
+        double p = 1.0 / mean;
+        return 1 + (int) (Math.log(1.0 - random.nextDouble()) / Math.log(1.0 - p));
+    }
+
+    /**
+     * Draws ranks 0..n-1 with probability proportional to 1 / (rank + 1)^skew
+     */
+    static class ZipfSampler {
+        private final double[] cumulative;
+
+        ZipfSampler(int size, double skew) {
+            cumulative = new double[size];
+            double total = 0.0;
+            for (int i = 0; i < size; i++) {
+                total += 1.0 / Math.pow(i + 1, skew);
+                cumulative[i] = total;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            double value = random.nextDouble() * cumulative[cumulative.length - 1];
+            int index = Arrays.binarySearch(cumulative, value);
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+
+    /**
+     * Inner class for the seeder options
+     */
+    public static class SeedOptions {
+        private int companies = 1000;
+        private int clients = 100000;
+        private double averageRequestsPerClient = 3.0;
+        private double companySkew = 1.1;
+        private long randomSeed = 42L;
+        private int batchSize = 5000;
+
+        public int getCompanies() { return companies; }
+        public void setCompanies(int companies) { this.companies = companies; }
+
+        public int getClients() { return clients; }
+        public void setClients(int clients) { this.clients = clients; }
+
+        public double getAverageRequestsPerClient() { return averageRequestsPerClient; }
+        public void setAverageRequestsPerClient(double averageRequestsPerClient) { this.averageRequestsPerClient = averageRequestsPerClient; }
+
+        public double getCompanySkew() { return companySkew; }
+        public void setCompanySkew(double companySkew) { this.companySkew = companySkew; }
+
+        public long getRandomSeed() { return randomSeed; }
+        public void setRandomSeed(long randomSeed) { this.randomSeed = randomSeed; }
+
+        public int getBatchSize() { return batchSize; }
+        public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+    }
+
+    /**
+     * Inner class for the seeder result
+     */
+    public static class SeedResult {
+        private long companies;
+        private long managers;
+        private long clients;
+        private long requests;
+        private long elapsedMs;
+
+        public long getCompanies() { return companies; }
+        public void setCompanies(long companies) { this.companies = companies; }
+
+        public long getManagers() { return managers; }
+        public void setManagers(long managers) { this.managers = managers; }
+
+        public long getClients() { return clients; }
+        public void setClients(long clients) { this.clients = clients; }
+
+        public long getRequests() { return requests; }
+        public void setRequests(long requests) { this.requests = requests; }
+
+        public long getElapsedMs() { return elapsedMs; }
+        public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+    }
+}
@@ -0,0 +1,351 @@
+package be.helha.gdprapp.services;
+
+import be.helha.gdprapp.repositories.GDPRRequestRepository;
+import be.helha.gdprapp.utils.HashedTimerWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches the due date of pending GDPR requests. Each request gets a reminder to its company
+ * reminder-days before the due date (e.g. 7 and 1 days), then is escalated to the company's
+ * GERANT users once overdue. reminder_level records the notices sent, so a restart resumes
+ * where it stopped and a late start sends only the latest notice that is due.
+ * Notices are scheduled in an in-memory hashed timer wheel instead of polling gdpr_requests:
+ * at startup the pending requests due within the horizon are loaded with a range query on the
+ * (status, due_date) index, and the next slice of due dates is loaded every half horizon.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class DeadlineTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(DeadlineTracker.class);
+
+    @Autowired
+    private RequestDeadlineService requestDeadlineService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.deadlines.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.deadlines.reminder-days:7,1}")
+    private String reminderDays;
+
+    @Value("${app.deadlines.tick-ms:60000}")
+    private long tickMs;
+
+    @Value("${app.deadlines.wheel-size:1440}")
+    private int wheelSize;
+
+    @Value("${app.deadlines.horizon-hours:48}")
+    private long horizonHours;
+
+    // Days before the due date of each reminder, largest first; the escalation comes after them
+    private int[] offsets = new int[0];
+    private HashedTimerWheel<Notice> wheel;
+    private final Map<Integer, HashedTimerWheel.Timeout<Notice>> timeouts = new HashMap<>();
+    // Every pending request due up to this date is in the wheel
+    private LocalDateTime loadedUntil;
+    private LocalDateTime nextRefill;
+    private final AtomicLong remindersSent = new AtomicLong();
+    private final AtomicLong escalationsSent = new AtomicLong();
+    private Thread timerThread;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        offsets = Arrays.stream(reminderDays.split(","))
+                .map(String::trim)
+                .filter(day -> !day.isEmpty())
+                .mapToInt(Integer::parseInt)
+                .boxed()
+                .sorted(Comparator.reverseOrder())
+                .mapToInt(Integer::intValue)
+                .toArray();
+        if (!enabled) {
+            return;
+        }
+
+        Gauge.builder("gdpr.deadlines.tracked", this, DeadlineTracker::getTrackedCount)
+                .description("Pending requests with a deadline notice scheduled")
+                .register(meterRegistry);
+
+        try {
+            int backfilled = requestDeadlineService.backfillDueDates();
+            if (backfilled > 0) {
+                log.info("Set the due date of {} existing GDPR requests", backfilled);
+            }
+            rebuild(LocalDateTime.now());
+        } catch (Exception e) {
+            // The next refill loads the whole window again
+            log.warn("Could not load GDPR request deadlines: {}", e.getMessage());
+        }
+
+        running = true;
+        timerThread = new Thread(this::runTimer, "deadline-timer");
+        timerThread.setDaemon(true);
+        timerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (timerThread == null) {
+            return;
+        }
+
+        running = false;
+        timerThread.interrupt();
+        timerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Reset the wheel and load every pending request due within the horizon, overdue ones included
+     * @param now Current time
+     */
+    public synchronized void rebuild(LocalDateTime now) {
+        wheel = new HashedTimerWheel<>(tickMs, wheelSize, toMillis(now));
+        timeouts.clear();
+        loadedUntil = null;
+        refill(now);
+    }
+
+    /**
+     * Schedule the next notice of a request, if its due date is within the loaded window
+     * (later due dates are picked up by a refill)
+     * @param requestId Request ID
+     * @param dueDate Due date of the request
+     * @param reminderLevel Notices already sent
+     */
+    public synchronized void track(Integer requestId, LocalDateTime dueDate, Integer reminderLevel) {
+        if (wheel == null || dueDate == null || loadedUntil == null || dueDate.isAfter(loadedUntil)) {
+            return;
+        }
+        schedule(requestId, dueDate, reminderLevel == null ? 0 : reminderLevel, LocalDateTime.now());
+    }
+
+    /**
+     * Stop tracking a request (processed or deleted)
+     * @param requestId Request ID
+     */
+    public synchronized void cancel(Integer requestId) {
+        HashedTimerWheel.Timeout<Notice> timeout = timeouts.remove(requestId);
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    /**
+     * Send the notices that are due and load the next window when needed
+     * @param now Current time
+     */
+    public void advance(LocalDateTime now) {
+        List<Notice> due;
+        synchronized (this) {
+            if (wheel == null) {
+                return;
+            }
+            if (loadedUntil == null || !now.isBefore(nextRefill)) {
+                refill(now);
+            }
+            due = wheel.expire(toMillis(now));
+            for (Notice notice : due) {
+                timeouts.remove(notice.requestId);
+            }
+        }
+
+        // Sent outside the lock: tracking calls from the API never wait on the e-mails
+        for (Notice notice : due) {
+            fire(notice, now);
+        }
+    }
+
+    public synchronized int getTrackedCount() {
+        return wheel == null ? 0 : wheel.size();
+    }
+
+    /**
+     * Get the state of the tracker
+     * @return Tracked requests, loaded window and notices sent since startup
+     */
+    public synchronized DeadlineStatistics getStatistics() {
+        DeadlineStatistics stats = new DeadlineStatistics();
+        stats.setTrackedRequests(getTrackedCount());
+        stats.setLoadedUntil(loadedUntil);
+        stats.setReminderDays(Arrays.stream(offsets).boxed().toList());
+        stats.setRemindersSent(remindersSent.get());
+        stats.setEscalationsSent(escalationsSent.get());
+        return stats;
+    }
+
+    /**
+     * Time at which a notice is due
+     * @param dueDate Due date of the request
+     * @param level Notice level: reminders first, then the escalation
+     * @return Time of the notice
+     */
+    public LocalDateTime noticeTime(LocalDateTime dueDate, int level) {
+        return level < offsets.length ? dueDate.minusDays(offsets[level]) : dueDate;
+    }
+
+    /**
+     * Next notice to send: notices whose time has passed collapse into the latest one,
+     * so a request found 12 hours before its due date gets only the 1-day reminder
+     * @param dueDate Due date of the request
+     * @param reminderLevel Notices already sent
+     * @param now Current time
+     * @return Level of the next notice, or -1 if every notice was sent
+     */
+    public int nextNoticeLevel(LocalDateTime dueDate, int reminderLevel, LocalDateTime now) {
+        if (reminderLevel >= getNoticeCount()) {
+            return -1;
+        }
+        int level = reminderLevel;
+        while (level + 1 < getNoticeCount() && !noticeTime(dueDate, level + 1).isAfter(now)) {
+            level++;
+        }
+        return level;
+    }
+
+    public int getNoticeCount() {
+        return offsets.length + 1;
+    }
+
+    // Load the due dates of the next window: (loadedUntil, now + first reminder + horizon]
+    private void refill(LocalDateTime now) {
+        int maxOffset = offsets.length > 0 ? offsets[0] : 0;
+        LocalDateTime until = now.plusDays(maxOffset).plusHours(horizonHours);
+        nextRefill = now.plusMinutes(Math.max(1, horizonHours * 30));
+        if (loadedUntil != null && !until.isAfter(loadedUntil)) {
+            return;
+        }
+
+        try {
+            List<GDPRRequestRepository.PendingDeadline> deadlines =
+                    requestDeadlineService.findPendingDeadlines(loadedUntil, until, getNoticeCount());
+            for (GDPRRequestRepository.PendingDeadline deadline : deadlines) {
+                schedule(deadline.getIdRequest(), deadline.getDueDate(),
+                        deadline.getReminderLevel() == null ? 0 : deadline.getReminderLevel(), now);
+            }
+            loadedUntil = until;
+            log.debug("Loaded {} GDPR request deadlines up to {}", deadlines.size(), until);
+        } catch (Exception e) {
+            // Retried on the next tick
+            nextRefill = now;
+            log.warn("Could not load GDPR request deadlines: {}", e.getMessage());
+        }
+    }
+
+    private void schedule(Integer requestId, LocalDateTime dueDate, int reminderLevel, LocalDateTime now) {
+        cancel(requestId);
+        int level = nextNoticeLevel(dueDate, reminderLevel, now);
+        if (level < 0) {
+            return;
+        }
+        Notice notice = new Notice(requestId, dueDate, reminderLevel, level);
+        timeouts.put(requestId, wheel.schedule(notice, toMillis(noticeTime(dueDate, level))));
+    }
+
+    private void fire(Notice notice, LocalDateTime now) {
+        boolean escalation = notice.level >= offsets.length;
+        // A late reminder tells the days actually left
+        Integer daysLeft = escalation ? null : (int) Math.max(0, Math.ceilDiv(Duration.between(now, notice.dueDate).toHours(), 24));
+        try {
+            if (!requestDeadlineService.sendNotice(notice.requestId, notice.reminderLevel, notice.level, daysLeft)) {
+                return;
+            }
+        } catch (Exception e) {
+            log.warn("Deadline notice for GDPR request {} failed: {}", notice.requestId, e.getMessage());
+            return;
+        }
+
+        if (escalation) {
+            escalationsSent.incrementAndGet();
+        } else {
+            remindersSent.incrementAndGet();
+        }
+        meterRegistry.counter("gdpr.deadlines.notices", "type", escalation ? "escalation" : "reminder").increment();
+
+        synchronized (this) {
+            schedule(notice.requestId, notice.dueDate, notice.level + 1, now);
+        }
+    }
+
+    private void runTimer() {
+        while (running) {
+            try {
+                Thread.sleep(tickMs);
+                advance(LocalDateTime.now());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Deadline tick failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static class Notice {
+        private final Integer requestId;
+        private final LocalDateTime dueDate;
+        // Notices already sent when scheduled, and level of this notice
+        private final int reminderLevel;
+        private final int level;
+
+        Notice(Integer requestId, LocalDateTime dueDate, int reminderLevel, int level) {
+            this.requestId = requestId;
+            this.dueDate = dueDate;
+            this.reminderLevel = reminderLevel;
+            this.level = level;
+        }
+    }
+
+    // Inner class for deadline statistics
+    public static class DeadlineStatistics {
+        private int trackedRequests;
+        private LocalDateTime loadedUntil;
+        private List<Integer> reminderDays = new ArrayList<>();
+        private long remindersSent;
+        private long escalationsSent;
+
+        // Getters and setters
+        public int getTrackedRequests() { return trackedRequests; }
+        public void setTrackedRequests(int trackedRequests) { this.trackedRequests = trackedRequests; }
+
+        public LocalDateTime getLoadedUntil() { return loadedUntil; }
+        public void setLoadedUntil(LocalDateTime loadedUntil) { this.loadedUntil = loadedUntil; }
+
+        public List<Integer> getReminderDays() { return reminderDays; }
+        public void setReminderDays(List<Integer> reminderDays) { this.reminderDays = reminderDays; }
+
+        public long getRemindersSent() { return remindersSent; }
+        public void setRemindersSent(long remindersSent) { this.remindersSent = remindersSent; }
+
+        public long getEscalationsSent() { return escalationsSent; }
+        public void setEscalationsSent(long escalationsSent) { this.escalationsSent = escalationsSent; }
+    }
+}
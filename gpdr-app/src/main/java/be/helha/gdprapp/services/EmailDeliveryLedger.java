@@ -0,0 +1,410 @@
+package be.helha.gdprapp.services;
+
+import be.helha.gdprapp.configuration.ConnectionPool;
+import be.helha.gdprapp.configuration.ConnectionPoolContext;
+import be.helha.gdprapp.configuration.SequenceMigration;
+import be.helha.gdprapp.repositories.EmailDeliveryRepository;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ledger of e-mail deliveries (email_deliveries table) and the in-memory rollups behind /api/emails/statistics.
+ * Senders only update the rollups and queue the row: a single writer thread inserts queued rows
+ * in JDBC batches every flush-interval-ms (or batch-size rows), so SMTP sends never wait on the database.
+ * Totals and today's volume are loaded from the table at startup; latency percentiles per template
+ * cover the deliveries since startup. The ledger is best effort: rows are dropped (and counted)
+ * when the queue is full or a batch fails.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class EmailDeliveryLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailDeliveryLedger.class);
+
+    public static final String STATUS_SENT = "SENT";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_REJECTED = "REJECTED";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO email_deliveries (id_delivery, template, recipient_hash, status, latency_ms, attempts, sent_at, error) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String NEXTVAL_SQL = "SELECT nextval('email_deliveries_seq')";
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmailDeliveryRepository emailDeliveryRepository;
+
+    @Value("${app.mail.ledger.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.mail.ledger.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.mail.ledger.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${app.mail.ledger.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Map<String, TemplateStats> templates = new ConcurrentHashMap<>();
+    // Percentiles are kept in a private registry, like the SQL statistics
+    private final SimpleMeterRegistry percentileRegistry = new SimpleMeterRegistry();
+
+    private LocalDate today = LocalDate.now();
+    private long todayCount;
+
+    private BlockingQueue<Delivery> queue;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        loadTotals();
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        running = true;
+        writerThread = new Thread(this::runWriter, "email-ledger-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+
+        // The writer drains what is already queued before exiting
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Record one delivery: rollups are updated now, the row is written by the next batch
+     * @param template Template name ("simple" for plain text e-mails)
+     * @param recipient Recipient address, only its hash is stored
+     * @param status STATUS_SENT, STATUS_FAILED or STATUS_REJECTED
+     * @param latencyMs Time spent sending
+     * @param attempts Number of SMTP attempts (0 when rejected by the circuit breaker)
+     * @param error Error message of a failed delivery, or null
+     */
+    public void record(String template, String recipient, String status, long latencyMs, int attempts, String error) {
+        LocalDateTime now = LocalDateTime.now();
+        updateRollups(template, status, latencyMs, now.toLocalDate());
+
+        if (!running) {
+            return;
+        }
+        Delivery delivery = new Delivery(template, hashRecipient(recipient), status, latencyMs, attempts,
+                error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error, now);
+        if (!queue.offer(delivery)) {
+            dropped.increment();
+        }
+    }
+
+    public long getSentCount() {
+        return sent.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public synchronized long getTodayCount() {
+        return today.equals(LocalDate.now()) ? todayCount : 0;
+    }
+
+    /**
+     * Get count, failures and latency percentiles of every template since startup
+     * @return Map of template name to TemplateStatistics, sorted by name
+     */
+    public Map<String, TemplateStatistics> getTemplateStatistics() {
+        Map<String, TemplateStatistics> result = new TreeMap<>();
+        for (Map.Entry<String, TemplateStats> entry : templates.entrySet()) {
+            TemplateStats stats = entry.getValue();
+            TemplateStatistics statistics = new TemplateStatistics();
+            statistics.setCount(stats.count.sum());
+            statistics.setFailed(stats.failed.sum());
+            statistics.setMeanLatencyMs(stats.latency.mean(TimeUnit.MILLISECONDS));
+            statistics.setMaxLatencyMs(stats.latency.max(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile percentile : stats.latency.takeSnapshot().percentileValues()) {
+                double value = percentile.value(TimeUnit.MILLISECONDS);
+                if (percentile.percentile() == 0.5) {
+                    statistics.setP50LatencyMs(value);
+                } else if (percentile.percentile() == 0.95) {
+                    statistics.setP95LatencyMs(value);
+                } else if (percentile.percentile() == 0.99) {
+                    statistics.setP99LatencyMs(value);
+                }
+            }
+            result.put(entry.getKey(), statistics);
+        }
+        return result;
+    }
+
+    private void updateRollups(String template, String status, long latencyMs, LocalDate date) {
+        if (STATUS_SENT.equals(status)) {
+            sent.increment();
+        } else if (STATUS_REJECTED.equals(status)) {
+            rejected.increment();
+        } else {
+            failed.increment();
+        }
+
+        TemplateStats stats = templates.computeIfAbsent(template, this::newTemplateStats);
+        stats.count.increment();
+        if (!STATUS_SENT.equals(status)) {
+            stats.failed.increment();
+        }
+        // Rejected sends never reached the server, their latency says nothing about SMTP
+        if (!STATUS_REJECTED.equals(status)) {
+            stats.latency.record(latencyMs, TimeUnit.MILLISECONDS);
+        }
+
+        synchronized (this) {
+            if (!date.equals(today)) {
+                today = date;
+                todayCount = 0;
+            }
+            todayCount++;
+        }
+    }
+
+    // Totals survive restarts, percentiles start over
+    private void loadTotals() {
+        try {
+            for (Object[] row : emailDeliveryRepository.countByStatusGrouped()) {
+                long count = ((Number) row[1]).longValue();
+                if (STATUS_SENT.equals(row[0])) {
+                    sent.add(count);
+                } else if (STATUS_REJECTED.equals(row[0])) {
+                    rejected.add(count);
+                } else {
+                    failed.add(count);
+                }
+            }
+            long countToday = emailDeliveryRepository.countBySentAtGreaterThanEqual(LocalDate.now().atStartOfDay());
+            synchronized (this) {
+                today = LocalDate.now();
+                todayCount += countToday;
+            }
+        } catch (Exception e) {
+            log.warn("Could not load e-mail delivery totals: {}", e.getMessage());
+        }
+    }
+
+    private void runWriter() {
+        // Ledger writes never compete with API requests for connections
+        ConnectionPoolContext.set(ConnectionPool.BATCH);
+        List<Delivery> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Delivery first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                collect(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Wait up to flushIntervalMs for more deliveries to join the batch
+    private void collect(List<Delivery> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                return;
+            }
+
+            Delivery next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<Delivery> batch) {
+        try {
+            List<Long> ids = reserveIds(batch.size());
+            jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Delivery delivery = batch.get(i);
+                    ps.setLong(1, ids.get(i));
+                    ps.setString(2, delivery.template);
+                    ps.setString(3, delivery.recipientHash);
+                    ps.setString(4, delivery.status);
+                    ps.setLong(5, delivery.latencyMs);
+                    ps.setInt(6, delivery.attempts);
+                    ps.setTimestamp(7, Timestamp.valueOf(delivery.sentAt));
+                    ps.setString(8, delivery.error);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch.size();
+                }
+            });
+        } catch (Exception e) {
+            dropped.add(batch.size());
+            log.warn("Could not write {} e-mail deliveries: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    // One sequence call per block of ALLOCATION_SIZE ids, like Hibernate's pooled-lo optimizer
+    private List<Long> reserveIds(int count) {
+        List<Long> ids = new ArrayList<>(count);
+        while (ids.size() < count) {
+            long low = jdbcTemplate.queryForObject(NEXTVAL_SQL, Long.class);
+            for (int i = 0; i < SequenceMigration.ALLOCATION_SIZE && ids.size() < count; i++) {
+                ids.add(low + i);
+            }
+        }
+        return ids;
+    }
+
+    private TemplateStats newTemplateStats(String template) {
+        return new TemplateStats(Timer.builder("email.delivery")
+                .tag("template", template)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(percentileRegistry));
+    }
+
+    static String hashRecipient(String recipient) {
+        if (recipient == null) {
+            return "";
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(recipient.trim().toLowerCase().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // A delivery waiting for its batch
+    private static class Delivery {
+        private final String template;
+        private final String recipientHash;
+        private final String status;
+        private final long latencyMs;
+        private final int attempts;
+        private final String error;
+        private final LocalDateTime sentAt;
+
+        private Delivery(String template, String recipientHash, String status, long latencyMs, int attempts,
+                         String error, LocalDateTime sentAt) {
+            this.template = template;
+            this.recipientHash = recipientHash;
+            this.status = status;
+            this.latencyMs = latencyMs;
+            this.attempts = attempts;
+            this.error = error;
+            this.sentAt = sentAt;
+        }
+    }
+
+    // Rollup of one template
+    private static class TemplateStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final Timer latency;
+
+        private TemplateStats(Timer latency) {
+            this.latency = latency;
+        }
+    }
+
+    /**
+     * Inner class for the statistics of one template
+     */
+    public static class TemplateStatistics {
+        private long count;
+        private long failed;
+        private double meanLatencyMs;
+        private double maxLatencyMs;
+        private double p50LatencyMs;
+        private double p95LatencyMs;
+        private double p99LatencyMs;
+
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+
+        public long getFailed() { return failed; }
+        public void setFailed(long failed) { this.failed = failed; }
+
+        public double getMeanLatencyMs() { return meanLatencyMs; }
+        public void setMeanLatencyMs(double meanLatencyMs) { this.meanLatencyMs = meanLatencyMs; }
+
+        public double getMaxLatencyMs() { return maxLatencyMs; }
+        public void setMaxLatencyMs(double maxLatencyMs) { this.maxLatencyMs = maxLatencyMs; }
+
+        public double getP50LatencyMs() { return p50LatencyMs; }
+        public void setP50LatencyMs(double p50LatencyMs) { this.p50LatencyMs = p50LatencyMs; }
+
+        public double getP95LatencyMs() { return p95LatencyMs; }
+        public void setP95LatencyMs(double p95LatencyMs) { this.p95LatencyMs = p95LatencyMs; }
+
+        public double getP99LatencyMs() { return p99LatencyMs; }
+        public void setP99LatencyMs(double p99LatencyMs) { this.p99LatencyMs = p99LatencyMs; }
+    }
+}
@@ -3,8 +3,12 @@ package be.helha.gdprapp.services;
 import be.helha.gdprapp.models.User;
 import be.helha.gdprapp.models.Company;
 import be.helha.gdprapp.models.GDPRRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
@@ -16,16 +20,34 @@ import org.thymeleaf.context.Context;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class EmailService {
 
+    private static final Logger log = LoggerFactory.getLogger(EmailService.class);
+
     @Autowired
     private JavaMailSender emailSender;
 
     @Autowired
     private TemplateEngine templateEngine;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SmtpCircuitBreaker smtpCircuitBreaker;
+
+    @Autowired
+    private EmailDeliveryLedger emailDeliveryLedger;
+
+    @Autowired
+    private OutboundMailScheduler outboundMailScheduler;
+
     @Value("${app.mail.from:noreply@gdprapp.com}")
     private String fromEmail;
 
@@ -44,16 +66,23 @@ public class EmailService {
             message.setSubject(subject);
             message.setText(text);
 
-            emailSender.send(message);
-            System.out.println("Simple email sent successfully to: " + to);
+            // Plain text e-mails are password resets: never queued behind other mail.
+            // Waits for the delivery, so callers only report success once the message went out
+            await(logDelivery(deliver(OutboundMailScheduler.Lane.TRANSACTIONAL, OutboundMailScheduler.SYSTEM_TENANT, "simple", "simple", to,
+                    () -> emailSender.send(message)), "Simple", to));
         } catch (Exception e) {
-            System.err.println("Error sending simple email to " + to + ": " + e.getMessage());
             throw new RuntimeException("Failed to send email", e);
         }
     }
 
     // Send HTML email with template
     public void sendHtmlEmail(String to, String subject, String templateName, Context context) {
+        queueHtmlEmail(to, subject, templateName, context, OutboundMailScheduler.Lane.OPERATIONAL, OutboundMailScheduler.SYSTEM_TENANT);
+    }
+
+    // Render now, deliver through the outbound lane; the future completes once the message was sent
+    private CompletableFuture<Void> queueHtmlEmail(String to, String subject, String templateName, Context context,
+                                                   OutboundMailScheduler.Lane lane, String tenant) {
         try {
             MimeMessage mimeMessage = emailSender.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
@@ -62,13 +91,13 @@ public class EmailService {
             helper.setTo(to);
             helper.setSubject(subject);
 
-            String htmlContent = templateEngine.process(templateName, context);
+            String htmlContent = meterRegistry.timer("gdpr.mail.template.render", "template", templateName)
+                    .record(() -> templateEngine.process(templateName, context));
             helper.setText(htmlContent, true);
 
-            emailSender.send(mimeMessage);
-            System.out.println("HTML email sent successfully to: " + to);
+            return logDelivery(deliver(lane, tenant, "html", templateName, to, () -> emailSender.send(mimeMessage)), "HTML", to);
         } catch (MessagingException e) {
-            System.err.println("Error sending HTML email to " + to + ": " + e.getMessage());
+            log.warn("Error preparing HTML email to {}: {}", to, e.getMessage());
             throw new RuntimeException("Failed to send HTML email", e);
         }
     }
@@ -81,7 +110,8 @@ public class EmailService {
         context.setVariable("appUrl", appUrl);
 
         String subject = "Welcome to " + appName + "!";
-        sendHtmlEmail(user.getEmail(), subject, "welcome-email", context);
+        queueHtmlEmail(user.getEmail(), subject, "welcome-email", context,
+                OutboundMailScheduler.Lane.TRANSACTIONAL, OutboundMailScheduler.SYSTEM_TENANT);
     }
 
     // Send password reset email with new password
@@ -95,7 +125,8 @@ public class EmailService {
         context.setVariable("resetDate", LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
 
         String subject = "Password Reset - New Password for " + appName;
-        sendHtmlEmail(user.getEmail(), subject, "password-reset-email", context);
+        queueHtmlEmail(user.getEmail(), subject, "password-reset-email", context,
+                OutboundMailScheduler.Lane.TRANSACTIONAL, OutboundMailScheduler.SYSTEM_TENANT);
     }
 
     // Send GDPR request confirmation to user
@@ -107,7 +138,8 @@ public class EmailService {
         context.setVariable("requestDate", request.getRequestDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
 
         String subject = "GDPR Request Confirmation - " + appName;
-        sendHtmlEmail(user.getEmail(), subject, "gdpr-request-confirmation", context);
+        queueHtmlEmail(user.getEmail(), subject, "gdpr-request-confirmation", context,
+                OutboundMailScheduler.Lane.TRANSACTIONAL, companyTenant(request));
     }
 
     // Send GDPR request notification to company
@@ -121,7 +153,56 @@ public class EmailService {
         context.setVariable("dashboardUrl", appUrl + "/dashboard");
 
         String subject = "New GDPR Request - " + request.getRequestType() + " - " + appName;
-        sendHtmlEmail(company.getEmail(), subject, "gdpr-request-notification", context);
+        queueHtmlEmail(company.getEmail(), subject, "gdpr-request-notification", context,
+                OutboundMailScheduler.Lane.OPERATIONAL, OutboundMailScheduler.companyTenant(company.getIdCompany()));
+    }
+
+    // Send one digest of new GDPR requests to a company in batched or digest mode
+    public void sendGDPRRequestDigest(Company company, java.util.List<GDPRRequest> requests, int totalRequests) {
+        Context context = new Context();
+        context.setVariable("company", company);
+        context.setVariable("requests", requests);
+        context.setVariable("totalRequests", totalRequests);
+        context.setVariable("hiddenRequests", totalRequests - requests.size());
+        context.setVariable("appName", appName);
+        context.setVariable("digestDate", LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
+        context.setVariable("dashboardUrl", appUrl + "/dashboard");
+
+        String subject = totalRequests + " New GDPR Request" + (totalRequests > 1 ? "s" : "") + " - " + appName;
+        // Waits for the delivery: the caller only clears the queued notifications once it went out
+        await(queueHtmlEmail(company.getEmail(), subject, "gdpr-request-digest", context,
+                OutboundMailScheduler.Lane.OPERATIONAL, OutboundMailScheduler.companyTenant(company.getIdCompany())));
+    }
+
+    // Remind a company that a pending GDPR request is close to its due date
+    public void sendGDPRDeadlineReminder(Company company, GDPRRequest request, long daysLeft) {
+        Context context = deadlineContext(company, request);
+        context.setVariable("daysLeft", daysLeft);
+
+        String subject = "Reminder: GDPR Request #" + request.getIdRequest() + " due in " + daysLeft + " day(s) - " + appName;
+        queueHtmlEmail(company.getEmail(), subject, "gdpr-deadline-reminder", context,
+                OutboundMailScheduler.Lane.OPERATIONAL, OutboundMailScheduler.companyTenant(company.getIdCompany()));
+    }
+
+    // Escalate an overdue GDPR request to a manager of the company (or to the company itself)
+    public void sendGDPRDeadlineEscalation(Company company, GDPRRequest request, String recipientEmail, String recipientName) {
+        Context context = deadlineContext(company, request);
+        context.setVariable("recipientName", recipientName);
+
+        String subject = "OVERDUE: GDPR Request #" + request.getIdRequest() + " - " + appName;
+        queueHtmlEmail(recipientEmail, subject, "gdpr-deadline-escalation", context,
+                OutboundMailScheduler.Lane.OPERATIONAL, OutboundMailScheduler.companyTenant(company.getIdCompany()));
+    }
+
+    private Context deadlineContext(Company company, GDPRRequest request) {
+        Context context = new Context();
+        context.setVariable("company", company);
+        context.setVariable("request", request);
+        context.setVariable("appName", appName);
+        context.setVariable("requestDate", request.getRequestDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
+        context.setVariable("dueDate", request.getDueDate().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
+        context.setVariable("dashboardUrl", appUrl + "/dashboard");
+        return context;
     }
 
     // Send GDPR request status update to user
@@ -135,7 +216,8 @@ public class EmailService {
         context.setVariable("updateDate", LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
 
         String subject = "GDPR Request Update - " + request.getStatus() + " - " + appName;
-        sendHtmlEmail(user.getEmail(), subject, "gdpr-request-status-update", context);
+        queueHtmlEmail(user.getEmail(), subject, "gdpr-request-status-update", context,
+                OutboundMailScheduler.Lane.OPERATIONAL, companyTenant(request));
     }
 
     // Send account activation email
@@ -148,7 +230,8 @@ public class EmailService {
         context.setVariable("expirationTime", "7 days");
 
         String subject = "Activate Your Account - " + appName;
-        sendHtmlEmail(user.getEmail(), subject, "account-activation-email", context);
+        queueHtmlEmail(user.getEmail(), subject, "account-activation-email", context,
+                OutboundMailScheduler.Lane.TRANSACTIONAL, OutboundMailScheduler.SYSTEM_TENANT);
     }
 
     // Send account deactivation notification
@@ -163,15 +246,14 @@ public class EmailService {
         sendHtmlEmail(user.getEmail(), subject, "account-deactivation-email", context);
     }
 
-    // Send bulk email to multiple recipients
+    // Send bulk email to multiple recipients (queued in the BULK lane, sent after the other mail)
     public void sendBulkEmail(String[] recipients, String subject, String templateName, Context context) {
         for (String recipient : recipients) {
             try {
-                sendHtmlEmail(recipient, subject, templateName, context);
-                // Add delay to avoid spam detection
-                Thread.sleep(100);
+                queueHtmlEmail(recipient, subject, templateName, context,
+                        OutboundMailScheduler.Lane.BULK, OutboundMailScheduler.SYSTEM_TENANT);
             } catch (Exception e) {
-                System.err.println("Failed to send email to: " + recipient + " - " + e.getMessage());
+                log.warn("Failed to send email to: {} - {}", recipient, e.getMessage());
             }
         }
     }
@@ -190,17 +272,18 @@ public class EmailService {
         sendBulkEmail(adminEmails, "[ADMIN] " + subject, "admin-notification", context);
     }
 
-    // Test email functionality
+    // Test email functionality: waits for the delivery, so an SMTP failure or an open circuit is reported
     public void sendTestEmail(String to) {
         Context context = new Context();
         context.setVariable("appName", appName);
         context.setVariable("testTime", LocalDateTime.now().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss")));
 
         String subject = "Test Email - " + appName;
-        sendHtmlEmail(to, subject, "test-email", context);
+        await(queueHtmlEmail(to, subject, "test-email", context,
+                OutboundMailScheduler.Lane.OPERATIONAL, OutboundMailScheduler.SYSTEM_TENANT));
     }
 
-    // Send email with custom template and data
+    // Send email with custom template and data, waiting for the delivery
     public void sendCustomEmail(String to, String subject, String templateName, java.util.Map<String, Object> variables) {
         Context context = new Context();
 
@@ -214,16 +297,85 @@ public class EmailService {
             context.setVariable(entry.getKey(), entry.getValue());
         }
 
-        sendHtmlEmail(to, subject, templateName, context);
+        await(queueHtmlEmail(to, subject, templateName, context,
+                OutboundMailScheduler.Lane.OPERATIONAL, OutboundMailScheduler.SYSTEM_TENANT));
+    }
+
+    private CompletableFuture<Void> deliver(OutboundMailScheduler.Lane lane, String tenant, String type, String template,
+                                            String recipient, Runnable sender) {
+        return outboundMailScheduler.submit(lane, tenant, () -> send(type, template, recipient, sender));
+    }
+
+    // Log the outcome once the delivery ran, not when it was queued
+    private CompletableFuture<Void> logDelivery(CompletableFuture<Void> delivery, String kind, String to) {
+        return delivery.whenComplete((ignored, error) -> {
+            if (error == null) {
+                log.info("{} email sent successfully to: {}", kind, to);
+            } else {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                log.warn("Error sending {} email to {}: {}", kind, to, cause.getMessage());
+            }
+        });
+    }
+
+    // Wait for a queued delivery and rethrow its failure
+    private void await(CompletableFuture<Void> delivery) {
+        try {
+            delivery.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Mail about a request is scheduled under the request's company
+    private String companyTenant(GDPRRequest request) {
+        return OutboundMailScheduler.companyTenant(request.getCompany() != null ? request.getCompany().getIdCompany() : null);
     }
 
-    // Email statistics and monitoring
+    // Time the SMTP round trip, tagged by message type and outcome; fails fast while the circuit is open.
+    // Every outcome is recorded in the delivery ledger with the number of times the sender actually ran.
+    private void send(String type, String template, String recipient, Runnable sender) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long start = System.nanoTime();
+        AtomicInteger attempts = new AtomicInteger();
+        String outcome = "failure";
+        String error = null;
+        try {
+            smtpCircuitBreaker.execute(() -> {
+                attempts.incrementAndGet();
+                sender.run();
+            });
+            outcome = "success";
+        } catch (SmtpCircuitBreaker.CircuitOpenException e) {
+            outcome = "rejected";
+            error = e.getMessage();
+            throw e;
+        } catch (RuntimeException e) {
+            error = e.getMessage();
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("gdpr.mail.send", "type", type, "outcome", outcome));
+            long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            switch (outcome) {
+                case "success" -> emailDeliveryLedger.record(template, recipient, EmailDeliveryLedger.STATUS_SENT, latencyMs, attempts.get(), null);
+                case "rejected" -> emailDeliveryLedger.record(template, recipient, EmailDeliveryLedger.STATUS_REJECTED, latencyMs, attempts.get(), error);
+                default -> emailDeliveryLedger.record(template, recipient, EmailDeliveryLedger.STATUS_FAILED, latencyMs, attempts.get(), error);
+            }
+        }
+    }
+
+    // Email statistics from the delivery ledger
     public EmailStatistics getEmailStatistics() {
-        // This would typically come from a database or monitoring system
         EmailStatistics stats = new EmailStatistics();
-        stats.setTotalEmailsSent(0L); // Implement actual counting
-        stats.setTotalEmailsFailed(0L);
-        stats.setTotalEmailsToday(0L);
+        stats.setTotalEmailsSent(emailDeliveryLedger.getSentCount());
+        stats.setTotalEmailsFailed(emailDeliveryLedger.getFailedCount());
+        stats.setTotalEmailsRejected(emailDeliveryLedger.getRejectedCount());
+        stats.setTotalEmailsToday(emailDeliveryLedger.getTodayCount());
+        stats.setLedgerDropped(emailDeliveryLedger.getDroppedCount());
+        stats.setTemplates(emailDeliveryLedger.getTemplateStatistics());
         return stats;
     }
 
@@ -231,7 +383,10 @@ public class EmailService {
     public static class EmailStatistics {
         private Long totalEmailsSent;
         private Long totalEmailsFailed;
+        private Long totalEmailsRejected;
         private Long totalEmailsToday;
+        private Long ledgerDropped;
+        private java.util.Map<String, EmailDeliveryLedger.TemplateStatistics> templates;
 
         // Getters and setters
         public Long getTotalEmailsSent() { return totalEmailsSent; }
@@ -240,7 +395,16 @@ public class EmailService {
         public Long getTotalEmailsFailed() { return totalEmailsFailed; }
         public void setTotalEmailsFailed(Long totalEmailsFailed) { this.totalEmailsFailed = totalEmailsFailed; }
 
+        public Long getTotalEmailsRejected() { return totalEmailsRejected; }
+        public void setTotalEmailsRejected(Long totalEmailsRejected) { this.totalEmailsRejected = totalEmailsRejected; }
+
         public Long getTotalEmailsToday() { return totalEmailsToday; }
         public void setTotalEmailsToday(Long totalEmailsToday) { this.totalEmailsToday = totalEmailsToday; }
+
+        public Long getLedgerDropped() { return ledgerDropped; }
+        public void setLedgerDropped(Long ledgerDropped) { this.ledgerDropped = ledgerDropped; }
+
+        public java.util.Map<String, EmailDeliveryLedger.TemplateStatistics> getTemplates() { return templates; }
+        public void setTemplates(java.util.Map<String, EmailDeliveryLedger.TemplateStatistics> templates) { this.templates = templates; }
     }
 }
\ No newline at end of file
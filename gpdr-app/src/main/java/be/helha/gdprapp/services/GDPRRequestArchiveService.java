@@ -0,0 +1,124 @@
+package be.helha.gdprapp.services;
+
+import be.helha.gdprapp.configuration.ConnectionPool;
+import be.helha.gdprapp.configuration.UsePool;
+import be.helha.gdprapp.models.ArchivedGDPRRequest;
+import be.helha.gdprapp.models.GDPRRequest;
+import be.helha.gdprapp.repositories.ArchivedGDPRRequestRepository;
+import be.helha.gdprapp.repositories.GDPRRequestRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cold storage of GDPR requests (gdpr_requests_archive).
+ * Processed requests past the retention window are moved there in chunks, so gdpr_requests and its
+ * indexes only hold the requests managers still work on. Archived requests are returned as detached
+ * GDPRRequest objects, so callers reading by id or user history do not see the difference.
+ */
+@Service
+public class GDPRRequestArchiveService {
+
+    @Autowired
+    private ArchivedGDPRRequestRepository archivedGDPRRequestRepository;
+
+    @Autowired
+    private GDPRRequestRepository gdprRequestRepository;
+
+    @Autowired
+    private RequestRollupService requestRollupService;
+
+    /**
+     * Move a chunk of processed requests to the archive (copy and delete in one transaction)
+     * @param cutoff Requests made and processed before this date are archived
+     * @param chunkSize Maximum number of requests moved
+     * @return Number of requests archived
+     */
+    @Transactional
+    @UsePool(ConnectionPool.BATCH)
+    public int archiveChunk(LocalDateTime cutoff, int chunkSize) {
+        List<Integer> ids = gdprRequestRepository.lockArchivableIds(cutoff, chunkSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedGDPRRequestRepository.copyFromRequests(ids, LocalDateTime.now());
+        return gdprRequestRepository.deleteArchived(ids);
+    }
+
+    /**
+     * Find an archived request
+     * @param requestId Request ID
+     * @return Optional containing the request if it is archived
+     */
+    @Transactional(readOnly = true)
+    public Optional<GDPRRequest> findRequest(Integer requestId) {
+        return archivedGDPRRequestRepository.findWithPartiesByIdRequest(requestId).map(GDPRRequestArchiveService::toRequest);
+    }
+
+    /**
+     * Find the archived requests of a user
+     * @param userId User ID
+     * @return Archived requests, most recent first
+     */
+    @Transactional(readOnly = true)
+    public List<GDPRRequest> findUserRequests(Integer userId) {
+        return archivedGDPRRequestRepository.findByUserIdUserOrderByRequestDateDesc(userId).stream()
+                .map(GDPRRequestArchiveService::toRequest)
+                .toList();
+    }
+
+    /**
+     * Check if a request is archived
+     * @param requestId Request ID
+     * @return true if the request is in the archive
+     */
+    @Transactional(readOnly = true)
+    public boolean isArchived(Integer requestId) {
+        return archivedGDPRRequestRepository.existsById(requestId);
+    }
+
+    /**
+     * Delete an archived request
+     * @param requestId Request ID
+     * @return The deleted request, empty if it is not archived
+     */
+    @Transactional
+    public Optional<GDPRRequest> deleteRequest(Integer requestId) {
+        Optional<ArchivedGDPRRequest> archived = archivedGDPRRequestRepository.findWithPartiesByIdRequest(requestId);
+        archived.ifPresent(request -> {
+            archivedGDPRRequestRepository.delete(request);
+            requestRollupService.recordDeleted(toRequest(request));
+        });
+        return archived.map(GDPRRequestArchiveService::toRequest);
+    }
+
+    /**
+     * Count the archived requests
+     * @return Number of archived requests
+     */
+    @Transactional(readOnly = true)
+    @UsePool(ConnectionPool.BATCH)
+    public long countArchived() {
+        return archivedGDPRRequestRepository.count();
+    }
+
+    // Detached copy, never saved: archived requests are read-only
+    private static GDPRRequest toRequest(ArchivedGDPRRequest archived) {
+        GDPRRequest request = new GDPRRequest();
+        request.setIdRequest(archived.getIdRequest());
+        request.setRequestType(archived.getRequestType());
+        request.setStatus(archived.getStatus());
+        request.setRequestDate(archived.getRequestDate());
+        request.setRequestContent(archived.getRequestContent());
+        request.setDueDate(archived.getDueDate());
+        request.setProcessedDate(archived.getProcessedDate());
+        request.setReminderLevel(RequestDeadlineService.NOTICES_DONE);
+        request.setUser(archived.getUser());
+        request.setCompany(archived.getCompany());
+        return request;
+    }
+}
@@ -0,0 +1,179 @@
+package be.helha.gdprapp.services;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Nightly archival of processed GDPR requests older than retention-days.
+ * Requests are moved chunk-size at a time, one transaction per chunk, with a pause between chunks
+ * to leave I/O to the API. Each chunk picks the oldest requests still to archive, so a run that is
+ * stopped or fails resumes where it stopped on the next run.
+ * When gdpr_requests is partitioned, months entirely past the cutoff are archived first as whole
+ * partitions (one copy, then a DROP TABLE instead of deleting and vacuuming every row); the chunks
+ * then move what is left, e.g. months that still had requests processed after the cutoff.
+ */
+@Component
+public class GDPRRequestArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(GDPRRequestArchiver.class);
+
+    @Autowired
+    private GDPRRequestArchiveService gdprRequestArchiveService;
+
+    @Autowired
+    private RequestPartitionService requestPartitionService;
+
+    @Value("${app.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.archive.retention-days:365}")
+    private int retentionDays;
+
+    @Value("${app.archive.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.archive.pause-ms:100}")
+    private long pauseMs;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean stopping;
+    private volatile LocalDateTime lastRunStartedAt;
+    private volatile LocalDateTime lastRunCutoff;
+    private volatile long lastRunArchived;
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+    }
+
+    @Scheduled(cron = "${app.archive.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    /**
+     * Archive every processed request past the retention window
+     * @return Number of requests archived, -1 if a run is already in progress
+     */
+    public long archive() {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        lastRunStartedAt = LocalDateTime.now();
+        lastRunCutoff = cutoff;
+        lastRunArchived = 0;
+        try {
+            archivePartitions(cutoff);
+            int archived;
+            do {
+                archived = gdprRequestArchiveService.archiveChunk(cutoff, chunkSize);
+                lastRunArchived += archived;
+                if (archived == chunkSize && pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            } while (archived == chunkSize && !stopping);
+
+            if (lastRunArchived > 0) {
+                log.info("Archived {} GDPR requests processed before {}", lastRunArchived, cutoff);
+            }
+            return lastRunArchived;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return lastRunArchived;
+        } catch (Exception e) {
+            // Archived chunks are committed, the next run continues from there
+            log.warn("GDPR request archival stopped after {} requests: {}", lastRunArchived, e.getMessage());
+            return lastRunArchived;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Whole months past the cutoff; a month that fails is left to the chunks
+    private void archivePartitions(LocalDateTime cutoff) {
+        for (String partition : requestPartitionService.findPartitionsBefore(cutoff)) {
+            if (stopping) {
+                return;
+            }
+            try {
+                long archived = requestPartitionService.archivePartition(partition, cutoff);
+                if (archived >= 0) {
+                    lastRunArchived += archived;
+                    log.info("Archived partition {} ({} GDPR requests)", partition, archived);
+                }
+            } catch (Exception e) {
+                log.warn("Could not archive partition {}: {}", partition, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Start an archival run in the background
+     * @return false if a run is already in progress
+     */
+    public boolean archiveInBackground() {
+        if (running.get()) {
+            return false;
+        }
+        Thread thread = new Thread(this::archive, "gdpr-archiver");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    /**
+     * Get the state of the archival
+     * @return Archive status
+     */
+    public ArchiveStatus getStatus() {
+        ArchiveStatus status = new ArchiveStatus();
+        status.setRunning(running.get());
+        status.setRetentionDays(retentionDays);
+        status.setLastRunStartedAt(lastRunStartedAt);
+        status.setLastRunCutoff(lastRunCutoff);
+        status.setLastRunArchived(lastRunArchived);
+        status.setArchivedRequests(gdprRequestArchiveService.countArchived());
+        return status;
+    }
+
+    // Inner class for the archive status
+    public static class ArchiveStatus {
+        private boolean running;
+        private int retentionDays;
+        private LocalDateTime lastRunStartedAt;
+        private LocalDateTime lastRunCutoff;
+        private long lastRunArchived;
+        private long archivedRequests;
+
+        // Getters and setters
+        public boolean isRunning() { return running; }
+        public void setRunning(boolean running) { this.running = running; }
+
+        public int getRetentionDays() { return retentionDays; }
+        public void setRetentionDays(int retentionDays) { this.retentionDays = retentionDays; }
+
+        public LocalDateTime getLastRunStartedAt() { return lastRunStartedAt; }
+        public void setLastRunStartedAt(LocalDateTime lastRunStartedAt) { this.lastRunStartedAt = lastRunStartedAt; }
+
+        public LocalDateTime getLastRunCutoff() { return lastRunCutoff; }
+        public void setLastRunCutoff(LocalDateTime lastRunCutoff) { this.lastRunCutoff = lastRunCutoff; }
+
+        public long getLastRunArchived() { return lastRunArchived; }
+        public void setLastRunArchived(long lastRunArchived) { this.lastRunArchived = lastRunArchived; }
+
+        public long getArchivedRequests() { return archivedRequests; }
+        public void setArchivedRequests(long archivedRequests) { this.archivedRequests = archivedRequests; }
+    }
+}
@@ -0,0 +1,234 @@
+package be.helha.gdprapp.services;
+
+import be.helha.gdprapp.configuration.ConnectionPool;
+import be.helha.gdprapp.configuration.ConnectionPoolContext;
+import be.helha.gdprapp.configuration.SequenceBlockAllocator;
+import be.helha.gdprapp.models.GDPRRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for GDPR request creation.
+ * Concurrent submissions are collected for at most maxWaitMs (or until maxBatchSize is reached)
+ * and inserted as one JDBC batch in one transaction by a single writer thread.
+ * Ids are reserved from the request sequence up front, one call per block of 50.
+ * Each caller gets a future completed with its request id.
+ * Disabled by default (app.gdpr.group-commit.enabled).
+ */
+@Component
+public class GDPRRequestBatchWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO gdpr_requests (id_request, request_type, status, request_date, request_content, id_user, id_company, due_date, reminder_level) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SequenceBlockAllocator sequenceBlockAllocator;
+
+    @Autowired
+    private RequestRollupService requestRollupService;
+
+    @Value("${app.gdpr.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.gdpr.group-commit.max-batch-size:200}")
+    private int maxBatchSize;
+
+    @Value("${app.gdpr.group-commit.max-wait-ms:2}")
+    private long maxWaitMs;
+
+    @Value("${app.gdpr.group-commit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private BlockingQueue<PendingInsert> queue;
+    private TransactionTemplate transactionTemplate;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+        writerThread = new Thread(this::runWriter, "gdpr-group-commit");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+
+        // The writer drains what is already queued before exiting
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue a new request for the next batch
+     * @param request Validated request (user and company only need their ids)
+     * @return Future completed with the generated request id
+     */
+    public CompletableFuture<Integer> submit(GDPRRequest request) {
+        if (!running) {
+            throw new IllegalStateException("Group commit is not running");
+        }
+
+        PendingInsert pending = new PendingInsert(request);
+        if (!queue.offer(pending)) {
+            throw new RuntimeException("Too many pending GDPR requests, please retry");
+        }
+        return pending.future;
+    }
+
+    private void runWriter() {
+        // Batches never compete with API requests for connections
+        ConnectionPoolContext.set(ConnectionPool.BATCH);
+        List<PendingInsert> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingInsert first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                collect(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Wait up to maxWaitMs for more requests to join the batch
+    private void collect(List<PendingInsert> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+
+            PendingInsert next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingInsert> batch) {
+        List<Integer> ids;
+        try {
+            // Outside the insert transaction: sequence values are never rolled back, retries reuse them
+            ids = sequenceBlockAllocator.reserve("gdpr_requests_seq", batch.size());
+        } catch (Exception e) {
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.completeExceptionally(e);
+            }
+            return;
+        }
+        flush(batch, ids);
+    }
+
+    private void flush(List<PendingInsert> batch, List<Integer> ids) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertBatch(batch, ids));
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.complete(ids.get(i));
+            }
+        } catch (DataIntegrityViolationException e) {
+            if (batch.size() == 1) {
+                batch.get(0).future.completeExceptionally(GDPRRequestService.saveFailure(e));
+                return;
+            }
+
+            // One bad row fails the whole batch: retry each row alone, with its id, so only its caller fails
+            for (int i = 0; i < batch.size(); i++) {
+                flush(List.of(batch.get(i)), List.of(ids.get(i)));
+            }
+        } catch (Exception e) {
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void insertBatch(List<PendingInsert> batch, List<Integer> ids) {
+        List<GDPRRequest> requests = new ArrayList<>(batch.size());
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                GDPRRequest request = batch.get(i).request;
+                ps.setInt(1, ids.get(i));
+                ps.setString(2, request.getRequestType());
+                ps.setString(3, request.getStatus());
+                ps.setTimestamp(4, Timestamp.valueOf(request.getRequestDate()));
+                ps.setString(5, request.getRequestContent());
+                ps.setInt(6, request.getUser().getIdUser());
+                ps.setInt(7, request.getCompany().getIdCompany());
+                ps.setTimestamp(8, Timestamp.valueOf(request.getDueDate()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return batch.size();
+            }
+        });
+
+        // One rollup update per day, company, type and status of the batch
+        for (PendingInsert pending : batch) {
+            requests.add(pending.request);
+        }
+        requestRollupService.recordCreated(requests);
+    }
+
+    // A request waiting for its batch
+    private static class PendingInsert {
+        private final GDPRRequest request;
+        private final CompletableFuture<Integer> future = new CompletableFuture<>();
+
+        private PendingInsert(GDPRRequest request) {
+            this.request = request;
+        }
+    }
+}
@@ -1,20 +1,33 @@
 package be.helha.gdprapp.services;
 
+import be.helha.gdprapp.configuration.ConnectionPool;
+import be.helha.gdprapp.configuration.UsePool;
 import be.helha.gdprapp.models.GDPRRequest;
 import be.helha.gdprapp.models.User;
 import be.helha.gdprapp.models.Company;
 import be.helha.gdprapp.repositories.GDPRRequestRepository;
 import be.helha.gdprapp.repositories.UserRepository;
 import be.helha.gdprapp.repositories.CompanyRepository;
+import be.helha.gdprapp.security.CurrentUserContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
+// Pure reads run in read-only transactions: no flush, no dirty checking, and they go to the
+// replica when datasource routing is enabled. Lookups by id stay read-write because the
+// update paths reuse the entity they loaded (an entity loaded read-only is never flushed).
 @Service
 @Transactional
 public class GDPRRequestService {
@@ -31,49 +44,89 @@ public class GDPRRequestService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private CompanyNotificationService companyNotificationService;
+
+    @Autowired
+    private DeadlineTracker deadlineTracker;
+
+    @Autowired
+    private ProcessingTimeAnalytics processingTimeAnalytics;
+
+    @Autowired
+    private RequestRollupService requestRollupService;
+
+    @Autowired
+    private GDPRRequestArchiveService gdprRequestArchiveService;
+
+    @Autowired
+    private CurrentUserContext currentUserContext;
+
+    @Autowired
+    private GDPRRequestBatchWriter gdprRequestBatchWriter;
+
     // Constants for request types and statuses
     public static final String REQUEST_TYPE_MODIFICATION = "MODIFICATION";
     public static final String REQUEST_TYPE_DELETION = "DELETION";
     public static final String STATUS_PENDING = "PENDING";
     public static final String STATUS_PROCESSED = "PROCESSED";
 
+    // GDPR article 12(3): the controller answers within one month of the request
+    public static final int RESPONSE_PERIOD_MONTHS = 1;
+
     /**
      * Get all GDPR requests (Admin only)
      * @return List of all GDPR requests
      */
+    @Transactional(readOnly = true)
     public List<GDPRRequest> getAllGDPRRequests() {
         return gdprRequestRepository.findAll();
     }
 
     /**
-     * Get GDPR request by ID
+     * Get GDPR request by ID, archived ones included (memoized for the current HTTP request)
      * @param id Request ID
      * @return Optional containing the request if found
      */
     public Optional<GDPRRequest> getGDPRRequestById(Integer id) {
-        return gdprRequestRepository.findById(id);
+        return findRequest(id);
     }
 
     /**
-     * UC1 - Client: Get user's own GDPR requests
+     * UC1 - Client: Get user's own GDPR requests, archived ones included
      * @param userId User ID
      * @return List of user's GDPR requests
      */
+    @Transactional(readOnly = true)
     public List<GDPRRequest> getUserGDPRRequests(Integer userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
-        return gdprRequestRepository.findByUserOrderByRequestDateDesc(user);
+        return withArchivedRequests(user, gdprRequestRepository.findByUserOrderByRequestDateDesc(user));
     }
 
     /**
-     * UC1 - Client: Get user's own GDPR requests by email
+     * UC1 - Client: Get user's own GDPR requests by email, archived ones included
      * @param email User email
      * @return List of user's GDPR requests
      */
+    @Transactional(readOnly = true)
     public List<GDPRRequest> getUserGDPRRequestsByEmail(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
-        return gdprRequestRepository.findByUserOrderByRequestDateDesc(user);
+        return withArchivedRequests(user, gdprRequestRepository.findByUserOrderByRequestDateDesc(user));
+    }
+
+    // Append the archived history of a user, most recent first
+    private List<GDPRRequest> withArchivedRequests(User user, List<GDPRRequest> requests) {
+        List<GDPRRequest> archived = gdprRequestArchiveService.findUserRequests(user.getIdUser());
+        if (archived.isEmpty()) {
+            return requests;
+        }
+        List<GDPRRequest> history = new ArrayList<>(requests.size() + archived.size());
+        history.addAll(requests);
+        history.addAll(archived);
+        history.sort(Comparator.comparing(GDPRRequest::getRequestDate).reversed());
+        return history;
     }
 
     /**
@@ -81,6 +134,7 @@ public class GDPRRequestService {
      * @param companyId Company ID
      * @return List of company's GDPR requests
      */
+    @Transactional(readOnly = true)
     public List<GDPRRequest> getCompanyGDPRRequests(Integer companyId) {
         Company company = companyRepository.findById(companyId)
                 .orElseThrow(() -> new RuntimeException("Company not found with id: " + companyId));
@@ -92,6 +146,7 @@ public class GDPRRequestService {
      * @param companyId Company ID
      * @return List of pending GDPR requests for company
      */
+    @Transactional(readOnly = true)
     public List<GDPRRequest> getCompanyPendingRequests(Integer companyId) {
         Company company = companyRepository.findById(companyId)
                 .orElseThrow(() -> new RuntimeException("Company not found with id: " + companyId));
@@ -104,6 +159,82 @@ public class GDPRRequestService {
      * @return Created GDPR request
      */
     public GDPRRequest createGDPRRequest(GDPRRequest gdprRequest) {
+        validateNewRequest(gdprRequest);
+
+        Integer userId = gdprRequest.getUser().getIdUser();
+        Integer companyId = gdprRequest.getCompany().getIdCompany();
+
+        // Attach references without loading them, the foreign keys check that they exist
+        gdprRequest.setUser(userRepository.getReferenceById(userId));
+        gdprRequest.setCompany(companyRepository.getReferenceById(companyId));
+        applyDefaults(gdprRequest);
+
+        // Insert now (the pooled id alone would delay it to the commit) so a missing user or company
+        // fails here, then count the request in the daily rollups
+        GDPRRequest savedRequest;
+        try {
+            savedRequest = gdprRequestRepository.saveAndFlush(gdprRequest);
+        } catch (DataIntegrityViolationException e) {
+            throw saveFailure(e);
+        }
+        requestRollupService.recordCreated(List.of(savedRequest));
+
+        return completeCreation(savedRequest, userId, companyId);
+    }
+
+    /**
+     * Create a new GDPR request through the group commit writer.
+     * Runs outside of a transaction so no connection is held while the batch fills up.
+     * @param gdprRequest GDPR request to create
+     * @return Created GDPR request
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public GDPRRequest createGDPRRequestGrouped(GDPRRequest gdprRequest) {
+        validateNewRequest(gdprRequest);
+        applyDefaults(gdprRequest);
+
+        // The writer inserts the request with the other ones of its batch. No timeout here: the wait is
+        // bounded by max-wait-ms and the queue capacity, and a caller giving up could not tell whether
+        // the row was committed anyway
+        CompletableFuture<Integer> generatedId = gdprRequestBatchWriter.submit(gdprRequest);
+        try {
+            gdprRequest.setIdRequest(generatedId.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause && !(cause instanceof DataAccessException)) {
+                throw cause;
+            }
+            throw new RuntimeException("Failed to save GDPR request", e.getCause());
+        }
+
+        return completeCreation(gdprRequest, gdprRequest.getUser().getIdUser(), gdprRequest.getCompany().getIdCompany());
+    }
+
+    /**
+     * Check if request creation goes through the group commit writer
+     * @return true if group commit is enabled
+     */
+    public boolean isGroupCommitEnabled() {
+        return gdprRequestBatchWriter.isEnabled();
+    }
+
+    /**
+     * Error reported to the caller when inserting a request breaks a constraint
+     * @param e Constraint violation
+     * @return "User or company not found" for a foreign key violation, the database error otherwise
+     */
+    static RuntimeException saveFailure(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            // 23503 foreign key violation (PostgreSQL), 23506 referenced row missing (H2)
+            if (cause instanceof SQLException sqlException
+                    && ("23503".equals(sqlException.getSQLState()) || "23506".equals(sqlException.getSQLState()))) {
+                return new RuntimeException("User or company not found");
+            }
+        }
+        return new RuntimeException("Failed to save GDPR request: " + e.getMostSpecificCause().getMessage(), e);
+    }
+
+    // Validate a request before creation
+    private void validateNewRequest(GDPRRequest gdprRequest) {
         // Validate input
         if (gdprRequest.getRequestType() == null || gdprRequest.getRequestType().trim().isEmpty()) {
             throw new RuntimeException("Request type cannot be null or empty");
@@ -122,45 +253,73 @@ public class GDPRRequestService {
                 !REQUEST_TYPE_DELETION.equals(gdprRequest.getRequestType())) {
             throw new RuntimeException("Invalid request type. Must be MODIFICATION or DELETION");
         }
+    }
 
-        // Verify that user and company exist
-        User user = userRepository.findById(gdprRequest.getUser().getIdUser())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        Company company = companyRepository.findById(gdprRequest.getCompany().getIdCompany())
-                .orElseThrow(() -> new RuntimeException("Company not found"));
-
-        // Set default values
-        gdprRequest.setUser(user);
-        gdprRequest.setCompany(company);
+    // Set default values of a new request
+    private void applyDefaults(GDPRRequest gdprRequest) {
         gdprRequest.setStatus(STATUS_PENDING);
         gdprRequest.setRequestDate(LocalDateTime.now());
+        gdprRequest.setDueDate(gdprRequest.getRequestDate().plusMonths(RESPONSE_PERIOD_MONTHS));
+        gdprRequest.setReminderLevel(0);
 
         // Trim request content
         if (gdprRequest.getRequestContent() != null) {
             gdprRequest.setRequestContent(gdprRequest.getRequestContent().trim());
         }
+    }
+
+    // Load what the e-mails need (single SELECT) and send them
+    private GDPRRequest completeCreation(GDPRRequest savedRequest, Integer userId, Integer companyId) {
+        GDPRRequestRepository.RequestParties parties = gdprRequestRepository.findRequestParties(userId, companyId)
+                .orElseThrow(() -> new RuntimeException("User or company not found"));
 
-        // Save the request
-        GDPRRequest savedRequest = gdprRequestRepository.save(gdprRequest);
+        GDPRRequest createdRequest = toCreatedRequest(savedRequest, userId, companyId, parties);
+        deadlineTracker.track(createdRequest.getIdRequest(), createdRequest.getDueDate(), 0);
 
         // Send confirmation email to user
         try {
-            emailService.sendGDPRRequestConfirmation(user, savedRequest);
+            emailService.sendGDPRRequestConfirmation(createdRequest.getUser(), createdRequest);
         } catch (Exception e) {
             // Log the error but don't fail the request creation
             System.err.println("Failed to send confirmation email: " + e.getMessage());
         }
 
-        // Send notification email to company
+        // Notify the company now or queue the request for its next digest
         try {
-            emailService.sendGDPRRequestNotification(company, savedRequest);
+            companyNotificationService.notifyNewRequest(createdRequest);
         } catch (Exception e) {
             // Log the error but don't fail the request creation
             System.err.println("Failed to send notification email: " + e.getMessage());
         }
 
-        return savedRequest;
+        return createdRequest;
+    }
+
+    // Detached copy of a new request whose user and company come from the projection,
+    // so rendering the e-mails and the response never initialises the proxies
+    private GDPRRequest toCreatedRequest(GDPRRequest savedRequest, Integer userId, Integer companyId,
+                                         GDPRRequestRepository.RequestParties parties) {
+        User user = new User();
+        user.setIdUser(userId);
+        user.setFirstname(parties.getFirstname());
+        user.setLastname(parties.getLastname());
+        user.setEmail(parties.getUserEmail());
+
+        Company company = new Company(parties.getCompanyName(), parties.getCompanyEmail());
+        company.setIdCompany(companyId);
+        company.setNotificationMode(parties.getCompanyNotificationMode());
+
+        GDPRRequest createdRequest = new GDPRRequest();
+        createdRequest.setIdRequest(savedRequest.getIdRequest());
+        createdRequest.setRequestType(savedRequest.getRequestType());
+        createdRequest.setRequestContent(savedRequest.getRequestContent());
+        createdRequest.setStatus(savedRequest.getStatus());
+        createdRequest.setRequestDate(savedRequest.getRequestDate());
+        createdRequest.setDueDate(savedRequest.getDueDate());
+        createdRequest.setReminderLevel(savedRequest.getReminderLevel());
+        createdRequest.setUser(user);
+        createdRequest.setCompany(company);
+        return createdRequest;
     }
 
     /**
@@ -171,7 +330,9 @@ public class GDPRRequestService {
      */
     public GDPRRequest updateRequestStatus(Integer requestId, String newStatus) {
         GDPRRequest request = gdprRequestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("GDPR request not found with id: " + requestId));
+                .orElseThrow(() -> new RuntimeException(gdprRequestArchiveService.isArchived(requestId)
+                        ? "Archived GDPR requests cannot be modified"
+                        : "GDPR request not found with id: " + requestId));
 
         // Validate status
         if (!STATUS_PENDING.equals(newStatus) && !STATUS_PROCESSED.equals(newStatus)) {
@@ -181,7 +342,28 @@ public class GDPRRequestService {
         String oldStatus = request.getStatus();
         request.setStatus(newStatus);
 
+        // Processing time runs from the request date to the change to PROCESSED
+        boolean processed = STATUS_PROCESSED.equals(newStatus) && !STATUS_PROCESSED.equals(oldStatus);
+        if (processed) {
+            request.setProcessedDate(LocalDateTime.now());
+        } else if (STATUS_PENDING.equals(newStatus)) {
+            request.setProcessedDate(null);
+        }
+
         GDPRRequest updatedRequest = gdprRequestRepository.save(request);
+        requestRollupService.recordStatusChange(updatedRequest, oldStatus);
+
+        if (processed) {
+            processingTimeAnalytics.recordProcessed(request.getCompany().getIdCompany(),
+                    request.getRequestDate(), request.getProcessedDate());
+        }
+
+        // Processed requests have no deadline left; reopened ones resume where they stopped
+        if (STATUS_PROCESSED.equals(newStatus)) {
+            deadlineTracker.cancel(requestId);
+        } else {
+            deadlineTracker.track(requestId, updatedRequest.getDueDate(), updatedRequest.getReminderLevel());
+        }
 
         // Send status update email to user
         try {
@@ -201,7 +383,7 @@ public class GDPRRequestService {
      * @return Updated GDPR request
      */
     public GDPRRequest updateRequestContent(Integer requestId, String newContent) {
-        GDPRRequest request = gdprRequestRepository.findById(requestId)
+        GDPRRequest request = findRequest(requestId)
                 .orElseThrow(() -> new RuntimeException("GDPR request not found with id: " + requestId));
 
         // Only allow content update if request is still pending
@@ -221,11 +403,15 @@ public class GDPRRequestService {
      * @param requestId Request ID
      */
     public void deleteGDPRRequest(Integer requestId) {
-        if (!gdprRequestRepository.existsById(requestId)) {
+        Optional<GDPRRequest> request = gdprRequestRepository.findById(requestId);
+        if (request.isPresent()) {
+            gdprRequestRepository.delete(request.get());
+            requestRollupService.recordDeleted(request.get());
+        } else if (gdprRequestArchiveService.deleteRequest(requestId).isEmpty()) {
             throw new RuntimeException("GDPR request not found with id: " + requestId);
         }
-
-        gdprRequestRepository.deleteById(requestId);
+        currentUserContext.evict(GDPRRequest.class, requestId);
+        deadlineTracker.cancel(requestId);
     }
 
     /**
@@ -233,6 +419,7 @@ public class GDPRRequestService {
      * @param status Request status
      * @return List of requests with the given status
      */
+    @Transactional(readOnly = true)
     public List<GDPRRequest> getRequestsByStatus(String status) {
         return gdprRequestRepository.findByStatusOrderByRequestDateDesc(status);
     }
@@ -242,6 +429,7 @@ public class GDPRRequestService {
      * @param requestType Request type
      * @return List of requests with the given type
      */
+    @Transactional(readOnly = true)
     public List<GDPRRequest> getRequestsByType(String requestType) {
         return gdprRequestRepository.findByRequestType(requestType);
     }
@@ -252,6 +440,7 @@ public class GDPRRequestService {
      * @param status Request status
      * @return List of user's requests with the given status
      */
+    @Transactional(readOnly = true)
     public List<GDPRRequest> getUserRequestsByStatus(Integer userId, String status) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
@@ -264,6 +453,7 @@ public class GDPRRequestService {
      * @param endDate End date
      * @return List of requests between the given dates
      */
+    @Transactional(readOnly = true)
     public List<GDPRRequest> getRequestsBetweenDates(LocalDateTime startDate, LocalDateTime endDate) {
         if (startDate.isAfter(endDate)) {
             throw new RuntimeException("Start date cannot be after end date");
@@ -275,6 +465,7 @@ public class GDPRRequestService {
      * Get recent requests (last 30 days)
      * @return List of recent GDPR requests
      */
+    @Transactional(readOnly = true)
     public List<GDPRRequest> getRecentRequests() {
         LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
         return gdprRequestRepository.findRecentRequests(thirtyDaysAgo);
@@ -285,6 +476,7 @@ public class GDPRRequestService {
      * @param status Request status
      * @return Number of requests with the given status
      */
+    @Transactional(readOnly = true)
     public long countRequestsByStatus(String status) {
         return gdprRequestRepository.countByStatus(status);
     }
@@ -294,6 +486,7 @@ public class GDPRRequestService {
      * @param companyId Company ID
      * @return Number of requests for the given company
      */
+    @Transactional(readOnly = true)
     public long countRequestsByCompany(Integer companyId) {
         Company company = companyRepository.findById(companyId)
                 .orElseThrow(() -> new RuntimeException("Company not found with id: " + companyId));
@@ -304,12 +497,14 @@ public class GDPRRequestService {
      * Get GDPR request statistics
      * @return GDPRRequestStatistics object
      */
+    @Transactional(readOnly = true)
+    @UsePool(ConnectionPool.REPORTING)
     public GDPRRequestStatistics getGDPRRequestStatistics() {
         long totalRequests = gdprRequestRepository.count();
         long pendingRequests = countRequestsByStatus(STATUS_PENDING);
         long processedRequests = countRequestsByStatus(STATUS_PROCESSED);
-        long modificationRequests = gdprRequestRepository.findByRequestType(REQUEST_TYPE_MODIFICATION).size();
-        long deletionRequests = gdprRequestRepository.findByRequestType(REQUEST_TYPE_DELETION).size();
+        long modificationRequests = gdprRequestRepository.countByRequestType(REQUEST_TYPE_MODIFICATION);
+        long deletionRequests = gdprRequestRepository.countByRequestType(REQUEST_TYPE_DELETION);
 
         return new GDPRRequestStatistics(totalRequests, pendingRequests, processedRequests,
                 modificationRequests, deletionRequests);
@@ -322,15 +517,33 @@ public class GDPRRequestService {
      * @return true if user can access the request
      */
     public boolean canUserAccessRequest(Integer requestId, Integer userId) {
-        Optional<GDPRRequest> requestOpt = gdprRequestRepository.findById(requestId);
+        Optional<GDPRRequest> requestOpt = findRequest(requestId);
         if (requestOpt.isEmpty()) {
             return false;
         }
 
+        // Reading the id of the lazy user proxy does not load the user
         GDPRRequest request = requestOpt.get();
         return request.getUser().getIdUser().equals(userId);
     }
 
+    /**
+     * Check if the authenticated user owns the request.
+     * The user id comes from the token and the request load is shared with the handler.
+     * @param requestId Request ID
+     * @return true if the current user can access the request
+     */
+    public boolean canCurrentUserAccessRequest(Integer requestId) {
+        Integer userId = currentUserContext.getUserId();
+        return userId != null && canUserAccessRequest(requestId, userId);
+    }
+
+    // Load a request at most once per HTTP request; archived requests are read-only copies
+    private Optional<GDPRRequest> findRequest(Integer requestId) {
+        return currentUserContext.load(GDPRRequest.class, requestId,
+                () -> gdprRequestRepository.findById(requestId).or(() -> gdprRequestArchiveService.findRequest(requestId)));
+    }
+
     /**
      * Validate request type
      * @param requestType Request type to validate
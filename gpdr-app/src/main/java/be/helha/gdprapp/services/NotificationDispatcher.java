@@ -0,0 +1,43 @@
+package be.helha.gdprapp.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Sends the digests of BATCHED and DIGEST companies once their window is over.
+ * Each company is sent on its own: a failed e-mail leaves its notifications
+ * queued for the next run without blocking the other companies.
+ */
+@Component
+@ConditionalOnProperty(name = "app.notifications.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+public class NotificationDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    @Autowired
+    private CompanyNotificationService companyNotificationService;
+
+    @Scheduled(fixedDelayString = "${app.notifications.dispatch-interval-ms:60000}",
+            initialDelayString = "${app.notifications.dispatch-interval-ms:60000}")
+    public void dispatch() {
+        List<Integer> dueCompanies = companyNotificationService.findDueCompanies(LocalDateTime.now());
+        int sent = 0;
+        for (Integer companyId : dueCompanies) {
+            try {
+                sent += companyNotificationService.sendDigest(companyId);
+            } catch (Exception e) {
+                log.warn("Digest for company {} failed, retrying next run: {}", companyId, e.getMessage());
+            }
+        }
+        if (sent > 0) {
+            log.info("Sent {} queued request notifications to {} companies", sent, dueCompanies.size());
+        }
+    }
+}
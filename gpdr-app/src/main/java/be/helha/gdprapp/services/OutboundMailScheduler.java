@@ -0,0 +1,410 @@
+package be.helha.gdprapp.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * Outbound e-mail queue with priority lanes and fair scheduling between tenants.
+ * A free sender always serves the highest lane with work (TRANSACTIONAL, then OPERATIONAL, then BULK),
+ * and reserved-workers senders never take BULK mail, so a campaign cannot hold every SMTP connection.
+ * Inside a lane every tenant (a company, or "system") has its own queue served by deficit round robin:
+ * each round a tenant may send as many e-mails as its weight, so a flood from one company only delays
+ * that company. When the scheduler is disabled (or not started, as in unit tests) deliveries run on the caller.
+ */
+@Service
+public class OutboundMailScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboundMailScheduler.class);
+
+    public static final String SYSTEM_TENANT = "system";
+
+    // Declaration order is the priority order
+    public enum Lane { TRANSACTIONAL, OPERATIONAL, BULK }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.mail.scheduler.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.mail.scheduler.workers:4}")
+    private int workers;
+
+    @Value("${app.mail.scheduler.reserved-workers:1}")
+    private int reservedWorkers;
+
+    @Value("${app.mail.scheduler.lane-capacity:10000}")
+    private int laneCapacity;
+
+    // Tenant weights, e.g. "company-12:3,system:2"; other tenants weigh 1
+    @Value("${app.mail.scheduler.tenant-weights:}")
+    private String tenantWeights;
+
+    // How long shutdown waits for the senders to drain the lanes
+    @Value("${app.mail.scheduler.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final Map<Lane, LaneQueue> lanes = new EnumMap<>(Lane.class);
+    private final Map<String, Integer> weights = new HashMap<>();
+    private final Map<Lane, Timer> waitTimers = new EnumMap<>(Lane.class);
+    private final List<Thread> workerThreads = new ArrayList<>();
+    private volatile boolean running;
+
+    public OutboundMailScheduler() {
+        for (Lane lane : Lane.values()) {
+            lanes.put(lane, new LaneQueue());
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        parseWeights();
+        if (!enabled) {
+            return;
+        }
+
+        for (Lane lane : Lane.values()) {
+            Gauge.builder("gdpr.mail.queue.depth", this, scheduler -> scheduler.getDepth(lane))
+                    .description("E-mails waiting for a sender")
+                    .tag("lane", lane.name())
+                    .register(meterRegistry);
+            waitTimers.put(lane, Timer.builder("gdpr.mail.queue.wait")
+                    .description("Time e-mails wait in the outbound queue")
+                    .tag("lane", lane.name())
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+
+        running = true;
+        int reserved = Math.min(reservedWorkers, workers - 1);
+        for (int i = 0; i < workers; i++) {
+            // The first senders never take bulk mail
+            boolean allowBulk = i >= reserved;
+            Thread thread = new Thread(() -> runWorker(allowBulk), "mail-sender-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            workerThreads.add(thread);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+
+        // Senders drain what is already queued before exiting
+        lock.lock();
+        try {
+            running = false;
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+        for (Thread thread : workerThreads) {
+            thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        }
+
+        // Senders still busy at the deadline: fail what they did not take, so no caller waits forever
+        List<Job> abandoned = new ArrayList<>();
+        lock.lock();
+        try {
+            for (LaneQueue laneQueue : lanes.values()) {
+                Job job;
+                while ((job = laneQueue.poll()) != null) {
+                    abandoned.add(job);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!abandoned.isEmpty()) {
+            log.warn("Outbound mail scheduler stopped with {} e-mails still queued", abandoned.size());
+            RuntimeException stopped = new RuntimeException("Outbound mail scheduler stopped before sending the e-mail");
+            abandoned.forEach(job -> job.future.completeExceptionally(stopped));
+        }
+    }
+
+    /**
+     * Queue one delivery
+     * @param lane Priority class of the e-mail
+     * @param tenant Tenant it is sent for (e.g. "company-12"), null for SYSTEM_TENANT
+     * @param delivery The send call
+     * @return Completed when the delivery ran; completed exceptionally if it failed
+     * @throws RuntimeException if the lane is full, or if the delivery fails while running on the caller
+     */
+    public CompletableFuture<Void> submit(Lane lane, String tenant, Runnable delivery) {
+        Job job = new Job(lane, delivery, System.nanoTime());
+        boolean queued = false;
+        lock.lock();
+        try {
+            // Checked under the lock: once stop() cleared it, no sender will take new jobs
+            if (running) {
+                LaneQueue laneQueue = lanes.get(lane);
+                if (laneQueue.depth >= laneCapacity) {
+                    meterRegistry.counter("gdpr.mail.queue.rejected", "lane", lane.name()).increment();
+                    throw new RuntimeException("Outbound mail queue full for lane " + lane);
+                }
+                laneQueue.add(tenant == null ? SYSTEM_TENANT : tenant, job, this::weightOf);
+                workAvailable.signal();
+                queued = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (!queued) {
+            delivery.run();
+            return CompletableFuture.completedFuture(null);
+        }
+        return job.future;
+    }
+
+    public static String companyTenant(Integer companyId) {
+        return companyId == null ? SYSTEM_TENANT : "company-" + companyId;
+    }
+
+    public int getDepth(Lane lane) {
+        lock.lock();
+        try {
+            return lanes.get(lane).depth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Get depth, tenants and wait times of every lane
+     * @return One LaneStatistics per lane, in priority order
+     */
+    public List<LaneStatistics> getStatistics() {
+        List<LaneStatistics> result = new ArrayList<>();
+        for (Lane lane : Lane.values()) {
+            LaneStatistics statistics = new LaneStatistics();
+            statistics.setLane(lane.name());
+            lock.lock();
+            try {
+                LaneQueue laneQueue = lanes.get(lane);
+                statistics.setDepth(laneQueue.depth);
+                statistics.setActiveTenants(laneQueue.active.size());
+                statistics.setLargestTenantDepth(laneQueue.largestTenantDepth());
+            } finally {
+                lock.unlock();
+            }
+            Timer waitTimer = waitTimers.get(lane);
+            if (waitTimer != null) {
+                statistics.setSent(waitTimer.count());
+                statistics.setMeanWaitMs(waitTimer.mean(TimeUnit.MILLISECONDS));
+                statistics.setMaxWaitMs(waitTimer.max(TimeUnit.MILLISECONDS));
+            }
+            result.add(statistics);
+        }
+        return result;
+    }
+
+    private void runWorker(boolean allowBulk) {
+        while (true) {
+            Job job;
+            try {
+                job = take(allowBulk);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (job == null) {
+                return;
+            }
+
+            waitTimers.get(job.lane).record(System.nanoTime() - job.enqueuedAt, TimeUnit.NANOSECONDS);
+            try {
+                job.delivery.run();
+                job.future.complete(null);
+            } catch (RuntimeException e) {
+                // Already timed and recorded in the ledger by EmailService
+                log.warn("Queued {} e-mail failed: {}", job.lane, e.getMessage());
+                job.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    // Next job of the highest lane this sender may serve; null once stopped and drained
+    private Job take(boolean allowBulk) throws InterruptedException {
+        lock.lock();
+        try {
+            while (true) {
+                for (Lane lane : Lane.values()) {
+                    if (lane == Lane.BULK && !allowBulk) {
+                        continue;
+                    }
+                    Job job = lanes.get(lane).poll();
+                    if (job != null) {
+                        return job;
+                    }
+                }
+                if (!running && isDrained(allowBulk)) {
+                    return null;
+                }
+                workAvailable.await(100, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isDrained(boolean allowBulk) {
+        for (Lane lane : Lane.values()) {
+            if ((lane != Lane.BULK || allowBulk) && lanes.get(lane).depth > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int weightOf(String tenant) {
+        return weights.getOrDefault(tenant, 1);
+    }
+
+    private void parseWeights() {
+        if (tenantWeights == null || tenantWeights.isBlank()) {
+            return;
+        }
+        for (String entry : tenantWeights.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalStateException("Invalid tenant weight: " + entry);
+            }
+            weights.put(parts[0].trim(), Math.max(1, Integer.parseInt(parts[1].trim())));
+        }
+    }
+
+    /**
+     * Queues of one lane, one per tenant, served by deficit round robin (guarded by the scheduler lock)
+     */
+    private static class LaneQueue {
+        private final Map<String, TenantQueue> tenants = new HashMap<>();
+        // Tenants with queued mail, in round-robin order
+        private final ArrayDeque<TenantQueue> active = new ArrayDeque<>();
+        private int depth;
+
+        void add(String tenant, Job job, ToIntFunction<String> weightOf) {
+            TenantQueue queue = tenants.computeIfAbsent(tenant, key -> new TenantQueue(key, weightOf.applyAsInt(key)));
+            if (queue.jobs.isEmpty()) {
+                queue.deficit = 0;
+                active.addLast(queue);
+            }
+            queue.jobs.addLast(job);
+            depth++;
+        }
+
+        Job poll() {
+            while (!active.isEmpty()) {
+                TenantQueue queue = active.peekFirst();
+                if (queue.deficit <= 0) {
+                    // New turn: the tenant may send up to its weight before the next tenant
+                    queue.deficit += queue.weight;
+                }
+                Job job = queue.jobs.pollFirst();
+                queue.deficit--;
+                depth--;
+                if (queue.jobs.isEmpty()) {
+                    active.pollFirst();
+                    // Idle tenants keep no queue, so the map does not grow with every company ever seen
+                    tenants.remove(queue.tenant);
+                } else if (queue.deficit <= 0) {
+                    active.addLast(active.pollFirst());
+                }
+                return job;
+            }
+            return null;
+        }
+
+        int largestTenantDepth() {
+            int largest = 0;
+            for (TenantQueue queue : active) {
+                largest = Math.max(largest, queue.jobs.size());
+            }
+            return largest;
+        }
+    }
+
+    private static class TenantQueue {
+        private final String tenant;
+        private final int weight;
+        private final ArrayDeque<Job> jobs = new ArrayDeque<>();
+        private int deficit;
+
+        TenantQueue(String tenant, int weight) {
+            this.tenant = tenant;
+            this.weight = weight;
+        }
+    }
+
+    private static class Job {
+        private final Lane lane;
+        private final Runnable delivery;
+        private final long enqueuedAt;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Job(Lane lane, Runnable delivery, long enqueuedAt) {
+            this.lane = lane;
+            this.delivery = delivery;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    // Inner class for lane statistics
+    public static class LaneStatistics {
+        private String lane;
+        private int depth;
+        private int activeTenants;
+        private int largestTenantDepth;
+        private long sent;
+        private double meanWaitMs;
+        private double maxWaitMs;
+
+        // Getters and setters
+        public String getLane() { return lane; }
+        public void setLane(String lane) { this.lane = lane; }
+
+        public int getDepth() { return depth; }
+        public void setDepth(int depth) { this.depth = depth; }
+
+        public int getActiveTenants() { return activeTenants; }
+        public void setActiveTenants(int activeTenants) { this.activeTenants = activeTenants; }
+
+        public int getLargestTenantDepth() { return largestTenantDepth; }
+        public void setLargestTenantDepth(int largestTenantDepth) { this.largestTenantDepth = largestTenantDepth; }
+
+        public long getSent() { return sent; }
+        public void setSent(long sent) { this.sent = sent; }
+
+        public double getMeanWaitMs() { return meanWaitMs; }
+        public void setMeanWaitMs(double meanWaitMs) { this.meanWaitMs = meanWaitMs; }
+
+        public double getMaxWaitMs() { return maxWaitMs; }
+        public void setMaxWaitMs(double maxWaitMs) { this.maxWaitMs = maxWaitMs; }
+    }
+}
@@ -0,0 +1,283 @@
+package be.helha.gdprapp.services;
+
+import be.helha.gdprapp.configuration.ConnectionPool;
+import be.helha.gdprapp.configuration.UsePool;
+import be.helha.gdprapp.repositories.GDPRRequestRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Processing time of GDPR requests (request date to PROCESSED), per company and overall.
+ * Each company keeps an HdrHistogram of seconds updated as requests are processed, so p50/p90/p99
+ * are read from the histograms instead of the request history. The overall distribution is the
+ * merge of the company histograms. New samples are merged into the stored histograms every
+ * flush interval; the stored histogram then replaces the local one, so instances converge.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class ProcessingTimeAnalytics {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessingTimeAnalytics.class);
+
+    @Autowired
+    private ProcessingTimeSketchService processingTimeSketchService;
+
+    @Autowired
+    private GDPRRequestRepository gdprRequestRepository;
+
+    private final Map<Integer, CompanySketch> sketches = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        try {
+            processingTimeSketchService.loadSketches()
+                    .forEach((companyId, histogram) -> sketches.put(companyId, new CompanySketch(histogram)));
+        } catch (Exception e) {
+            // Starts empty; the next flush merges the new samples into the stored histograms
+            log.warn("Could not load processing-time histograms: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        flush();
+    }
+
+    /**
+     * Record the processing time of a request, once its transaction commits
+     * @param companyId Company ID
+     * @param requestDate Date of the request
+     * @param processedDate Date it was processed
+     */
+    public void recordProcessed(Integer companyId, LocalDateTime requestDate, LocalDateTime processedDate) {
+        if (companyId == null || requestDate == null || processedDate == null) {
+            return;
+        }
+        // Histograms only hold positive values: anything under a second counts as one
+        long seconds = Math.max(1, Duration.between(requestDate, processedDate).toSeconds());
+        afterCommit(() -> sketches.computeIfAbsent(companyId, id -> new CompanySketch(ProcessingTimeSketchService.newHistogram()))
+                .record(seconds));
+    }
+
+    /**
+     * Merge the new samples into the stored histograms
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.flush-interval-ms:60000}",
+            initialDelayString = "${app.analytics.flush-interval-ms:60000}")
+    public void flush() {
+        for (Map.Entry<Integer, CompanySketch> entry : sketches.entrySet()) {
+            CompanySketch sketch = entry.getValue();
+            Histogram samples = sketch.takeUnsaved();
+            if (samples.getTotalCount() == 0) {
+                continue;
+            }
+            try {
+                sketch.replace(processingTimeSketchService.merge(entry.getKey(), samples));
+            } catch (Exception e) {
+                // Kept for the next flush
+                sketch.restore(samples);
+                log.warn("Could not save the processing times of company {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Get the processing times and backlog of every company, and overall
+     * @return Processing-time report
+     */
+    @Transactional(readOnly = true)
+    @UsePool(ConnectionPool.REPORTING)
+    public ProcessingTimeReport getReport() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Integer, ProcessingTimeStatistics> companies = new HashMap<>();
+        Histogram overall = ProcessingTimeSketchService.newHistogram();
+        sketches.forEach((companyId, sketch) -> {
+            Histogram histogram = sketch.snapshot();
+            overall.add(histogram);
+            companies.put(companyId, toStatistics(companyId, histogram));
+        });
+
+        long pending = 0;
+        LocalDateTime oldest = null;
+        for (GDPRRequestRepository.CompanyBacklog backlog : gdprRequestRepository.findCompanyBacklogs()) {
+            ProcessingTimeStatistics stats = companies.computeIfAbsent(backlog.getIdCompany(),
+                    id -> toStatistics(id, ProcessingTimeSketchService.newHistogram()));
+            setBacklog(stats, backlog, now);
+            pending += backlog.getPending();
+            if (oldest == null || backlog.getOldestRequestDate().isBefore(oldest)) {
+                oldest = backlog.getOldestRequestDate();
+            }
+        }
+
+        ProcessingTimeStatistics overallStats = toStatistics(null, overall);
+        overallStats.setPendingRequests(pending);
+        overallStats.setOldestPendingHours(oldest == null ? null : hoursBetween(oldest, now));
+
+        List<ProcessingTimeStatistics> companyStats = new ArrayList<>(companies.values());
+        companyStats.sort(Comparator.comparing(ProcessingTimeStatistics::getCompanyId));
+        ProcessingTimeReport report = new ProcessingTimeReport();
+        report.setOverall(overallStats);
+        report.setCompanies(companyStats);
+        return report;
+    }
+
+    /**
+     * Get the processing times and backlog of a company
+     * @param companyId Company ID
+     * @return Processing-time statistics of the company
+     */
+    @Transactional(readOnly = true)
+    @UsePool(ConnectionPool.REPORTING)
+    public ProcessingTimeStatistics getCompanyStatistics(Integer companyId) {
+        CompanySketch sketch = sketches.get(companyId);
+        ProcessingTimeStatistics stats = toStatistics(companyId,
+                sketch == null ? ProcessingTimeSketchService.newHistogram() : sketch.snapshot());
+        gdprRequestRepository.findCompanyBacklog(companyId)
+                .ifPresent(backlog -> setBacklog(stats, backlog, LocalDateTime.now()));
+        return stats;
+    }
+
+    private static ProcessingTimeStatistics toStatistics(Integer companyId, Histogram histogram) {
+        ProcessingTimeStatistics stats = new ProcessingTimeStatistics();
+        stats.setCompanyId(companyId);
+        stats.setProcessedRequests(histogram.getTotalCount());
+        if (histogram.getTotalCount() > 0) {
+            stats.setP50Hours(toHours(histogram.getValueAtPercentile(50)));
+            stats.setP90Hours(toHours(histogram.getValueAtPercentile(90)));
+            stats.setP99Hours(toHours(histogram.getValueAtPercentile(99)));
+            stats.setMaxHours(toHours(histogram.getMaxValue()));
+        }
+        return stats;
+    }
+
+    private static void setBacklog(ProcessingTimeStatistics stats, GDPRRequestRepository.CompanyBacklog backlog, LocalDateTime now) {
+        stats.setPendingRequests(backlog.getPending());
+        stats.setOldestPendingHours(hoursBetween(backlog.getOldestRequestDate(), now));
+    }
+
+    private static double hoursBetween(LocalDateTime from, LocalDateTime to) {
+        return toHours(Math.max(0, Duration.between(from, to).toSeconds()));
+    }
+
+    private static double toHours(long seconds) {
+        return Math.round(seconds / 36.0) / 100.0;
+    }
+
+    // A sample counts only if the status change is committed
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Histogram of a company and the part of it not stored yet
+    private static class CompanySketch {
+        private Histogram histogram;
+        private final Histogram unsaved = ProcessingTimeSketchService.newHistogram();
+
+        CompanySketch(Histogram histogram) {
+            this.histogram = histogram;
+        }
+
+        synchronized void record(long seconds) {
+            histogram.recordValue(seconds);
+            unsaved.recordValue(seconds);
+        }
+
+        synchronized Histogram snapshot() {
+            return histogram.copy();
+        }
+
+        synchronized Histogram takeUnsaved() {
+            Histogram samples = unsaved.copy();
+            unsaved.reset();
+            return samples;
+        }
+
+        synchronized void restore(Histogram samples) {
+            unsaved.add(samples);
+        }
+
+        // Stored histogram plus what was recorded while it was being saved
+        synchronized void replace(Histogram stored) {
+            stored.add(unsaved);
+            histogram = stored;
+        }
+    }
+
+    // Inner class for the processing-time report
+    public static class ProcessingTimeReport {
+        private ProcessingTimeStatistics overall;
+        private List<ProcessingTimeStatistics> companies = new ArrayList<>();
+
+        // Getters and setters
+        public ProcessingTimeStatistics getOverall() { return overall; }
+        public void setOverall(ProcessingTimeStatistics overall) { this.overall = overall; }
+
+        public List<ProcessingTimeStatistics> getCompanies() { return companies; }
+        public void setCompanies(List<ProcessingTimeStatistics> companies) { this.companies = companies; }
+    }
+
+    // Inner class for the processing times of a company (companyId null overall)
+    public static class ProcessingTimeStatistics {
+        private Integer companyId;
+        private long processedRequests;
+        private Double p50Hours;
+        private Double p90Hours;
+        private Double p99Hours;
+        private Double maxHours;
+        private long pendingRequests;
+        private Double oldestPendingHours;
+
+        // Getters and setters
+        public Integer getCompanyId() { return companyId; }
+        public void setCompanyId(Integer companyId) { this.companyId = companyId; }
+
+        public long getProcessedRequests() { return processedRequests; }
+        public void setProcessedRequests(long processedRequests) { this.processedRequests = processedRequests; }
+
+        public Double getP50Hours() { return p50Hours; }
+        public void setP50Hours(Double p50Hours) { this.p50Hours = p50Hours; }
+
+        public Double getP90Hours() { return p90Hours; }
+        public void setP90Hours(Double p90Hours) { this.p90Hours = p90Hours; }
+
+        public Double getP99Hours() { return p99Hours; }
+        public void setP99Hours(Double p99Hours) { this.p99Hours = p99Hours; }
+
+        public Double getMaxHours() { return maxHours; }
+        public void setMaxHours(Double maxHours) { this.maxHours = maxHours; }
+
+        public long getPendingRequests() { return pendingRequests; }
+        public void setPendingRequests(long pendingRequests) { this.pendingRequests = pendingRequests; }
+
+        public Double getOldestPendingHours() { return oldestPendingHours; }
+        public void setOldestPendingHours(Double oldestPendingHours) { this.oldestPendingHours = oldestPendingHours; }
+    }
+}
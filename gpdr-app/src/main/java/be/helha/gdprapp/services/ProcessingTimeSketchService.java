@@ -0,0 +1,90 @@
+package be.helha.gdprapp.services;
+
+import be.helha.gdprapp.configuration.ConnectionPool;
+import be.helha.gdprapp.configuration.UsePool;
+import be.helha.gdprapp.models.ProcessingTimeSketch;
+import be.helha.gdprapp.repositories.ProcessingTimeSketchRepository;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+
+/**
+ * Database side of the processing-time analytics: one compressed histogram per company.
+ * Runs on the batch pool, away from API requests.
+ */
+@Service
+@UsePool(ConnectionPool.BATCH)
+public class ProcessingTimeSketchService {
+
+    // Precision of the histograms: values are kept to 3 significant digits (0.1% error)
+    public static final int SIGNIFICANT_DIGITS = 3;
+
+    @Autowired
+    private ProcessingTimeSketchRepository processingTimeSketchRepository;
+
+    /**
+     * Load the histogram of every company
+     * @return Histograms by company ID
+     */
+    @Transactional(readOnly = true)
+    public Map<Integer, Histogram> loadSketches() {
+        Map<Integer, Histogram> sketches = new HashMap<>();
+        for (ProcessingTimeSketch sketch : processingTimeSketchRepository.findAll()) {
+            sketches.put(sketch.getIdCompany(), decode(sketch.getHistogram()));
+        }
+        return sketches;
+    }
+
+    /**
+     * Add new samples to the stored histogram of a company
+     * @param companyId Company ID
+     * @param samples Samples not stored yet
+     * @return Stored histogram, with the samples of every instance
+     */
+    @Transactional
+    public Histogram merge(Integer companyId, Histogram samples) {
+        ProcessingTimeSketch sketch = processingTimeSketchRepository.findForUpdateByIdCompany(companyId)
+                .orElseGet(() -> new ProcessingTimeSketch(companyId));
+        Histogram merged = sketch.getHistogram() == null ? newHistogram() : decode(sketch.getHistogram());
+        merged.add(samples);
+        sketch.setHistogram(encode(merged));
+        sketch.setUpdatedAt(LocalDateTime.now());
+        processingTimeSketchRepository.save(sketch);
+        return merged;
+    }
+
+    /**
+     * Create an empty histogram that grows with the values recorded
+     * @return Histogram
+     */
+    public static Histogram newHistogram() {
+        return new Histogram(SIGNIFICANT_DIGITS);
+    }
+
+    public static byte[] encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        byte[] bytes = new byte[length];
+        buffer.flip();
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    public static Histogram decode(byte[] bytes) {
+        try {
+            // Copied into a resizable histogram: the decoded one keeps the range it was saved with
+            Histogram histogram = newHistogram();
+            histogram.add(Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(bytes), 0));
+            return histogram;
+        } catch (DataFormatException e) {
+            throw new RuntimeException("Invalid processing-time histogram", e);
+        }
+    }
+}
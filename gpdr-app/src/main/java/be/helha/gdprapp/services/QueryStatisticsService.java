@@ -0,0 +1,238 @@
+package be.helha.gdprapp.services;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Execution statistics per normalized SQL statement, fed by the datasource proxy.
+ * Also counts the statements of the current HTTP request so N+1 patterns can be reported,
+ * and logs slow statements with a sample of their bind parameters.
+ */
+@Service
+public class QueryStatisticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryStatisticsService.class);
+
+    // Statements beyond max-tracked-statements are aggregated under this key
+    public static final String OTHER_STATEMENTS = "<other>";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_PARAMETER_LENGTH = 64;
+
+    private static final ThreadLocal<int[]> REQUEST_QUERY_COUNT = new ThreadLocal<>();
+
+    @Value("${app.sql.slow-query-ms:500}")
+    private long slowQueryMs;
+
+    @Value("${app.sql.slow-query-param-sample-rate:10}")
+    private int paramSampleRate;
+
+    @Value("${app.sql.max-tracked-statements:500}")
+    private int maxTrackedStatements;
+
+    // Percentiles are kept in a private registry: one timer per statement would explode the exported metrics
+    private final SimpleMeterRegistry percentileRegistry = new SimpleMeterRegistry();
+    private final Map<String, QueryStats> statements = new ConcurrentHashMap<>();
+
+    /**
+     * Record one executed statement
+     * @param sql SQL as sent to the driver
+     * @param elapsedMs Execution time in milliseconds
+     * @param parameters Bind parameters of the first parameter set, may be empty
+     */
+    public void record(String sql, long elapsedMs, List<Object> parameters) {
+        int[] requestCount = REQUEST_QUERY_COUNT.get();
+        if (requestCount != null) {
+            requestCount[0]++;
+        }
+
+        String normalized = normalize(sql);
+        QueryStats stats = statements.get(normalized);
+        if (stats == null) {
+            String key = statements.size() < maxTrackedStatements ? normalized : OTHER_STATEMENTS;
+            stats = statements.computeIfAbsent(key, this::newStats);
+        }
+        stats.record(elapsedMs);
+
+        if (elapsedMs >= slowQueryMs) {
+            long slowCount = stats.slowCount.incrementAndGet();
+            if (paramSampleRate > 0 && slowCount % paramSampleRate == 1 % paramSampleRate) {
+                log.warn("Slow SQL ({} ms): {} - parameters {}", elapsedMs, normalized, describe(parameters));
+            } else {
+                log.warn("Slow SQL ({} ms): {}", elapsedMs, normalized);
+            }
+        }
+    }
+
+    /**
+     * Start counting the statements of the current request
+     */
+    public void startRequest() {
+        REQUEST_QUERY_COUNT.set(new int[1]);
+    }
+
+    /**
+     * Stop counting the statements of the current request
+     * @return Number of statements executed since startRequest
+     */
+    public int endRequest() {
+        int[] count = REQUEST_QUERY_COUNT.get();
+        REQUEST_QUERY_COUNT.remove();
+        return count != null ? count[0] : 0;
+    }
+
+    /**
+     * Get the statements with the highest total execution time
+     * @param limit Maximum number of statements
+     * @return Statements sorted by total time, highest first
+     */
+    public List<QueryStatistics> getTopQueries(int limit) {
+        return statements.entrySet().stream()
+                .map(entry -> entry.getValue().toStatistics(entry.getKey()))
+                .sorted(Comparator.comparingLong(QueryStatistics::getTotalTimeMs).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Forget every recorded statement
+     */
+    public void reset() {
+        statements.clear();
+        percentileRegistry.clear();
+    }
+
+    /**
+     * Replace literals by '?' and collapse IN lists and whitespace, so executions of the
+     * same statement with different values are aggregated together
+     * @param sql SQL statement
+     * @return Normalized SQL
+     */
+    public static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        return IN_LIST.matcher(normalized).replaceAll("in (?...)");
+    }
+
+    private QueryStats newStats(String sql) {
+        Timer timer = Timer.builder("sql.statement")
+                .tag("statement", Integer.toHexString(sql.hashCode()))
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(percentileRegistry);
+        return new QueryStats(timer);
+    }
+
+    // Parameters may hold personal data: only a truncated sample is logged
+    private static String describe(List<Object> parameters) {
+        List<String> values = new ArrayList<>(parameters.size());
+        for (Object parameter : parameters) {
+            String value = String.valueOf(parameter);
+            values.add(value.length() > MAX_PARAMETER_LENGTH ? value.substring(0, MAX_PARAMETER_LENGTH) + "..." : value);
+        }
+        return values.toString();
+    }
+
+    // Running totals of one normalized statement
+    private static class QueryStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalTimeMs = new LongAdder();
+        private final LongAccumulator maxTimeMs = new LongAccumulator(Long::max, 0);
+        private final AtomicLong slowCount = new AtomicLong();
+        private final Timer timer;
+
+        private QueryStats(Timer timer) {
+            this.timer = timer;
+        }
+
+        private void record(long elapsedMs) {
+            count.increment();
+            totalTimeMs.add(elapsedMs);
+            maxTimeMs.accumulate(elapsedMs);
+            timer.record(elapsedMs, TimeUnit.MILLISECONDS);
+        }
+
+        private QueryStatistics toStatistics(String sql) {
+            QueryStatistics stats = new QueryStatistics();
+            stats.setSql(sql);
+            stats.setCount(count.sum());
+            stats.setTotalTimeMs(totalTimeMs.sum());
+            stats.setMeanTimeMs(stats.getCount() == 0 ? 0.0 : (double) stats.getTotalTimeMs() / stats.getCount());
+            stats.setMaxTimeMs(maxTimeMs.get());
+            stats.setSlowCount(slowCount.get());
+            for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+                double value = percentile.value(TimeUnit.MILLISECONDS);
+                if (percentile.percentile() == 0.5) {
+                    stats.setP50Ms(value);
+                } else if (percentile.percentile() == 0.95) {
+                    stats.setP95Ms(value);
+                } else if (percentile.percentile() == 0.99) {
+                    stats.setP99Ms(value);
+                }
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * Inner class for the statistics of one normalized statement
+     */
+    public static class QueryStatistics {
+        private String sql;
+        private long count;
+        private long totalTimeMs;
+        private double meanTimeMs;
+        private long maxTimeMs;
+        private long slowCount;
+        private double p50Ms;
+        private double p95Ms;
+        private double p99Ms;
+
+        public String getSql() { return sql; }
+        public void setSql(String sql) { this.sql = sql; }
+
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+
+        public long getTotalTimeMs() { return totalTimeMs; }
+        public void setTotalTimeMs(long totalTimeMs) { this.totalTimeMs = totalTimeMs; }
+
+        public double getMeanTimeMs() { return meanTimeMs; }
+        public void setMeanTimeMs(double meanTimeMs) { this.meanTimeMs = meanTimeMs; }
+
+        public long getMaxTimeMs() { return maxTimeMs; }
+        public void setMaxTimeMs(long maxTimeMs) { this.maxTimeMs = maxTimeMs; }
+
+        public long getSlowCount() { return slowCount; }
+        public void setSlowCount(long slowCount) { this.slowCount = slowCount; }
+
+        public double getP50Ms() { return p50Ms; }
+        public void setP50Ms(double p50Ms) { this.p50Ms = p50Ms; }
+
+        public double getP95Ms() { return p95Ms; }
+        public void setP95Ms(double p95Ms) { this.p95Ms = p95Ms; }
+
+        public double getP99Ms() { return p99Ms; }
+        public void setP99Ms(double p99Ms) { this.p99Ms = p99Ms; }
+    }
+}
@@ -0,0 +1,180 @@
+package be.helha.gdprapp.services;
+
+import be.helha.gdprapp.models.Company;
+import be.helha.gdprapp.models.Role;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Second-level cache of the reference tables (roles and companies).
+ * Hibernate keeps the READ_WRITE regions consistent for writes it performs itself;
+ * the services call the evict methods after their writes so query results and
+ * anything changed outside of Hibernate are dropped as well.
+ */
+@Service
+public class ReferenceDataCacheService {
+
+    public static final String ROLES_REGION = "roles";
+    public static final String COMPANIES_REGION = "companies";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Evict a role and the cached query results once the current transaction commits
+     * @param roleId Role ID, or null to evict every role
+     */
+    public void evictRole(Integer roleId) {
+        afterCommit(() -> evict(Role.class, roleId));
+    }
+
+    /**
+     * Evict a company and the cached query results once the current transaction commits
+     * @param companyId Company ID, or null to evict every company
+     */
+    public void evictCompany(Integer companyId) {
+        afterCommit(() -> evict(Company.class, companyId));
+    }
+
+    /**
+     * Clear every reference data region and the query cache
+     */
+    public void evictAll() {
+        org.hibernate.Cache cache = getSessionFactory().getCache();
+        cache.evictEntityData(Role.class);
+        cache.evictEntityData(Company.class);
+        cache.evictDefaultQueryRegion();
+    }
+
+    /**
+     * Get hit/miss/put counters of the reference data regions and of the query cache
+     * @return CacheStatistics object
+     */
+    public CacheStatistics getCacheStatistics() {
+        Statistics statistics = getSessionFactory().getStatistics();
+
+        CacheStatistics stats = new CacheStatistics();
+        stats.setStatisticsEnabled(statistics.isStatisticsEnabled());
+        stats.addRegion(ROLES_REGION, getRegionStatistics(statistics, ROLES_REGION));
+        stats.addRegion(COMPANIES_REGION, getRegionStatistics(statistics, COMPANIES_REGION));
+        stats.setQueryCacheHitCount(statistics.getQueryCacheHitCount());
+        stats.setQueryCacheMissCount(statistics.getQueryCacheMissCount());
+        stats.setQueryCacheHitRatio(ratio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+        return stats;
+    }
+
+    private void evict(Class<?> entityClass, Integer id) {
+        org.hibernate.Cache cache = getSessionFactory().getCache();
+        if (id != null) {
+            cache.evictEntityData(entityClass, id);
+        } else {
+            cache.evictEntityData(entityClass);
+        }
+        cache.evictDefaultQueryRegion();
+    }
+
+    // Evicting before commit would let a concurrent reader put the old state back
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Null when the second-level cache is disabled and the region does not exist
+    private CacheRegionStatistics getRegionStatistics(Statistics statistics, String region) {
+        try {
+            return statistics.getDomainDataRegionStatistics(region);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private SessionFactory getSessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    private static double ratio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Inner class for cache statistics
+     */
+    public static class CacheStatistics {
+        private boolean statisticsEnabled;
+        private Map<String, RegionStatistics> regions = new LinkedHashMap<>();
+        private long queryCacheHitCount;
+        private long queryCacheMissCount;
+        private double queryCacheHitRatio;
+
+        public boolean isStatisticsEnabled() { return statisticsEnabled; }
+        public void setStatisticsEnabled(boolean statisticsEnabled) { this.statisticsEnabled = statisticsEnabled; }
+
+        public Map<String, RegionStatistics> getRegions() { return regions; }
+        public void setRegions(Map<String, RegionStatistics> regions) { this.regions = regions; }
+
+        public long getQueryCacheHitCount() { return queryCacheHitCount; }
+        public void setQueryCacheHitCount(long queryCacheHitCount) { this.queryCacheHitCount = queryCacheHitCount; }
+
+        public long getQueryCacheMissCount() { return queryCacheMissCount; }
+        public void setQueryCacheMissCount(long queryCacheMissCount) { this.queryCacheMissCount = queryCacheMissCount; }
+
+        public double getQueryCacheHitRatio() { return queryCacheHitRatio; }
+        public void setQueryCacheHitRatio(double queryCacheHitRatio) { this.queryCacheHitRatio = queryCacheHitRatio; }
+
+        public void addRegion(String name, CacheRegionStatistics regionStatistics) {
+            RegionStatistics region = new RegionStatistics();
+            if (regionStatistics != null) {
+                region.setHitCount(regionStatistics.getHitCount());
+                region.setMissCount(regionStatistics.getMissCount());
+                region.setPutCount(regionStatistics.getPutCount());
+                region.setElementCountInMemory(regionStatistics.getElementCountInMemory());
+                region.setHitRatio(ratio(regionStatistics.getHitCount(), regionStatistics.getMissCount()));
+            }
+            this.regions.put(name, region);
+        }
+    }
+
+    /**
+     * Inner class for the counters of one cache region
+     */
+    public static class RegionStatistics {
+        private long hitCount;
+        private long missCount;
+        private long putCount;
+        private long elementCountInMemory;
+        private double hitRatio;
+
+        public long getHitCount() { return hitCount; }
+        public void setHitCount(long hitCount) { this.hitCount = hitCount; }
+
+        public long getMissCount() { return missCount; }
+        public void setMissCount(long missCount) { this.missCount = missCount; }
+
+        public long getPutCount() { return putCount; }
+        public void setPutCount(long putCount) { this.putCount = putCount; }
+
+        public long getElementCountInMemory() { return elementCountInMemory; }
+        public void setElementCountInMemory(long elementCountInMemory) { this.elementCountInMemory = elementCountInMemory; }
+
+        public double getHitRatio() { return hitRatio; }
+        public void setHitRatio(double hitRatio) { this.hitRatio = hitRatio; }
+    }
+}
@@ -0,0 +1,98 @@
+package be.helha.gdprapp.services;
+
+import be.helha.gdprapp.configuration.ConnectionPool;
+import be.helha.gdprapp.configuration.UsePool;
+import be.helha.gdprapp.models.GDPRRequest;
+import be.helha.gdprapp.models.User;
+import be.helha.gdprapp.repositories.GDPRRequestRepository;
+import be.helha.gdprapp.repositories.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Database side of the GDPR deadline tracker: loads the pending requests to schedule
+ * and sends the deadline notices. Runs on the batch pool, away from API requests.
+ */
+@Service
+@UsePool(ConnectionPool.BATCH)
+public class RequestDeadlineService {
+
+    // reminder_level of a request that must not get any deadline notice
+    public static final int NOTICES_DONE = 100;
+
+    @Autowired
+    private GDPRRequestRepository gdprRequestRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EmailService emailService;
+
+    /**
+     * Give a due date to the requests created before deadlines were tracked
+     * @return Number of requests updated
+     */
+    @Transactional
+    public int backfillDueDates() {
+        return gdprRequestRepository.backfillDueDates();
+    }
+
+    /**
+     * Find the pending requests with notices left that are due up to a date
+     * @param from Exclusive lower bound of the due date, null for no bound (overdue requests included)
+     * @param until Inclusive upper bound of the due date
+     * @param levels Number of notices per request
+     * @return Pending deadlines
+     */
+    @Transactional(readOnly = true)
+    public List<GDPRRequestRepository.PendingDeadline> findPendingDeadlines(LocalDateTime from, LocalDateTime until, int levels) {
+        if (from == null) {
+            return gdprRequestRepository.findPendingDeadlines(until, levels);
+        }
+        return gdprRequestRepository.findPendingDeadlinesBetween(from, until, levels);
+    }
+
+    /**
+     * Send a deadline notice, unless the request was processed or the notice already sent
+     * @param requestId Request ID
+     * @param currentLevel Notices already sent
+     * @param noticeLevel Level of this notice (later reminders that are already late replace earlier ones)
+     * @param daysLeft Days before the due date for a reminder, null for the escalation
+     * @return true if the notice was sent
+     */
+    @Transactional
+    public boolean sendNotice(Integer requestId, int currentLevel, int noticeLevel, Integer daysLeft) {
+        // Claim the notice first: another instance or a status change wins the race
+        if (gdprRequestRepository.advanceReminderLevel(requestId, currentLevel, noticeLevel + 1) == 0) {
+            return false;
+        }
+
+        GDPRRequest request = gdprRequestRepository.findWithPartiesByIdRequest(requestId).orElse(null);
+        if (request == null) {
+            return false;
+        }
+
+        if (daysLeft != null) {
+            emailService.sendGDPRDeadlineReminder(request.getCompany(), request, daysLeft);
+            return true;
+        }
+
+        List<User> managers = userRepository.findManagersByCompanyId(request.getCompany().getIdCompany());
+        if (managers.isEmpty()) {
+            // No GERANT to escalate to: the company address is the only contact
+            emailService.sendGDPRDeadlineEscalation(request.getCompany(), request,
+                    request.getCompany().getEmail(), request.getCompany().getCompanyName());
+            return true;
+        }
+        for (User manager : managers) {
+            emailService.sendGDPRDeadlineEscalation(request.getCompany(), request,
+                    manager.getEmail(), manager.getFirstname() + " " + manager.getLastname());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,95 @@
+package be.helha.gdprapp.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Daily creation of the gdpr_requests partitions for the months to come, so new requests never
+ * land in the default partition (a month cannot get its partition once the default one holds
+ * rows of that month). Partitions past the retention window are archived by GDPRRequestArchiver.
+ */
+@Component
+public class RequestPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestPartitionMaintenance.class);
+
+    @Autowired
+    private RequestPartitionService requestPartitionService;
+
+    @Value("${app.partitions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    private volatile LocalDateTime lastRunAt;
+
+    @Scheduled(cron = "${app.partitions.cron:0 15 3 * * *}")
+    public void scheduledRun() {
+        if (enabled) {
+            createAhead();
+        }
+    }
+
+    /**
+     * Create the partitions of the current month and the next months-ahead months
+     * @return Number of partitions created
+     */
+    public int createAhead() {
+        try {
+            YearMonth now = YearMonth.now();
+            int created = requestPartitionService.createPartitions(now, now.plusMonths(monthsAhead));
+            if (created > 0) {
+                log.info("Created {} gdpr_requests partitions up to {}", created, now.plusMonths(monthsAhead));
+            }
+            lastRunAt = LocalDateTime.now();
+            return created;
+        } catch (Exception e) {
+            // Retried on the next run, months-ahead leaves time for it
+            log.warn("Could not create gdpr_requests partitions: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Get the state of the partitions
+     * @return Partition status
+     */
+    public PartitionStatus getStatus() {
+        PartitionStatus status = new PartitionStatus();
+        status.setPartitioned(requestPartitionService.isPartitioned());
+        status.setMonthsAhead(monthsAhead);
+        status.setLastRunAt(lastRunAt);
+        status.setPartitions(requestPartitionService.listPartitions());
+        return status;
+    }
+
+    // Inner class for the partition status
+    public static class PartitionStatus {
+        private boolean partitioned;
+        private int monthsAhead;
+        private LocalDateTime lastRunAt;
+        private List<RequestPartitionService.PartitionInfo> partitions;
+
+        // Getters and setters
+        public boolean isPartitioned() { return partitioned; }
+        public void setPartitioned(boolean partitioned) { this.partitioned = partitioned; }
+
+        public int getMonthsAhead() { return monthsAhead; }
+        public void setMonthsAhead(int monthsAhead) { this.monthsAhead = monthsAhead; }
+
+        public LocalDateTime getLastRunAt() { return lastRunAt; }
+        public void setLastRunAt(LocalDateTime lastRunAt) { this.lastRunAt = lastRunAt; }
+
+        public List<RequestPartitionService.PartitionInfo> getPartitions() { return partitions; }
+        public void setPartitions(List<RequestPartitionService.PartitionInfo> partitions) { this.partitions = partitions; }
+    }
+}
@@ -0,0 +1,229 @@
+package be.helha.gdprapp.services;
+
+import be.helha.gdprapp.configuration.ConnectionPool;
+import be.helha.gdprapp.configuration.UsePool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Monthly partitions of gdpr_requests (PostgreSQL declarative partitioning on request_date).
+ * Partition gdpr_requests_YYYY_MM holds the requests made in that month; rows outside every
+ * month go to gdpr_requests_default. Queries with a request_date range only read the months
+ * in the range, and a month past the retention window is archived and dropped as a whole
+ * instead of being deleted row by row.
+ * Every method is a no-op on databases where gdpr_requests is not partitioned (H2, tests).
+ */
+@Service
+@UsePool(ConnectionPool.BATCH)
+public class RequestPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestPartitionService.class);
+
+    public static final String TABLE = "gdpr_requests";
+    public static final String DEFAULT_PARTITION = TABLE + "_default";
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern MONTH_PARTITION = Pattern.compile(TABLE + "_(\\d{4})_(\\d{2})");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Check if gdpr_requests is a partitioned table
+     * @return true on PostgreSQL once the table was migrated
+     */
+    public boolean isPartitioned() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(database)) {
+            return false;
+        }
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM pg_class " +
+                "WHERE relname = ? AND relkind = 'p' AND pg_table_is_visible(oid))", Boolean.class, TABLE));
+    }
+
+    /**
+     * Create the monthly partitions missing in a range of months
+     * @param from First month
+     * @param to Last month (included)
+     * @return Number of partitions created
+     */
+    public int createPartitions(YearMonth from, YearMonth to) {
+        if (!isPartitioned()) {
+            return 0;
+        }
+
+        int created = 0;
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            try {
+                if (createPartition(month)) {
+                    created++;
+                }
+            } catch (Exception e) {
+                // Usually rows of that month already in the default partition: they stay there
+                log.warn("Could not create partition {}: {}", partitionName(month), e.getMessage());
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Create the partition of a month if it does not exist
+     * @param month Month of the partition
+     * @return true if the partition was created
+     */
+    public boolean createPartition(YearMonth month) {
+        String name = partitionName(month);
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name);
+        if (Boolean.TRUE.equals(exists)) {
+            return false;
+        }
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF " + TABLE +
+                " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        return true;
+    }
+
+    /**
+     * List the partitions of gdpr_requests
+     * @return Partitions ordered by month, the default partition last; empty if the table is not partitioned
+     */
+    public List<PartitionInfo> listPartitions() {
+        if (!isPartitioned()) {
+            return List.of();
+        }
+
+        // reltuples is the planner estimate: no scan of the partitions
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT c.relname AS name, c.reltuples AS rows, " +
+                "pg_total_relation_size(c.oid) AS bytes FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = ? AND pg_table_is_visible(p.oid) ORDER BY c.relname", TABLE);
+
+        List<PartitionInfo> partitions = new ArrayList<>(rows.size());
+        PartitionInfo defaultPartition = null;
+        for (Map<String, Object> row : rows) {
+            PartitionInfo partition = new PartitionInfo();
+            partition.setName((String) row.get("name"));
+            YearMonth month = monthOf(partition.getName());
+            if (month != null) {
+                partition.setFrom(month.atDay(1).atStartOfDay());
+                partition.setTo(month.plusMonths(1).atDay(1).atStartOfDay());
+            }
+            // -1 until the partition was first analyzed
+            partition.setEstimatedRows(Math.max(0, ((Number) row.get("rows")).longValue()));
+            partition.setSizeBytes(((Number) row.get("bytes")).longValue());
+            if (month == null) {
+                defaultPartition = partition;
+            } else {
+                partitions.add(partition);
+            }
+        }
+        if (defaultPartition != null) {
+            partitions.add(defaultPartition);
+        }
+        return partitions;
+    }
+
+    /**
+     * Find the monthly partitions that hold only requests made before a date
+     * @param cutoff Retention cutoff
+     * @return Partition names, oldest first
+     */
+    public List<String> findPartitionsBefore(LocalDateTime cutoff) {
+        return listPartitions().stream()
+                .filter(partition -> partition.getTo() != null && !partition.getTo().isAfter(cutoff))
+                .map(PartitionInfo::getName)
+                .toList();
+    }
+
+    /**
+     * Move a whole month to the archive and drop its partition, if every request in it can be archived
+     * (processed before the cutoff). Writes to the month are blocked while it is checked and copied,
+     * and the drop gives up instead of queueing behind long queries on gdpr_requests.
+     * @param partition Partition name, from findPartitionsBefore()
+     * @param cutoff Retention cutoff
+     * @return Number of requests archived, -1 if the month still has requests to keep
+     */
+    @Transactional
+    public long archivePartition(String partition, LocalDateTime cutoff) {
+        if (monthOf(partition) == null) {
+            throw new IllegalArgumentException("Not a monthly partition: " + partition);
+        }
+
+        jdbcTemplate.execute("SET LOCAL lock_timeout = '5s'");
+        jdbcTemplate.execute("LOCK TABLE " + partition + " IN EXCLUSIVE MODE");
+        Long kept = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + partition + " WHERE status <> 'PROCESSED' " +
+                "OR processed_date >= ?", Long.class, cutoff);
+        if (kept != null && kept > 0) {
+            return -1;
+        }
+
+        int archived = jdbcTemplate.update("INSERT INTO gdpr_requests_archive (id_request, request_type, status, request_date, " +
+                "request_content, due_date, processed_date, id_user, id_company, archived_at) " +
+                "SELECT id_request, request_type, status, request_date, request_content, due_date, processed_date, id_user, id_company, ? " +
+                "FROM " + partition, LocalDateTime.now());
+        jdbcTemplate.execute("DROP TABLE " + partition);
+        return archived;
+    }
+
+    /**
+     * Name of the partition of a month
+     * @param month Month
+     * @return gdpr_requests_YYYY_MM
+     */
+    public static String partitionName(YearMonth month) {
+        return TABLE + "_" + month.format(SUFFIX);
+    }
+
+    /**
+     * Month held by a partition
+     * @param partition Partition name
+     * @return Month, null for the default partition or an unknown name
+     */
+    public static YearMonth monthOf(String partition) {
+        Matcher matcher = MONTH_PARTITION.matcher(partition);
+        if (!matcher.matches()) {
+            return null;
+        }
+        int month = Integer.parseInt(matcher.group(2));
+        return month >= 1 && month <= 12 ? YearMonth.of(Integer.parseInt(matcher.group(1)), month) : null;
+    }
+
+    // Inner class for a partition
+    public static class PartitionInfo {
+        private String name;
+        private LocalDateTime from;
+        private LocalDateTime to;
+        private long estimatedRows;
+        private long sizeBytes;
+
+        // Getters and setters
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public LocalDateTime getFrom() { return from; }
+        public void setFrom(LocalDateTime from) { this.from = from; }
+
+        public LocalDateTime getTo() { return to; }
+        public void setTo(LocalDateTime to) { this.to = to; }
+
+        public long getEstimatedRows() { return estimatedRows; }
+        public void setEstimatedRows(long estimatedRows) { this.estimatedRows = estimatedRows; }
+
+        public long getSizeBytes() { return sizeBytes; }
+        public void setSizeBytes(long sizeBytes) { this.sizeBytes = sizeBytes; }
+    }
+}
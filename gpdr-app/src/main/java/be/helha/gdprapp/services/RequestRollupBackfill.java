@@ -0,0 +1,151 @@
+package be.helha.gdprapp.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the daily rollups from gdpr_requests, chunk-days at a time with one transaction per chunk,
+ * so no transaction holds more than a chunk of rows. A chunk replaces its rollup rows, so a rebuild
+ * can be run again to repair the counts. At startup, rollups are built in the background when
+ * requests exist but no rollup row does (first start after the upgrade).
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class RequestRollupBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(RequestRollupBackfill.class);
+
+    @Autowired
+    private RequestRollupService requestRollupService;
+
+    @Value("${app.rollups.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    @Value("${app.rollups.chunk-days:31}")
+    private int chunkDays;
+
+    private Thread backfillThread;
+    private volatile boolean running;
+    private volatile LocalDate rebuiltUntil;
+    private volatile long rowsWritten;
+
+    @PostConstruct
+    public void start() {
+        if (!backfillOnStartup) {
+            return;
+        }
+
+        startThread(() -> {
+            LocalDate first = requestRollupService.findFirstRequestDay();
+            if (first != null && requestRollupService.isEmpty()) {
+                rebuild(first, LocalDate.now());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (backfillThread == null) {
+            return;
+        }
+
+        // Stops after the current chunk; the next rebuild starts over
+        running = false;
+        backfillThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Start a rebuild in the background
+     * @param from First day
+     * @param to Last day
+     * @return false if a rebuild is already running
+     */
+    public boolean rebuildInBackground(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new RuntimeException("Invalid date range");
+        }
+        if (running) {
+            return false;
+        }
+        startThread(() -> rebuild(from, to));
+        return true;
+    }
+
+    /**
+     * Rebuild the rollups of a range of days, one chunk at a time (one rebuild at a time)
+     * @param from First day
+     * @param to Last day
+     * @return Number of rollup rows written
+     */
+    public synchronized long rebuild(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new RuntimeException("Invalid date range");
+        }
+
+        running = true;
+        rowsWritten = 0;
+        long start = System.currentTimeMillis();
+        try {
+            for (LocalDate chunk = from; !chunk.isAfter(to) && running; chunk = chunk.plusDays(chunkDays)) {
+                LocalDate until = chunk.plusDays(chunkDays).isAfter(to) ? to.plusDays(1) : chunk.plusDays(chunkDays);
+                rowsWritten += requestRollupService.rebuildDays(chunk, until);
+                rebuiltUntil = until.minusDays(1);
+            }
+        } finally {
+            running = false;
+        }
+        log.info("Rebuilt request rollups from {} to {} ({} rows) in {} ms", from, to, rowsWritten,
+                System.currentTimeMillis() - start);
+        return rowsWritten;
+    }
+
+    /**
+     * Get the progress of the current or last rebuild
+     * @return Backfill status
+     */
+    public BackfillStatus getStatus() {
+        BackfillStatus status = new BackfillStatus();
+        status.setRunning(running);
+        status.setRebuiltUntil(rebuiltUntil);
+        status.setRowsWritten(rowsWritten);
+        return status;
+    }
+
+    private void startThread(Runnable job) {
+        backfillThread = new Thread(() -> {
+            try {
+                job.run();
+            } catch (Exception e) {
+                log.warn("Rollup rebuild failed: {}", e.getMessage());
+            }
+        }, "rollup-backfill");
+        backfillThread.setDaemon(true);
+        backfillThread.start();
+    }
+
+    // Inner class for the backfill status
+    public static class BackfillStatus {
+        private boolean running;
+        private LocalDate rebuiltUntil;
+        private long rowsWritten;
+
+        // Getters and setters
+        public boolean isRunning() { return running; }
+        public void setRunning(boolean running) { this.running = running; }
+
+        public LocalDate getRebuiltUntil() { return rebuiltUntil; }
+        public void setRebuiltUntil(LocalDate rebuiltUntil) { this.rebuiltUntil = rebuiltUntil; }
+
+        public long getRowsWritten() { return rowsWritten; }
+        public void setRowsWritten(long rowsWritten) { this.rowsWritten = rowsWritten; }
+    }
+}
@@ -0,0 +1,194 @@
+package be.helha.gdprapp.services;
+
+import be.helha.gdprapp.configuration.ConnectionPool;
+import be.helha.gdprapp.configuration.UsePool;
+import be.helha.gdprapp.models.GDPRRequest;
+import be.helha.gdprapp.models.RequestDailyRollupId;
+import be.helha.gdprapp.repositories.ArchivedGDPRRequestRepository;
+import be.helha.gdprapp.repositories.GDPRRequestRepository;
+import be.helha.gdprapp.repositories.RequestDailyRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Daily request counts by company, type and status (request_daily_rollups).
+ * The write paths apply their changes in their own transaction, so the counts commit with the
+ * requests; rows are always updated in key order so two transactions never deadlock.
+ * Charts read the rollup rows only: one row per day and key instead of one per request.
+ */
+@Service
+public class RequestRollupService {
+
+    // Longest time series served (10 years of days)
+    public static final int MAX_TIMESERIES_DAYS = 3660;
+
+    private static final Comparator<RequestDailyRollupId> KEY_ORDER = Comparator
+            .comparing(RequestDailyRollupId::getRollupDay)
+            .thenComparing(RequestDailyRollupId::getIdCompany)
+            .thenComparing(RequestDailyRollupId::getRequestType)
+            .thenComparing(RequestDailyRollupId::getStatus);
+
+    @Autowired
+    private RequestDailyRollupRepository requestDailyRollupRepository;
+
+    @Autowired
+    private GDPRRequestRepository gdprRequestRepository;
+
+    @Autowired
+    private ArchivedGDPRRequestRepository archivedGDPRRequestRepository;
+
+    /**
+     * Count new requests
+     * @param requests Requests inserted in the current transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCreated(List<GDPRRequest> requests) {
+        Map<RequestDailyRollupId, Long> deltas = new HashMap<>();
+        for (GDPRRequest request : requests) {
+            deltas.merge(keyOf(request, request.getStatus()), 1L, Long::sum);
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Move a request to the count of its new status
+     * @param request Updated request
+     * @param oldStatus Status before the update
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordStatusChange(GDPRRequest request, String oldStatus) {
+        if (request.getStatus().equals(oldStatus)) {
+            return;
+        }
+        Map<RequestDailyRollupId, Long> deltas = new HashMap<>();
+        deltas.put(keyOf(request, oldStatus), -1L);
+        deltas.put(keyOf(request, request.getStatus()), 1L);
+        apply(deltas);
+    }
+
+    /**
+     * Remove a deleted request from the counts
+     * @param request Request deleted in the current transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeleted(GDPRRequest request) {
+        apply(Map.of(keyOf(request, request.getStatus()), -1L));
+    }
+
+    /**
+     * Count again the requests of a range of days, replacing their rollup rows
+     * @param from First day
+     * @param until Day after the last one
+     * @return Number of rollup rows written
+     */
+    @Transactional
+    @UsePool(ConnectionPool.BATCH)
+    public int rebuildDays(LocalDate from, LocalDate until) {
+        requestDailyRollupRepository.deleteDays(from, until);
+        return requestDailyRollupRepository.insertDays(from.atStartOfDay(), until.atStartOfDay());
+    }
+
+    /**
+     * Get the day of the oldest request, live or archived
+     * @return Day of the oldest request, null if there is none
+     */
+    @Transactional(readOnly = true)
+    @UsePool(ConnectionPool.BATCH)
+    public LocalDate findFirstRequestDay() {
+        LocalDateTime first = gdprRequestRepository.findFirstRequestDate();
+        LocalDateTime firstArchived = archivedGDPRRequestRepository.findFirstRequestDate();
+        if (first == null || (firstArchived != null && firstArchived.isBefore(first))) {
+            first = firstArchived;
+        }
+        return first == null ? null : first.toLocalDate();
+    }
+
+    /**
+     * Check if the rollups were never built
+     * @return true if there is no rollup row
+     */
+    @Transactional(readOnly = true)
+    @UsePool(ConnectionPool.BATCH)
+    public boolean isEmpty() {
+        return requestDailyRollupRepository.count() == 0;
+    }
+
+    /**
+     * Get the number of requests per day, every day of the range included
+     * @param from First day
+     * @param to Last day
+     * @param companyId Company ID, null for every company
+     * @param requestType Request type, null for every type
+     * @param status Status, null for every status
+     * @return One point per day
+     */
+    @Transactional(readOnly = true)
+    @UsePool(ConnectionPool.REPORTING)
+    public List<TimeseriesPoint> getTimeseries(LocalDate from, LocalDate to, Integer companyId, String requestType, String status) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new RuntimeException("Invalid date range");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_TIMESERIES_DAYS) {
+            throw new RuntimeException("Date range cannot exceed " + MAX_TIMESERIES_DAYS + " days");
+        }
+
+        Map<LocalDate, Long> counts = new HashMap<>();
+        for (RequestDailyRollupRepository.DailyCount count :
+                requestDailyRollupRepository.findDailyCounts(from, to, companyId, requestType, status)) {
+            counts.put(count.getDay(), count.getRequestCount());
+        }
+
+        // Days without requests have no row
+        List<TimeseriesPoint> points = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            points.add(new TimeseriesPoint(day, counts.getOrDefault(day, 0L)));
+        }
+        return points;
+    }
+
+    private void apply(Map<RequestDailyRollupId, Long> deltas) {
+        List<RequestDailyRollupId> keys = new ArrayList<>(deltas.keySet());
+        keys.sort(KEY_ORDER);
+        for (RequestDailyRollupId key : keys) {
+            long delta = deltas.get(key);
+            if (delta > 0) {
+                requestDailyRollupRepository.insertIfMissing(key.getRollupDay(), key.getIdCompany(), key.getRequestType(), key.getStatus());
+            }
+            requestDailyRollupRepository.addToCount(key.getRollupDay(), key.getIdCompany(), key.getRequestType(), key.getStatus(), delta);
+        }
+    }
+
+    private static RequestDailyRollupId keyOf(GDPRRequest request, String status) {
+        return new RequestDailyRollupId(request.getRequestDate().toLocalDate(), request.getCompany().getIdCompany(),
+                request.getRequestType(), status);
+    }
+
+    // Inner class for a point of the time series
+    public static class TimeseriesPoint {
+        private LocalDate day;
+        private long requestCount;
+
+        public TimeseriesPoint(LocalDate day, long requestCount) {
+            this.day = day;
+            this.requestCount = requestCount;
+        }
+
+        // Getters and setters
+        public LocalDate getDay() { return day; }
+        public void setDay(LocalDate day) { this.day = day; }
+
+        public long getRequestCount() { return requestCount; }
+        public void setRequestCount(long requestCount) { this.requestCount = requestCount; }
+    }
+}
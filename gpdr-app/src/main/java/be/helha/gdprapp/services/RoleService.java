@@ -18,6 +18,9 @@ public class RoleService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ReferenceDataCacheService referenceDataCacheService;
+
     // Get all roles
     public List<Role> getAllRoles() {
         return roleRepository.findAll();
@@ -53,7 +56,9 @@ public class RoleService {
             throw new RuntimeException("Role with name '" + role.getRole() + "' already exists");
         }
 
-        return roleRepository.save(role);
+        Role savedRole = roleRepository.save(role);
+        referenceDataCacheService.evictRole(savedRole.getIdRole());
+        return savedRole;
     }
 
     // Update role
@@ -73,7 +78,9 @@ public class RoleService {
             role.setRole(newRoleName);
         }
 
-        return roleRepository.save(role);
+        Role savedRole = roleRepository.save(role);
+        referenceDataCacheService.evictRole(id);
+        return savedRole;
     }
 
     // Delete role
@@ -92,6 +99,7 @@ public class RoleService {
         }
 
         roleRepository.deleteById(id);
+        referenceDataCacheService.evictRole(id);
     }
 
     // Check if role has associated users
@@ -0,0 +1,138 @@
+package be.helha.gdprapp.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker around SMTP delivery.
+ * After failure-threshold consecutive failures the circuit opens and sends fail immediately
+ * for open-duration-ms instead of waiting on the SMTP timeouts. Then one probe is let through
+ * (half-open): its success closes the circuit, its failure opens it again.
+ */
+@Service
+public class SmtpCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(SmtpCircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.mail.circuit-breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${app.mail.circuit-breaker.open-duration-ms:30000}")
+    private long openDurationMs;
+
+    // Replaced in tests
+    private LongSupplier nanoTime = System::nanoTime;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+    private String lastError;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("gdpr.mail.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("SMTP circuit state (0 closed, 1 open, 2 half-open)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run one SMTP delivery through the breaker
+     * @param delivery The send call
+     * @throws CircuitOpenException if the circuit is open
+     */
+    public void execute(Runnable delivery) {
+        acquirePermission();
+        try {
+            delivery.run();
+        } catch (RuntimeException e) {
+            onFailure(e);
+            throw e;
+        }
+        onSuccess();
+    }
+
+    public synchronized State getState() {
+        // An expired open period is reported as half-open even before the next send
+        if (state == State.OPEN && elapsedMs() >= openDurationMs) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    public synchronized String getLastError() {
+        return lastError;
+    }
+
+    // Milliseconds before the next probe is allowed, 0 unless the circuit is open
+    public synchronized long getRemainingOpenMs() {
+        return state == State.OPEN ? Math.max(0, openDurationMs - elapsedMs()) : 0;
+    }
+
+    private synchronized void acquirePermission() {
+        if (state == State.OPEN && elapsedMs() >= openDurationMs) {
+            state = State.HALF_OPEN;
+        }
+
+        if (state == State.OPEN || (state == State.HALF_OPEN && probeInFlight)) {
+            meterRegistry.counter("gdpr.mail.circuit.rejected").increment();
+            throw new CircuitOpenException("Mail delivery suspended: SMTP server unavailable");
+        }
+        if (state == State.HALF_OPEN) {
+            probeInFlight = true;
+        }
+    }
+
+    private synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("SMTP circuit closed");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    private synchronized void onFailure(RuntimeException e) {
+        consecutiveFailures++;
+        lastError = e.getMessage();
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                log.warn("SMTP circuit opened after {} consecutive failures: {}", consecutiveFailures, e.getMessage());
+            }
+            state = State.OPEN;
+            openedAt = nanoTime.getAsLong();
+        }
+        probeInFlight = false;
+    }
+
+    private long elapsedMs() {
+        return TimeUnit.NANOSECONDS.toMillis(nanoTime.getAsLong() - openedAt);
+    }
+
+    /**
+     * Thrown instead of sending while the circuit is open
+     */
+    public static class CircuitOpenException extends RuntimeException {
+        public CircuitOpenException(String message) {
+            super(message);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import be.helha.gdprapp.models.Role;
 import be.helha.gdprapp.models.User;
 import be.helha.gdprapp.repositories.RoleRepository;
 import be.helha.gdprapp.repositories.UserRepository;
+import be.helha.gdprapp.security.CurrentUserContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -27,6 +28,9 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private CurrentUserContext currentUserContext;
+
     // Get all users
     public List<User> getAllUsers() {
         return userRepository.findAll();
@@ -235,16 +239,9 @@ public class UserService {
     }
 
     // Check if current authenticated user is the same as the user ID
+    // The user id is carried by the token, so no lookup is needed
     public boolean isCurrentUser(Integer userId) {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return false;
-        }
-
-        String currentUserEmail = authentication.getName();
-        Optional<User> user = userRepository.findById(userId);
-
-        return user.isPresent() && user.get().getEmail().equals(currentUserEmail);
+        return currentUserContext.isCurrentUser(userId);
     }
 
     // Get current authenticated user
@@ -254,14 +251,20 @@ public class UserService {
             throw new RuntimeException("No authenticated user found");
         }
 
+        // Loaded at most once per HTTP request
         String currentUserEmail = authentication.getName();
-        return userRepository.findByEmail(currentUserEmail)
+        return currentUserContext.load(User.class, currentUserEmail, () -> userRepository.findByEmail(currentUserEmail))
                 .orElseThrow(() -> new RuntimeException("Current user not found"));
     }
 
     // Check if user has specific role
     public boolean hasRole(Integer userId, String roleName) {
-        User user = userRepository.findById(userId)
+        // Role of the authenticated user comes from the token
+        if (currentUserContext.isCurrentUser(userId)) {
+            return currentUserContext.hasRole(roleName);
+        }
+
+        User user = currentUserContext.load(User.class, userId, () -> userRepository.findById(userId))
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
 
         return user.getRole().getRole().equals(roleName);
@@ -0,0 +1,211 @@
+package be.helha.gdprapp.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reports virtual threads pinned to their carrier thread (blocking inside a synchronized
+ * block or a native frame), using the JFR jdk.VirtualThreadPinned event.
+ * Only runs when virtual threads are enabled (spring.threads.virtual.enabled).
+ * Each pinning site (first frame of our code, or the top frame) gets a counter in
+ * gdpr.virtual.thread.pinned and its stack trace is logged the first time it is seen.
+ */
+@Service
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "be.helha.gdprapp.";
+    private static final int MAX_SITES = 100;
+    private static final String OTHER_SITES = "<other>";
+    private static final int LOGGED_FRAMES = 15;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${app.virtual-threads.pinning-monitor.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.virtual-threads.pinning-threshold-ms:20}")
+    private long thresholdMs;
+
+    private final Map<String, SiteStats> sites = new ConcurrentHashMap<>();
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void start() {
+        if (!virtualThreads || !enabled) {
+            return;
+        }
+
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    /**
+     * Get the pinning sites seen so far, longest total pinned time first
+     * @return PinningStatistics object
+     */
+    public PinningStatistics getPinningStatistics() {
+        PinningStatistics stats = new PinningStatistics();
+        stats.setVirtualThreads(virtualThreads);
+        stats.setMonitoring(isRunning());
+        stats.setThresholdMs(thresholdMs);
+
+        List<PinningSite> result = new ArrayList<>();
+        for (Map.Entry<String, SiteStats> entry : sites.entrySet()) {
+            PinningSite site = new PinningSite();
+            site.setSite(entry.getKey());
+            site.setCount(entry.getValue().count.sum());
+            site.setTotalTimeMs(entry.getValue().totalMs.sum());
+            site.setMaxTimeMs(entry.getValue().maxMs.get());
+            result.add(site);
+        }
+        result.sort(Comparator.comparingLong(PinningSite::getTotalTimeMs).reversed());
+        stats.setSites(result);
+        return stats;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() != null ? event.getStackTrace().getFrames() : List.of();
+        String site = site(frames);
+        SiteStats stats = sites.get(site);
+        if (stats == null) {
+            if (sites.size() >= MAX_SITES) {
+                site = OTHER_SITES;
+            }
+            SiteStats created = new SiteStats(meterRegistry, site);
+            stats = sites.putIfAbsent(site, created);
+            if (stats == null) {
+                stats = created;
+                log.warn("Virtual thread pinned for {} ms at {}:{}", event.getDuration().toMillis(), site, describe(frames));
+            }
+        }
+
+        long durationMs = event.getDuration().toMillis();
+        stats.count.increment();
+        stats.totalMs.add(durationMs);
+        stats.maxMs.accumulate(durationMs);
+        stats.timer.record(event.getDuration());
+    }
+
+    // First frame of our own code, so a driver lock is attributed to the call that reached it
+    private static String site(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            if (frame.getMethod() != null && frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE)) {
+                return frameName(frame);
+            }
+        }
+        return frames.isEmpty() ? "<unknown>" : frameName(frames.get(0));
+    }
+
+    private static String frameName(RecordedFrame frame) {
+        if (frame.getMethod() == null) {
+            return "<native>";
+        }
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+
+    private static String describe(List<RecordedFrame> frames) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < Math.min(frames.size(), LOGGED_FRAMES); i++) {
+            builder.append("\n\tat ").append(frameName(frames.get(i)));
+        }
+        return builder.toString();
+    }
+
+    // Counters of one pinning site
+    private static class SiteStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalMs = new LongAdder();
+        private final LongAccumulator maxMs = new LongAccumulator(Math::max, 0);
+        private final Timer timer;
+
+        private SiteStats(MeterRegistry meterRegistry, String site) {
+            this.timer = Timer.builder("gdpr.virtual.thread.pinned")
+                    .description("Time virtual threads stayed pinned to their carrier")
+                    .tag("site", site)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Inner class for the pinning report
+     */
+    public static class PinningStatistics {
+        private boolean virtualThreads;
+        private boolean monitoring;
+        private long thresholdMs;
+        private List<PinningSite> sites;
+
+        public boolean isVirtualThreads() { return virtualThreads; }
+        public void setVirtualThreads(boolean virtualThreads) { this.virtualThreads = virtualThreads; }
+
+        public boolean isMonitoring() { return monitoring; }
+        public void setMonitoring(boolean monitoring) { this.monitoring = monitoring; }
+
+        public long getThresholdMs() { return thresholdMs; }
+        public void setThresholdMs(long thresholdMs) { this.thresholdMs = thresholdMs; }
+
+        public List<PinningSite> getSites() { return sites; }
+        public void setSites(List<PinningSite> sites) { this.sites = sites; }
+    }
+
+    /**
+     * Inner class for one pinning site
+     */
+    public static class PinningSite {
+        private String site;
+        private long count;
+        private long totalTimeMs;
+        private long maxTimeMs;
+
+        public String getSite() { return site; }
+        public void setSite(String site) { this.site = site; }
+
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+
+        public long getTotalTimeMs() { return totalTimeMs; }
+        public void setTotalTimeMs(long totalTimeMs) { this.totalTimeMs = totalTimeMs; }
+
+        public long getMaxTimeMs() { return maxTimeMs; }
+        public void setMaxTimeMs(long maxTimeMs) { this.maxTimeMs = maxTimeMs; }
+    }
+}
@@ -0,0 +1,120 @@
+package be.helha.gdprapp.utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Hashed timer wheel: wheelSize buckets of tickMs each. A timeout goes in the bucket of its
+ * deadline tick and counts the full revolutions left before it expires, so scheduling and
+ * cancelling are O(1) and each tick only visits one bucket, however many timeouts are pending.
+ * Deadlines are rounded up to the next tick. The wheel has no thread: the owner calls expire().
+ * Not thread-safe.
+ * @param <T> Task carried by the timeouts
+ */
+public class HashedTimerWheel<T> {
+
+    private final long tickMs;
+    private final long startMs;
+    private final List<Set<Timeout<T>>> buckets;
+    // Next tick to process
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMs Duration of one tick
+     * @param wheelSize Number of buckets (one revolution is wheelSize * tickMs)
+     * @param startMs Time of tick 0
+     */
+    public HashedTimerWheel(long tickMs, int wheelSize, long startMs) {
+        if (tickMs <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+        }
+        this.tickMs = tickMs;
+        this.startMs = startMs;
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            buckets.add(new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * Schedule a task
+     * @param task Task to return from expire()
+     * @param deadlineMs Time at which it expires; a past deadline expires on the next tick
+     * @return Handle to cancel the timeout
+     */
+    public Timeout<T> schedule(T task, long deadlineMs) {
+        long deadlineTick = Math.max(currentTick, Math.ceilDiv(deadlineMs - startMs, tickMs));
+        Timeout<T> timeout = new Timeout<>(task, deadlineMs, (int) (deadlineTick % buckets.size()),
+                (deadlineTick - currentTick) / buckets.size());
+        buckets.get(timeout.bucket).add(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancel a timeout that has not expired yet
+     * @param timeout Handle returned by schedule()
+     * @return true if it was still pending
+     */
+    public boolean cancel(Timeout<T> timeout) {
+        if (buckets.get(timeout.bucket).remove(timeout)) {
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Advance the wheel up to a time and collect the expired tasks
+     * @param nowMs Current time
+     * @return Expired tasks, by deadline tick then scheduling order
+     */
+    public List<T> expire(long nowMs) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = Math.floorDiv(nowMs - startMs, tickMs);
+        while (currentTick <= targetTick) {
+            Iterator<Timeout<T>> iterator = buckets.get((int) (currentTick % buckets.size())).iterator();
+            while (iterator.hasNext()) {
+                Timeout<T> timeout = iterator.next();
+                if (timeout.remainingRounds > 0) {
+                    timeout.remainingRounds--;
+                    continue;
+                }
+                iterator.remove();
+                size--;
+                expired.add(timeout.task);
+            }
+            currentTick++;
+        }
+        return expired;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * A scheduled task
+     * @param <T> Task type
+     */
+    public static class Timeout<T> {
+        private final T task;
+        private final long deadlineMs;
+        private final int bucket;
+        private long remainingRounds;
+
+        private Timeout(T task, long deadlineMs, int bucket, long remainingRounds) {
+            this.task = task;
+            this.deadlineMs = deadlineMs;
+            this.bucket = bucket;
+            this.remainingRounds = remainingRounds;
+        }
+
+        public T getTask() { return task; }
+        public long getDeadlineMs() { return deadlineMs; }
+    }
+}
@@ -46,6 +46,10 @@ public class JWTUtils {
         claims.put("roles", user.getRole().getRole());
         claims.put("userId", user.getIdUser());
         claims.put("active", user.getActive());
+        // Company id lets the JWT filter resolve the manager's company without a query
+        if (user.getCompany() != null) {
+            claims.put("companyId", user.getCompany().getIdCompany());
+        }
         return createToken(claims, user.getEmail(), expirationToken);
     }
 
@@ -120,6 +124,17 @@ public class JWTUtils {
         }
     }
 
+    // Verify token once and return its claims, or null if invalid or expired
+    public Claims parseValidToken(String token) {
+        try {
+            Claims claims = parseToken(token);
+            Date expiration = claims.getExpiration();
+            return expiration == null || expiration.after(new Date()) ? claims : null;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     // Parse token and return claims
     public Claims parseToken(String token) throws JwtException {
         return Jwts.parser()
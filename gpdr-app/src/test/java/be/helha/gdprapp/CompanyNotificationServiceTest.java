@@ -0,0 +1,181 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.models.Company;
+import be.helha.gdprapp.models.GDPRRequest;
+import be.helha.gdprapp.models.PendingNotification;
+import be.helha.gdprapp.repositories.CompanyRepository;
+import be.helha.gdprapp.repositories.GDPRRequestRepository;
+import be.helha.gdprapp.repositories.PendingNotificationRepository;
+import be.helha.gdprapp.services.CompanyNotificationService;
+import be.helha.gdprapp.services.EmailService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CompanyNotificationServiceTest {
+
+    @Mock
+    private PendingNotificationRepository pendingNotificationRepository;
+
+    @Mock
+    private GDPRRequestRepository gdprRequestRepository;
+
+    @Mock
+    private CompanyRepository companyRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private CompanyNotificationService companyNotificationService;
+
+    private Company testCompany;
+    private GDPRRequest testRequest;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(companyNotificationService, "defaultIntervalMinutes", 15);
+        ReflectionTestUtils.setField(companyNotificationService, "digestHour", 8);
+        ReflectionTestUtils.setField(companyNotificationService, "digestMaxItems", 2);
+        ReflectionTestUtils.setField(companyNotificationService, "claimTimeoutMinutes", 15);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        testCompany = new Company("Test Company", "company@example.com");
+        testCompany.setIdCompany(1);
+
+        testRequest = new GDPRRequest();
+        testRequest.setIdRequest(10);
+        testRequest.setCompany(testCompany);
+    }
+
+    @Test
+    void notifyNewRequest_WhenImmediate_ShouldSendNotification() {
+        // When
+        companyNotificationService.notifyNewRequest(testRequest);
+
+        // Then
+        verify(emailService).sendGDPRRequestNotification(testCompany, testRequest);
+        verify(pendingNotificationRepository, never()).save(any());
+    }
+
+    @Test
+    void notifyNewRequest_WhenBatched_ShouldQueueNotification() {
+        // Given
+        testCompany.setNotificationMode(CompanyNotificationService.MODE_BATCHED);
+
+        // When
+        companyNotificationService.notifyNewRequest(testRequest);
+
+        // Then
+        ArgumentCaptor<PendingNotification> captor = ArgumentCaptor.forClass(PendingNotification.class);
+        verify(pendingNotificationRepository).save(captor.capture());
+        assertEquals(1, captor.getValue().getIdCompany());
+        assertEquals(10, captor.getValue().getIdRequest());
+        verifyNoInteractions(emailService);
+    }
+
+    @Test
+    void isDue_WhenBatched_ShouldWaitForInterval() {
+        // Given
+        LocalDateTime oldest = LocalDateTime.of(2025, 3, 10, 14, 0);
+
+        // When & Then
+        assertFalse(companyNotificationService.isDue(CompanyNotificationService.MODE_BATCHED, null, oldest, oldest.plusMinutes(14)));
+        assertTrue(companyNotificationService.isDue(CompanyNotificationService.MODE_BATCHED, null, oldest, oldest.plusMinutes(15)));
+        assertFalse(companyNotificationService.isDue(CompanyNotificationService.MODE_BATCHED, 60, oldest, oldest.plusMinutes(30)));
+    }
+
+    @Test
+    void isDue_WhenDigest_ShouldWaitForNextDigestHour() {
+        // Given - queued after today's digest, so it goes out tomorrow at 8:00
+        LocalDateTime oldest = LocalDateTime.of(2025, 3, 10, 9, 30);
+
+        // When & Then
+        assertFalse(companyNotificationService.isDue(CompanyNotificationService.MODE_DIGEST, null, oldest, LocalDateTime.of(2025, 3, 10, 23, 59)));
+        assertTrue(companyNotificationService.isDue(CompanyNotificationService.MODE_DIGEST, null, oldest, LocalDateTime.of(2025, 3, 11, 8, 0)));
+        assertTrue(companyNotificationService.isDue(CompanyNotificationService.MODE_DIGEST, null,
+                LocalDateTime.of(2025, 3, 11, 6, 0), LocalDateTime.of(2025, 3, 11, 8, 0)));
+    }
+
+    @Test
+    void sendDigest_ShouldSendNewestRequestsOutsideTheClaimTransactionAndClearQueue() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        List<PendingNotification> pending = List.of(
+                notification(100L, 10, now.minusMinutes(3)),
+                notification(101L, 11, now.minusMinutes(2)),
+                notification(102L, 12, now.minusMinutes(1)));
+        List<GDPRRequest> requests = List.of(new GDPRRequest(), new GDPRRequest());
+        when(pendingNotificationRepository.findClaimableByIdCompany(eq(1), any())).thenReturn(pending);
+        when(companyRepository.findById(1)).thenReturn(Optional.of(testCompany));
+        when(gdprRequestRepository.findWithUserByIdIn(List.of(11, 12))).thenReturn(requests);
+
+        // When
+        int sent = companyNotificationService.sendDigest(1);
+
+        // Then - claimed and committed, sent, then deleted in a second transaction
+        assertEquals(3, sent);
+        pending.forEach(notification -> assertNotNull(notification.getClaimedAt()));
+        InOrder inOrder = inOrder(transactionManager, emailService, pendingNotificationRepository);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(emailService).sendGDPRRequestDigest(testCompany, requests, 3);
+        inOrder.verify(pendingNotificationRepository).deleteAllByIdInBatch(List.of(100L, 101L, 102L));
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void sendDigest_WhenEmailFails_ShouldReleaseTheClaimAndKeepQueue() {
+        // Given
+        List<PendingNotification> pending = List.of(notification(100L, 10, LocalDateTime.now()));
+        when(pendingNotificationRepository.findClaimableByIdCompany(eq(1), any())).thenReturn(pending);
+        when(companyRepository.findById(1)).thenReturn(Optional.of(testCompany));
+        when(gdprRequestRepository.findWithUserByIdIn(List.of(10))).thenReturn(List.of(testRequest));
+        doThrow(new RuntimeException("SMTP down")).when(emailService).sendGDPRRequestDigest(any(), any(), anyInt());
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> companyNotificationService.sendDigest(1));
+        verify(pendingNotificationRepository).releaseClaims(List.of(100L));
+        verify(pendingNotificationRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void sendDigest_WhenEverythingIsClaimed_ShouldSendNothing() {
+        // Given - another instance is sending this company's digest
+        when(pendingNotificationRepository.findClaimableByIdCompany(eq(1), any())).thenReturn(List.of());
+
+        // When
+        int sent = companyNotificationService.sendDigest(1);
+
+        // Then
+        assertEquals(0, sent);
+        verifyNoInteractions(emailService);
+    }
+
+    private PendingNotification notification(Long id, Integer requestId, LocalDateTime createdAt) {
+        PendingNotification notification = new PendingNotification(1, requestId, createdAt);
+        notification.setIdNotification(id);
+        return notification;
+    }
+}
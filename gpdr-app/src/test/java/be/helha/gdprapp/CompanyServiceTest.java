@@ -3,6 +3,7 @@ package be.helha.gdprapp;
 import be.helha.gdprapp.models.Company;
 import be.helha.gdprapp.repositories.CompanyRepository;
 import be.helha.gdprapp.services.CompanyService;
+import be.helha.gdprapp.services.ReferenceDataCacheService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -29,6 +30,9 @@ class CompanyServiceTest {
     @Mock
     private CompanyRepository companyRepository;
 
+    @Mock
+    private ReferenceDataCacheService referenceDataCacheService;
+
     @InjectMocks
     private CompanyService companyService;
 
@@ -253,6 +257,7 @@ class CompanyServiceTest {
         // Then
         assertNotNull(result);
         verify(companyRepository).save(testCompany);
+        verify(referenceDataCacheService).evictCompany(1);
     }
 
     @Test
@@ -280,6 +285,7 @@ class CompanyServiceTest {
 
         // Then
         verify(companyRepository).deleteById(1);
+        verify(referenceDataCacheService).evictCompany(1);
     }
 
     @Test
@@ -0,0 +1,107 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.services.ConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new ConcurrencyLimiter();
+        ReflectionTestUtils.setField(limiter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(limiter, "initialLimit", 10);
+        ReflectionTestUtils.setField(limiter, "minLimit", 2);
+        ReflectionTestUtils.setField(limiter, "maxLimit", 100);
+        ReflectionTestUtils.setField(limiter, "tolerance", 2.0);
+        ReflectionTestUtils.setField(limiter, "smoothing", 0.2);
+        ReflectionTestUtils.setField(limiter, "normalShare", 0.8);
+        limiter.init();
+    }
+
+    @Test
+    void tryAcquire_WhenNormalShareIsUsed_ShouldStillAdmitCriticalRequests() {
+        // Given - normal requests may use 8 of the 10 slots
+        for (int i = 0; i < 8; i++) {
+            assertTrue(limiter.tryAcquire(ConcurrencyLimiter.Priority.NORMAL));
+        }
+
+        // When & Then
+        assertFalse(limiter.tryAcquire(ConcurrencyLimiter.Priority.NORMAL));
+        assertTrue(limiter.tryAcquire(ConcurrencyLimiter.Priority.CRITICAL));
+        assertTrue(limiter.tryAcquire(ConcurrencyLimiter.Priority.CRITICAL));
+        assertFalse(limiter.tryAcquire(ConcurrencyLimiter.Priority.CRITICAL));
+
+        ConcurrencyLimiter.LimiterStatistics stats = limiter.getStatistics();
+        assertEquals(10, stats.getInFlight());
+        assertEquals(1, stats.getRejectedNormal());
+        assertEquals(1, stats.getRejectedCritical());
+        assertEquals(1.0, meterRegistry.counter("gdpr.limiter.rejected", "priority", "NORMAL").count());
+    }
+
+    @Test
+    void release_WhenLatencyIsStableUnderLoad_ShouldRaiseLimit() {
+        // When - the limit is saturated and every request answers in 5 ms
+        for (int i = 0; i < 50; i++) {
+            saturate();
+            releaseAll(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+
+        // Then
+        assertTrue(limiter.getLimit() > 10);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void release_WhenLatencyRises_ShouldLowerLimit() {
+        // Given - a stable baseline of 5 ms
+        for (int i = 0; i < 20; i++) {
+            saturate();
+            releaseAll(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        int baseline = limiter.getLimit();
+
+        // When - the database slows down to 200 ms
+        for (int i = 0; i < 20; i++) {
+            saturate();
+            releaseAll(TimeUnit.MILLISECONDS.toNanos(200));
+        }
+
+        // Then
+        assertTrue(limiter.getLimit() < baseline);
+        assertTrue(limiter.getLimit() >= 2);
+    }
+
+    @Test
+    void release_WhenFarBelowLimit_ShouldNotRaiseLimit() {
+        // When - a single request at a time
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire(ConcurrencyLimiter.Priority.NORMAL));
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(5));
+        }
+
+        // Then
+        assertEquals(10, limiter.getLimit());
+    }
+
+    private void saturate() {
+        while (limiter.tryAcquire(ConcurrencyLimiter.Priority.CRITICAL)) {
+            // fill every slot
+        }
+    }
+
+    private void releaseAll(long latencyNanos) {
+        while (limiter.getInFlight() > 0) {
+            limiter.release(latencyNanos);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.configuration.ConnectionPool;
+import be.helha.gdprapp.configuration.ConnectionPoolAspect;
+import be.helha.gdprapp.configuration.ConnectionPoolContext;
+import be.helha.gdprapp.configuration.ConnectionPoolRoutingDataSource;
+import be.helha.gdprapp.configuration.UsePool;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolRoutingTest {
+
+    private final DataSource dataSource = new ConnectionPoolRoutingDataSource(pools());
+
+    @Test
+    void getConnection_WithoutSelection_ShouldUseWebPool() throws SQLException {
+        // When & Then
+        assertTrue(urlOf(dataSource).startsWith("jdbc:h2:mem:web"));
+    }
+
+    @Test
+    void usePool_OnMethod_ShouldRouteToThatPoolAndRestoreAfterwards() throws SQLException {
+        // Given
+        Jobs jobs = proxy(new Jobs());
+
+        // When & Then
+        assertTrue(jobs.report().startsWith("jdbc:h2:mem:reporting"));
+        assertTrue(jobs.nightly().startsWith("jdbc:h2:mem:batch"));
+        assertEquals(ConnectionPool.WEB, ConnectionPoolContext.current());
+        assertTrue(urlOf(dataSource).startsWith("jdbc:h2:mem:web"));
+    }
+
+    @Test
+    void usePool_OnClass_ShouldApplyToEveryMethod() throws SQLException {
+        // Given
+        ReportingJobs jobs = proxy(new ReportingJobs());
+
+        // When & Then
+        assertTrue(jobs.export().startsWith("jdbc:h2:mem:reporting"));
+        assertEquals(ConnectionPool.WEB, ConnectionPoolContext.current());
+    }
+
+    private <T> T proxy(T target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ConnectionPoolAspect());
+        return factory.getProxy();
+    }
+
+    private static Map<ConnectionPool, DataSource> pools() {
+        Map<ConnectionPool, DataSource> pools = new EnumMap<>(ConnectionPool.class);
+        for (ConnectionPool pool : ConnectionPool.values()) {
+            pools.put(pool, new DriverManagerDataSource("jdbc:h2:mem:" + pool.getPoolName() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        }
+        return pools;
+    }
+
+    private String urlOf(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+
+    public class Jobs {
+
+        @UsePool(ConnectionPool.REPORTING)
+        public String report() throws SQLException {
+            return urlOf(dataSource);
+        }
+
+        @UsePool(ConnectionPool.BATCH)
+        public String nightly() throws SQLException {
+            return urlOf(dataSource);
+        }
+    }
+
+    @UsePool(ConnectionPool.REPORTING)
+    public class ReportingJobs {
+
+        public String export() throws SQLException {
+            return urlOf(dataSource);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.configuration.SequenceBlockAllocator;
+import be.helha.gdprapp.models.Role;
+import be.helha.gdprapp.services.DataSeederService;
+import be.helha.gdprapp.services.ReferenceDataCacheService;
+import be.helha.gdprapp.services.RequestPartitionService;
+import be.helha.gdprapp.services.RequestRollupBackfill;
+import be.helha.gdprapp.services.RoleService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DataSeederServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private SequenceBlockAllocator sequenceBlockAllocator;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private RoleService roleService;
+
+    @Mock
+    private ReferenceDataCacheService referenceDataCacheService;
+
+    @Mock
+    private RequestRollupBackfill requestRollupBackfill;
+
+    @Mock
+    private RequestPartitionService requestPartitionService;
+
+    @Mock
+    private Environment environment;
+
+    @InjectMocks
+    private DataSeederService dataSeederService;
+
+    private final AtomicLong nextBlock = new AtomicLong(1);
+    private final List<Object[]> insertedRequests = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        lenient().when(passwordEncoder.encode(DataSeederService.SEED_PASSWORD)).thenReturn("$2a$10$hash");
+        lenient().when(roleService.getRoleByName("CLIENT")).thenReturn(Optional.of(role(2, "CLIENT")));
+        lenient().when(roleService.getRoleByName("GERANT")).thenReturn(Optional.of(role(3, "GERANT")));
+
+        // Pooled-lo sequence: each value is the low end of a block of 50 ids
+        lenient().when(sequenceBlockAllocator.reserve(anyString(), anyInt())).thenAnswer(invocation -> {
+            int count = invocation.getArgument(1);
+            List<Integer> ids = new ArrayList<>();
+            while (ids.size() < count) {
+                long low = nextBlock.getAndAdd(50);
+                for (int i = 0; i < 50 && ids.size() < count; i++) {
+                    ids.add((int) (low + i));
+                }
+            }
+            return ids;
+        });
+        // The seeder reuses its row buffers, keep a copy of each inserted request
+        lenient().when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            List<Object[]> rows = invocation.getArgument(1);
+            if (sql.startsWith("INSERT INTO gdpr_requests")) {
+                rows.forEach(row -> insertedRequests.add(row.clone()));
+            }
+            return new int[rows.size()];
+        });
+    }
+
+    @Test
+    void seed_ShouldInsertEveryRowAndHashThePasswordOnce() {
+        // Given
+        DataSeederService.SeedOptions options = options(42L);
+
+        // When
+        DataSeederService.SeedResult result = dataSeederService.seed(options);
+
+        // Then
+        assertEquals(20, result.getCompanies());
+        assertEquals(20, result.getManagers());
+        assertEquals(500, result.getClients());
+        assertEquals(insertedRequests.size(), result.getRequests());
+        assertTrue(result.getRequests() >= 500);
+        verify(passwordEncoder, times(1)).encode(DataSeederService.SEED_PASSWORD);
+        verify(referenceDataCacheService).evictCompany(null);
+        verify(requestRollupBackfill).rebuild(any(), any());
+    }
+
+    @Test
+    void seed_WithSameRandomSeed_ShouldGenerateSameRequests() {
+        // Given
+        dataSeederService.seed(options(7L));
+        List<String> firstRun = describe(insertedRequests);
+        insertedRequests.clear();
+        nextBlock.set(1);
+
+        // When
+        dataSeederService.seed(options(7L));
+
+        // Then
+        assertEquals(firstRun, describe(insertedRequests));
+    }
+
+    @Test
+    void seed_ShouldSkewRequestsTowardsTheFirstCompanies() {
+        // Given
+        DataSeederService.SeedOptions options = options(42L);
+
+        // When
+        dataSeederService.seed(options);
+
+        // Then - company ids are reserved in rank order, the first one is the largest
+        int firstCompany = insertedRequests.stream().mapToInt(row -> (Integer) row[6]).min().getAsInt();
+        int largest = 0;
+        int smallest = Integer.MAX_VALUE;
+        for (int companyId = firstCompany; companyId < firstCompany + 20; companyId++) {
+            int id = companyId;
+            int count = (int) insertedRequests.stream().filter(row -> row[6].equals(id)).count();
+            largest = Math.max(largest, count);
+            smallest = Math.min(smallest, count);
+            if (companyId == firstCompany) {
+                assertEquals(count, largest);
+            }
+        }
+        assertTrue(largest > 5 * smallest);
+    }
+
+    @Test
+    void seed_WithProductionProfile_ShouldThrowException() {
+        // Given
+        when(environment.acceptsProfiles(any(Profiles.class))).thenReturn(true);
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> dataSeederService.seed(options(42L)));
+        assertEquals("Data seeding is disabled in production", exception.getMessage());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private DataSeederService.SeedOptions options(long randomSeed) {
+        DataSeederService.SeedOptions options = new DataSeederService.SeedOptions();
+        options.setCompanies(20);
+        options.setClients(500);
+        options.setAverageRequestsPerClient(3.0);
+        options.setCompanySkew(1.2);
+        options.setRandomSeed(randomSeed);
+        options.setBatchSize(100);
+        return options;
+    }
+
+    // Everything but the request date, which is relative to now
+    private List<String> describe(List<Object[]> requests) {
+        List<String> rows = new ArrayList<>();
+        for (Object[] request : requests) {
+            rows.add(Arrays.asList(request[0], request[1], request[2], request[5], request[6]).toString());
+        }
+        return rows;
+    }
+
+    private Role role(int id, String name) {
+        Role role = new Role(name);
+        role.setIdRole(id);
+        return role;
+    }
+}
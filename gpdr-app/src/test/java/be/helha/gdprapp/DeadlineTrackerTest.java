@@ -0,0 +1,130 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.repositories.GDPRRequestRepository;
+import be.helha.gdprapp.services.DeadlineTracker;
+import be.helha.gdprapp.services.RequestDeadlineService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadlineTrackerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    @Mock
+    private RequestDeadlineService requestDeadlineService;
+
+    @InjectMocks
+    private DeadlineTracker deadlineTracker;
+
+    @BeforeEach
+    void setUp() {
+        // Driven by the test: no timer thread
+        ReflectionTestUtils.setField(deadlineTracker, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(deadlineTracker, "enabled", false);
+        ReflectionTestUtils.setField(deadlineTracker, "reminderDays", "1,7");
+        ReflectionTestUtils.setField(deadlineTracker, "tickMs", 60000L);
+        ReflectionTestUtils.setField(deadlineTracker, "wheelSize", 60);
+        ReflectionTestUtils.setField(deadlineTracker, "horizonHours", 48L);
+        deadlineTracker.start();
+    }
+
+    @Test
+    void nextNoticeLevel_ShouldSkipRemindersThatAreAlreadyLate() {
+        // When & Then - a late reminder is still sent unless the next notice is due too
+        assertEquals(0, deadlineTracker.nextNoticeLevel(NOW.plusDays(10), 0, NOW));
+        assertEquals(0, deadlineTracker.nextNoticeLevel(NOW.plusDays(3), 0, NOW));
+        assertEquals(1, deadlineTracker.nextNoticeLevel(NOW.plusHours(12), 0, NOW));
+        assertEquals(2, deadlineTracker.nextNoticeLevel(NOW.minusDays(1), 0, NOW));
+        assertEquals(-1, deadlineTracker.nextNoticeLevel(NOW.minusDays(1), 3, NOW));
+    }
+
+    @Test
+    void advance_ShouldSendRemindersThenEscalation() {
+        // Given - found 3 days before its due date: the 7-day reminder is late
+        LocalDateTime dueDate = NOW.plusDays(3);
+        when(requestDeadlineService.findPendingDeadlines(any(), any(), eq(3))).thenReturn(List.of(deadline(1, dueDate, 0)), List.of());
+        when(requestDeadlineService.sendNotice(anyInt(), anyInt(), anyInt(), any())).thenReturn(true);
+        deadlineTracker.rebuild(NOW);
+        assertEquals(1, deadlineTracker.getTrackedCount());
+
+        // When
+        deadlineTracker.advance(NOW);
+        deadlineTracker.advance(dueDate.minusDays(1).minusMinutes(1));
+        verify(requestDeadlineService, times(1)).sendNotice(anyInt(), anyInt(), anyInt(), any());
+        deadlineTracker.advance(dueDate.minusDays(1));
+        deadlineTracker.advance(dueDate);
+
+        // Then
+        verify(requestDeadlineService).sendNotice(1, 0, 0, 3);
+        verify(requestDeadlineService).sendNotice(1, 1, 1, 1);
+        verify(requestDeadlineService).sendNotice(1, 2, 2, null);
+        assertEquals(0, deadlineTracker.getTrackedCount());
+        assertEquals(2, deadlineTracker.getStatistics().getRemindersSent());
+        assertEquals(1, deadlineTracker.getStatistics().getEscalationsSent());
+    }
+
+    @Test
+    void advance_WhenRequestWasProcessed_ShouldStopTrackingIt() {
+        // Given - the database refuses the notice: the request is no longer pending
+        when(requestDeadlineService.findPendingDeadlines(isNull(), any(), eq(3))).thenReturn(List.of(deadline(1, NOW.plusHours(12), 0)));
+        when(requestDeadlineService.sendNotice(1, 0, 1, 1)).thenReturn(false);
+        deadlineTracker.rebuild(NOW);
+
+        // When
+        deadlineTracker.advance(NOW);
+
+        // Then
+        assertEquals(0, deadlineTracker.getTrackedCount());
+        assertEquals(0, deadlineTracker.getStatistics().getRemindersSent());
+    }
+
+    @Test
+    void cancel_ShouldRemoveScheduledNotice() {
+        // Given
+        when(requestDeadlineService.findPendingDeadlines(any(), any(), eq(3))).thenReturn(List.of(deadline(1, NOW.plusDays(2), 0)), List.of());
+        deadlineTracker.rebuild(NOW);
+
+        // When
+        deadlineTracker.cancel(1);
+        deadlineTracker.advance(NOW.plusDays(2));
+
+        // Then
+        assertEquals(0, deadlineTracker.getTrackedCount());
+        verify(requestDeadlineService, never()).sendNotice(anyInt(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void track_WhenDueAfterLoadedWindow_ShouldLeaveItToTheNextRefill() {
+        // Given - the window covers 7 days plus the 48 hour horizon
+        deadlineTracker.rebuild(NOW);
+
+        // When
+        deadlineTracker.track(1, NOW.plusMonths(1), 0);
+        deadlineTracker.track(2, NOW.plusDays(8), 0);
+
+        // Then
+        assertEquals(1, deadlineTracker.getTrackedCount());
+    }
+
+    private GDPRRequestRepository.PendingDeadline deadline(Integer id, LocalDateTime dueDate, Integer reminderLevel) {
+        return new GDPRRequestRepository.PendingDeadline() {
+            public Integer getIdRequest() { return id; }
+            public LocalDateTime getDueDate() { return dueDate; }
+            public Integer getReminderLevel() { return reminderLevel; }
+        };
+    }
+}
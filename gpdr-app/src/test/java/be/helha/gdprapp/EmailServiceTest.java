@@ -4,7 +4,11 @@ import be.helha.gdprapp.models.Company;
 import be.helha.gdprapp.models.GDPRRequest;
 import be.helha.gdprapp.models.Role;
 import be.helha.gdprapp.models.User;
+import be.helha.gdprapp.services.EmailDeliveryLedger;
 import be.helha.gdprapp.services.EmailService;
+import be.helha.gdprapp.services.OutboundMailScheduler;
+import be.helha.gdprapp.services.SmtpCircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import org.junit.jupiter.api.BeforeEach;
@@ -49,6 +53,7 @@ class EmailServiceTest {
     private Company testCompany;
     private GDPRRequest testGDPRRequest;
     private Role testRole;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
@@ -56,6 +61,17 @@ class EmailServiceTest {
         ReflectionTestUtils.setField(emailService, "fromEmail", "test@gdprapp.com");
         ReflectionTestUtils.setField(emailService, "appName", "GDPR Test App");
         ReflectionTestUtils.setField(emailService, "appUrl", "http://localhost:8080");
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(emailService, "meterRegistry", meterRegistry);
+        SmtpCircuitBreaker smtpCircuitBreaker = new SmtpCircuitBreaker();
+        ReflectionTestUtils.setField(smtpCircuitBreaker, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(smtpCircuitBreaker, "failureThreshold", 2);
+        ReflectionTestUtils.setField(smtpCircuitBreaker, "openDurationMs", 30000L);
+        smtpCircuitBreaker.init();
+        ReflectionTestUtils.setField(emailService, "smtpCircuitBreaker", smtpCircuitBreaker);
+        // Not started: only the in-memory rollups are updated
+        ReflectionTestUtils.setField(emailService, "emailDeliveryLedger", new EmailDeliveryLedger());
+        ReflectionTestUtils.setField(emailService, "outboundMailScheduler", new OutboundMailScheduler());
 
         // Create test entities
         testRole = new Role();
@@ -141,6 +157,49 @@ class EmailServiceTest {
         verify(emailSender).send(mimeMessage);
     }
 
+    @Test
+    void sendHtmlEmail_ShouldRecordRenderAndSendTimers() {
+        // Given
+        when(emailSender.createMimeMessage()).thenReturn(mimeMessage);
+        when(templateEngine.process(eq("test-template"), any(Context.class))).thenReturn("<html>Test</html>");
+
+        // When
+        emailService.sendHtmlEmail("test@example.com", "Subject", "test-template", new Context());
+
+        // Then
+        assertEquals(1, meterRegistry.get("gdpr.mail.template.render").tag("template", "test-template").timer().count());
+        assertEquals(1, meterRegistry.get("gdpr.mail.send").tags("type", "html", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void sendSimpleEmail_WhenSmtpFails_ShouldRecordFailedSend() {
+        // Given
+        doThrow(new RuntimeException("SMTP down")).when(emailSender).send(any(SimpleMailMessage.class));
+
+        // When
+        assertThrows(RuntimeException.class, () -> emailService.sendSimpleEmail("test@example.com", "Subject", "Text"));
+
+        // Then
+        assertEquals(1, meterRegistry.get("gdpr.mail.send").tags("type", "simple", "outcome", "failure").timer().count());
+    }
+
+    @Test
+    void sendSimpleEmail_WhenCircuitIsOpen_ShouldFailWithoutCallingSmtp() {
+        // Given - two failures open the circuit
+        doThrow(new RuntimeException("SMTP down")).when(emailSender).send(any(SimpleMailMessage.class));
+        assertThrows(RuntimeException.class, () -> emailService.sendSimpleEmail("test@example.com", "Subject", "Text"));
+        assertThrows(RuntimeException.class, () -> emailService.sendSimpleEmail("test@example.com", "Subject", "Text"));
+
+        // When
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                emailService.sendSimpleEmail("test@example.com", "Subject", "Text"));
+
+        // Then
+        assertInstanceOf(SmtpCircuitBreaker.CircuitOpenException.class, exception.getCause());
+        verify(emailSender, times(2)).send(any(SimpleMailMessage.class));
+        assertEquals(1, meterRegistry.get("gdpr.mail.send").tags("type", "simple", "outcome", "rejected").timer().count());
+    }
+
     @Test
     void sendWelcomeEmail_ShouldCallSendHtmlEmailWithCorrectParameters() {
         // Given
@@ -302,6 +361,44 @@ class EmailServiceTest {
         verify(emailSender).send(mimeMessage);
     }
 
+    @Test
+    void sendTestEmail_WhenQueuedDeliveryFails_ShouldThrowException() throws InterruptedException {
+        // Given - a started scheduler: the message is sent by a sender thread, not by the caller
+        OutboundMailScheduler scheduler = startedScheduler();
+        when(emailSender.createMimeMessage()).thenReturn(mimeMessage);
+        when(templateEngine.process(eq("test-email"), any(Context.class))).thenReturn("<html>Test Email</html>");
+        doThrow(new RuntimeException("SMTP down")).when(emailSender).send(mimeMessage);
+
+        try {
+            // When & Then
+            RuntimeException exception = assertThrows(RuntimeException.class, () -> emailService.sendTestEmail("test@example.com"));
+            assertEquals("SMTP down", exception.getMessage());
+        } finally {
+            scheduler.stop();
+        }
+    }
+
+    @Test
+    void sendSimpleEmail_WhenQueuedAndCircuitIsOpen_ShouldThrowException() throws InterruptedException {
+        // Given
+        OutboundMailScheduler scheduler = startedScheduler();
+        doThrow(new RuntimeException("SMTP down")).when(emailSender).send(any(SimpleMailMessage.class));
+        assertThrows(RuntimeException.class, () -> emailService.sendSimpleEmail("test@example.com", "Subject", "Text"));
+        assertThrows(RuntimeException.class, () -> emailService.sendSimpleEmail("test@example.com", "Subject", "Text"));
+
+        try {
+            // When
+            RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                    emailService.sendSimpleEmail("test@example.com", "Subject", "Text"));
+
+            // Then
+            assertInstanceOf(SmtpCircuitBreaker.CircuitOpenException.class, exception.getCause());
+            verify(emailSender, times(2)).send(any(SimpleMailMessage.class));
+        } finally {
+            scheduler.stop();
+        }
+    }
+
     @Test
     void sendCustomEmail_ShouldSendEmailWithCustomVariables() {
         // Given
@@ -331,6 +428,19 @@ class EmailServiceTest {
         verify(emailSender).send(mimeMessage);
     }
 
+    private OutboundMailScheduler startedScheduler() {
+        OutboundMailScheduler scheduler = new OutboundMailScheduler();
+        ReflectionTestUtils.setField(scheduler, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(scheduler, "enabled", true);
+        ReflectionTestUtils.setField(scheduler, "workers", 1);
+        ReflectionTestUtils.setField(scheduler, "reservedWorkers", 0);
+        ReflectionTestUtils.setField(scheduler, "laneCapacity", 10);
+        ReflectionTestUtils.setField(scheduler, "tenantWeights", "");
+        scheduler.start();
+        ReflectionTestUtils.setField(emailService, "outboundMailScheduler", scheduler);
+        return scheduler;
+    }
+
     @Test
     void getEmailStatistics_ShouldReturnStatistics() {
         // When
@@ -343,6 +453,28 @@ class EmailServiceTest {
         assertEquals(0L, stats.getTotalEmailsToday());
     }
 
+    @Test
+    void getEmailStatistics_AfterSends_ShouldReturnLedgerTotalsPerTemplate() {
+        // Given
+        when(emailSender.createMimeMessage()).thenReturn(mimeMessage);
+        when(templateEngine.process(anyString(), any(Context.class))).thenReturn("<html>Test</html>");
+        emailService.sendHtmlEmail("a@example.com", "Subject", "welcome-email", new Context());
+        emailService.sendHtmlEmail("b@example.com", "Subject", "welcome-email", new Context());
+        doThrow(new RuntimeException("SMTP down")).when(emailSender).send(any(SimpleMailMessage.class));
+        assertThrows(RuntimeException.class, () -> emailService.sendSimpleEmail("c@example.com", "Subject", "Text"));
+
+        // When
+        EmailService.EmailStatistics stats = emailService.getEmailStatistics();
+
+        // Then
+        assertEquals(2L, stats.getTotalEmailsSent());
+        assertEquals(1L, stats.getTotalEmailsFailed());
+        assertEquals(3L, stats.getTotalEmailsToday());
+        assertEquals(2L, stats.getTemplates().get("welcome-email").getCount());
+        assertEquals(0L, stats.getTemplates().get("welcome-email").getFailed());
+        assertEquals(1L, stats.getTemplates().get("simple").getFailed());
+    }
+
     @Test
     void sendHtmlEmail_WhenMimeMessageHelperThrowsException_ShouldThrowRuntimeException() throws MessagingException {
         // Given
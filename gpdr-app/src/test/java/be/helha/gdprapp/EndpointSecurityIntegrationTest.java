@@ -0,0 +1,63 @@
+package be.helha.gdprapp;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.time.LocalDate;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Admin endpoints outside /api/admin/**: @PreAuthorize is not enforced (no method security),
+ * so the URL rules of SpringSecurityConfig must refuse the other roles.
+ */
+class EndpointSecurityIntegrationTest extends QueryCountIntegrationTest {
+
+    private static final String DIGEST_SETTINGS = "{\"mode\":\"DIGEST\",\"intervalMinutes\":60}";
+
+    @Test
+    void updateNotificationSettings_WhenClient_ShouldBeForbidden() throws Exception {
+        mockMvc.perform(put("/api/companies/1/notifications")
+                        .header("Authorization", clientToken(1))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(DIGEST_SETTINGS))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void updateNotificationSettings_WhenManager_ShouldBeForbidden() throws Exception {
+        mockMvc.perform(put("/api/companies/1/notifications")
+                        .header("Authorization", managerToken(1))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(DIGEST_SETTINGS))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getRequestTimeseries_WhenNotAdmin_ShouldBeForbidden() throws Exception {
+        LocalDate today = LocalDate.now();
+        mockMvc.perform(get("/api/gdpr-requests/analytics/timeseries")
+                        .param("from", today.minusDays(30).toString())
+                        .param("to", today.toString())
+                        .param("companyId", "2")
+                        .header("Authorization", clientToken(1)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/gdpr-requests/analytics/timeseries")
+                        .param("from", today.minusDays(30).toString())
+                        .param("to", today.toString())
+                        .header("Authorization", managerToken(1)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void getRequestTimeseries_WhenAdmin_ShouldBeAllowed() throws Exception {
+        LocalDate today = LocalDate.now();
+        mockMvc.perform(get("/api/gdpr-requests/analytics/timeseries")
+                        .param("from", today.minusDays(30).toString())
+                        .param("to", today.toString())
+                        .header("Authorization", adminToken()))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,22 @@
+package be.helha.gdprapp;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails the test if its body runs more SQL statements than value().
+ * Statements are counted by the datasource proxy (QueryStatisticsService), @BeforeEach methods excluded.
+ * Timings are left to the JMH benchmarks and the load test: a wall-clock budget here only makes CI flaky.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryCountExtension.class)
+public @interface ExpectedQueries {
+
+    // Maximum number of SQL statements
+    int value();
+}
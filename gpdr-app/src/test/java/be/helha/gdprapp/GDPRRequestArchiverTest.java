@@ -0,0 +1,117 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.services.GDPRRequestArchiveService;
+import be.helha.gdprapp.services.GDPRRequestArchiver;
+import be.helha.gdprapp.services.RequestPartitionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GDPRRequestArchiverTest {
+
+    @Mock
+    private GDPRRequestArchiveService gdprRequestArchiveService;
+
+    @Mock
+    private RequestPartitionService requestPartitionService;
+
+    @InjectMocks
+    private GDPRRequestArchiver gdprRequestArchiver;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(gdprRequestArchiver, "retentionDays", 365);
+        ReflectionTestUtils.setField(gdprRequestArchiver, "chunkSize", 100);
+        ReflectionTestUtils.setField(gdprRequestArchiver, "pauseMs", 0L);
+    }
+
+    @Test
+    void archive_ShouldMoveChunksUntilOneIsPartial() {
+        // Given
+        when(gdprRequestArchiveService.archiveChunk(any(), eq(100))).thenReturn(100, 100, 42);
+
+        // When
+        long archived = gdprRequestArchiver.archive();
+
+        // Then - every chunk uses the same cutoff, one year back
+        assertEquals(242, archived);
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(gdprRequestArchiveService, times(3)).archiveChunk(cutoff.capture(), eq(100));
+        assertEquals(1, cutoff.getAllValues().stream().distinct().count());
+        assertTrue(cutoff.getValue().isBefore(LocalDateTime.now().minusDays(364)));
+    }
+
+    @Test
+    void archive_ShouldArchiveWholePartitionsBeforeChunks() {
+        // Given - the second month still has a request processed after the cutoff
+        when(requestPartitionService.findPartitionsBefore(any())).thenReturn(List.of("gdpr_requests_2024_01", "gdpr_requests_2024_02"));
+        when(requestPartitionService.archivePartition(eq("gdpr_requests_2024_01"), any())).thenReturn(500L);
+        when(requestPartitionService.archivePartition(eq("gdpr_requests_2024_02"), any())).thenReturn(-1L);
+        when(gdprRequestArchiveService.archiveChunk(any(), eq(100))).thenReturn(30);
+
+        // When
+        long archived = gdprRequestArchiver.archive();
+
+        // Then
+        assertEquals(530, archived);
+        InOrder inOrder = inOrder(requestPartitionService, gdprRequestArchiveService);
+        inOrder.verify(requestPartitionService).archivePartition(eq("gdpr_requests_2024_01"), any());
+        inOrder.verify(requestPartitionService).archivePartition(eq("gdpr_requests_2024_02"), any());
+        inOrder.verify(gdprRequestArchiveService).archiveChunk(any(), eq(100));
+    }
+
+    @Test
+    void archive_WhenChunkFails_ShouldKeepWhatWasArchived() {
+        // Given
+        when(gdprRequestArchiveService.archiveChunk(any(), eq(100)))
+                .thenReturn(100)
+                .thenThrow(new RuntimeException("Database unavailable"));
+
+        // When
+        long archived = gdprRequestArchiver.archive();
+
+        // Then
+        assertEquals(100, archived);
+        assertFalse(gdprRequestArchiver.getStatus().isRunning());
+        assertEquals(100, gdprRequestArchiver.getStatus().getLastRunArchived());
+    }
+
+    @Test
+    void archive_WhenAlreadyRunning_ShouldNotStartSecondRun() throws Exception {
+        // Given - the first run blocks in its first chunk
+        CountDownLatch inChunk = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(gdprRequestArchiveService.archiveChunk(any(), eq(100))).thenAnswer(invocation -> {
+            inChunk.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return 0;
+        });
+        assertTrue(gdprRequestArchiver.archiveInBackground());
+        assertTrue(inChunk.await(5, TimeUnit.SECONDS));
+
+        // When
+        long second = gdprRequestArchiver.archive();
+
+        // Then
+        assertEquals(-1, second);
+        assertFalse(gdprRequestArchiver.archiveInBackground());
+        release.countDown();
+        verify(gdprRequestArchiveService, timeout(5000).times(1)).archiveChunk(any(), eq(100));
+    }
+}
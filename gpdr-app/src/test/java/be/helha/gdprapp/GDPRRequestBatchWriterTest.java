@@ -0,0 +1,173 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.configuration.SequenceBlockAllocator;
+import be.helha.gdprapp.models.Company;
+import be.helha.gdprapp.models.GDPRRequest;
+import be.helha.gdprapp.models.User;
+import be.helha.gdprapp.services.GDPRRequestBatchWriter;
+import be.helha.gdprapp.services.GDPRRequestService;
+import be.helha.gdprapp.services.RequestRollupService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GDPRRequestBatchWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private RequestRollupService requestRollupService;
+
+    @Mock
+    private SequenceBlockAllocator sequenceBlockAllocator;
+
+    @InjectMocks
+    private GDPRRequestBatchWriter batchWriter;
+
+    private final AtomicInteger nextBlock = new AtomicInteger(100);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(batchWriter, "enabled", true);
+        ReflectionTestUtils.setField(batchWriter, "maxBatchSize", 10);
+        ReflectionTestUtils.setField(batchWriter, "maxWaitMs", 200L);
+        ReflectionTestUtils.setField(batchWriter, "queueCapacity", 100);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        batchWriter.stop();
+    }
+
+    @Test
+    void submit_ConcurrentRequests_ShouldBeInsertedInOneBatch() throws Exception {
+        // Given
+        when(sequenceBlockAllocator.reserve(eq("gdpr_requests_seq"), anyInt())).thenAnswer(invocation -> reserveBlock(invocation.getArgument(1)));
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenReturn(new int[] {1, 1, 1});
+        batchWriter.start();
+
+        // When
+        CompletableFuture<Integer> first = batchWriter.submit(newRequest(1));
+        CompletableFuture<Integer> second = batchWriter.submit(newRequest(2));
+        CompletableFuture<Integer> third = batchWriter.submit(newRequest(3));
+
+        // Then
+        assertEquals(100, first.get(5, TimeUnit.SECONDS));
+        assertEquals(101, second.get(5, TimeUnit.SECONDS));
+        assertEquals(102, third.get(5, TimeUnit.SECONDS));
+        verify(sequenceBlockAllocator, times(1)).reserve(eq("gdpr_requests_seq"), anyInt());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        verify(requestRollupService, times(1)).recordCreated(argThat(requests -> requests.size() == 3));
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void submit_WhenOneRowViolatesForeignKey_ShouldOnlyFailThatCaller() throws Exception {
+        // Given - the batch fails, then each row is retried alone and the second one fails again
+        AtomicInteger calls = new AtomicInteger();
+        when(sequenceBlockAllocator.reserve(eq("gdpr_requests_seq"), anyInt())).thenAnswer(invocation -> reserveBlock(invocation.getArgument(1)));
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class))).thenAnswer(invocation -> {
+            int call = calls.incrementAndGet();
+            if (call == 1 || call == 3) {
+                throw new DataIntegrityViolationException("fk_gdpr_requests_id_company",
+                        new SQLException("insert violates foreign key constraint", "23503"));
+            }
+            return new int[] {1};
+        });
+        batchWriter.start();
+
+        // When
+        CompletableFuture<Integer> valid = batchWriter.submit(newRequest(1));
+        CompletableFuture<Integer> invalid = batchWriter.submit(newRequest(999));
+
+        // Then - the rows are retried with the ids reserved for the batch
+        assertEquals(100, valid.get(5, TimeUnit.SECONDS));
+        CompletionException exception = assertThrows(CompletionException.class, invalid::join);
+        assertEquals("User or company not found", exception.getCause().getMessage());
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), any(BatchPreparedStatementSetter.class));
+        verify(sequenceBlockAllocator, times(1)).reserve(eq("gdpr_requests_seq"), anyInt());
+    }
+
+    @Test
+    void submit_WhenRowViolatesOtherConstraint_ShouldReportDatabaseError() throws Exception {
+        // Given - request_content is longer than the column
+        when(sequenceBlockAllocator.reserve(eq("gdpr_requests_seq"), anyInt())).thenAnswer(invocation -> reserveBlock(invocation.getArgument(1)));
+        when(jdbcTemplate.batchUpdate(anyString(), any(BatchPreparedStatementSetter.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute batch",
+                        new SQLException("value too long for type character varying(150)", "22001")));
+        batchWriter.start();
+
+        // When
+        CompletableFuture<Integer> invalid = batchWriter.submit(newRequest(1));
+
+        // Then
+        CompletionException exception = assertThrows(CompletionException.class, invalid::join);
+        assertEquals("Failed to save GDPR request: value too long for type character varying(150)", exception.getCause().getMessage());
+    }
+
+    @Test
+    void submit_WhenDisabled_ShouldThrowException() {
+        // Given
+        ReflectionTestUtils.setField(batchWriter, "enabled", false);
+        batchWriter.start();
+
+        // When & Then
+        assertFalse(batchWriter.isEnabled());
+        assertThrows(IllegalStateException.class, () -> batchWriter.submit(newRequest(1)));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    // Pooled-lo sequence: each call hands out a block of 50 ids
+    private List<Integer> reserveBlock(int count) {
+        int low = nextBlock.getAndAdd(50);
+        return IntStream.range(low, low + count).boxed().toList();
+    }
+
+    private GDPRRequest newRequest(Integer companyId) {
+        User user = new User();
+        user.setIdUser(1);
+        Company company = new Company();
+        company.setIdCompany(companyId);
+
+        GDPRRequest request = new GDPRRequest();
+        request.setRequestType(GDPRRequestService.REQUEST_TYPE_DELETION);
+        request.setStatus(GDPRRequestService.STATUS_PENDING);
+        request.setRequestDate(LocalDateTime.now());
+        request.setUser(user);
+        request.setCompany(company);
+        return request;
+    }
+}
@@ -0,0 +1,102 @@
+package be.helha.gdprapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class GDPRRequestEndpointsQueryCountTest extends QueryCountIntegrationTest {
+
+    private static final int TOTAL_REQUESTS = IntegrationTestData.CLIENTS * IntegrationTestData.REQUESTS_PER_CLIENT;
+
+    @Test
+    @ExpectedQueries(1)
+    void getAllGDPRRequests_ShouldLoadUsersAndCompaniesInOneStatement() throws Exception {
+        mockMvc.perform(get("/api/gdpr-requests").header("Authorization", adminToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(TOTAL_REQUESTS)));
+    }
+
+    @Test
+    @ExpectedQueries(1)
+    void getRequestsByStatus_ShouldUseOneStatement() throws Exception {
+        mockMvc.perform(get("/api/gdpr-requests/status/PENDING").header("Authorization", adminToken()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @ExpectedQueries(1)
+    void getRequestsByType_ShouldUseOneStatement() throws Exception {
+        mockMvc.perform(get("/api/gdpr-requests/type/DELETION").header("Authorization", adminToken()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @ExpectedQueries(1)
+    void getRecentRequests_ShouldUseOneStatement() throws Exception {
+        mockMvc.perform(get("/api/gdpr-requests/recent").header("Authorization", adminToken()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @ExpectedQueries(1)
+    void getRequestsBetweenDates_ShouldUseOneStatement() throws Exception {
+        LocalDateTime end = LocalDateTime.now();
+        mockMvc.perform(get("/api/gdpr-requests/date-range")
+                        .param("startDate", end.minusDays(7).toString())
+                        .param("endDate", end.toString())
+                        .header("Authorization", adminToken()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @ExpectedQueries(2)
+    void getCompanyGDPRRequests_ShouldLoadCompanyThenRequests() throws Exception {
+        mockMvc.perform(get("/api/gdpr-requests/company/1").header("Authorization", managerToken(1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(TOTAL_REQUESTS / IntegrationTestData.COMPANIES)));
+    }
+
+    @Test
+    @ExpectedQueries(2)
+    void getCompanyPendingRequests_ShouldLoadCompanyThenRequests() throws Exception {
+        mockMvc.perform(get("/api/gdpr-requests/company/1/pending").header("Authorization", managerToken(1)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @ExpectedQueries(3)
+    void getUserGDPRRequests_ShouldLoadUserThenRequests() throws Exception {
+        mockMvc.perform(get("/api/gdpr-requests/user/" + (IntegrationTestData.FIRST_CLIENT_ID + 1))
+                        .header("Authorization", adminToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(IntegrationTestData.REQUESTS_PER_CLIENT)));
+    }
+
+    @Test
+    @ExpectedQueries(2)
+    void getMyGDPRRequests_ShouldLoadUserThenRequests() throws Exception {
+        mockMvc.perform(get("/api/gdpr-requests/my-requests").header("Authorization", clientToken(1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(IntegrationTestData.REQUESTS_PER_CLIENT)));
+    }
+
+    @Test
+    @ExpectedQueries(5)
+    void getGDPRRequestStatistics_ShouldOnlyRunCounts() throws Exception {
+        mockMvc.perform(get("/api/gdpr-requests/statistics").header("Authorization", adminToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRequests").value(TOTAL_REQUESTS));
+    }
+
+    @Test
+    @ExpectedQueries(1)
+    void countRequestsByStatus_ShouldUseOneStatement() throws Exception {
+        mockMvc.perform(get("/api/gdpr-requests/count/status/PENDING").header("Authorization", adminToken()))
+                .andExpect(status().isOk());
+    }
+}
@@ -7,19 +7,37 @@ import be.helha.gdprapp.models.User;
 import be.helha.gdprapp.repositories.CompanyRepository;
 import be.helha.gdprapp.repositories.GDPRRequestRepository;
 import be.helha.gdprapp.repositories.UserRepository;
+import be.helha.gdprapp.security.CurrentUserContext;
+import be.helha.gdprapp.security.UserPrincipal;
+import be.helha.gdprapp.services.CompanyNotificationService;
+import be.helha.gdprapp.services.DeadlineTracker;
 import be.helha.gdprapp.services.EmailService;
+import be.helha.gdprapp.services.GDPRRequestArchiveService;
+import be.helha.gdprapp.services.GDPRRequestBatchWriter;
 import be.helha.gdprapp.services.GDPRRequestService;
+import be.helha.gdprapp.services.ProcessingTimeAnalytics;
+import be.helha.gdprapp.services.RequestRollupService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -41,6 +59,27 @@ class GDPRRequestServiceTest {
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private CompanyNotificationService companyNotificationService;
+
+    @Mock
+    private DeadlineTracker deadlineTracker;
+
+    @Mock
+    private ProcessingTimeAnalytics processingTimeAnalytics;
+
+    @Mock
+    private RequestRollupService requestRollupService;
+
+    @Mock
+    private GDPRRequestArchiveService gdprRequestArchiveService;
+
+    @Spy
+    private CurrentUserContext currentUserContext = new CurrentUserContext();
+
+    @Mock
+    private GDPRRequestBatchWriter gdprRequestBatchWriter;
+
     @InjectMocks
     private GDPRRequestService gdprRequestService;
 
@@ -126,6 +165,43 @@ class GDPRRequestServiceTest {
         // Then
         assertFalse(result.isPresent());
         verify(gdprRequestRepository).findById(999);
+        verify(gdprRequestArchiveService).findRequest(999);
+    }
+
+    @Test
+    void getGDPRRequestById_WhenRequestIsArchived_ShouldReturnArchivedRequest() {
+        // Given
+        testGDPRRequest.setStatus(GDPRRequestService.STATUS_PROCESSED);
+        when(gdprRequestRepository.findById(1)).thenReturn(Optional.empty());
+        when(gdprRequestArchiveService.findRequest(1)).thenReturn(Optional.of(testGDPRRequest));
+
+        // When
+        Optional<GDPRRequest> result = gdprRequestService.getGDPRRequestById(1);
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals(testGDPRRequest.getIdRequest(), result.get().getIdRequest());
+    }
+
+    @Test
+    void getUserGDPRRequests_WithArchivedRequests_ShouldMergeHistoryByDate() {
+        // Given
+        GDPRRequest archivedRequest = new GDPRRequest();
+        archivedRequest.setIdRequest(2);
+        archivedRequest.setStatus(GDPRRequestService.STATUS_PROCESSED);
+        archivedRequest.setRequestDate(LocalDateTime.now().minusYears(2));
+        archivedRequest.setUser(testUser);
+        when(userRepository.findById(1)).thenReturn(Optional.of(testUser));
+        when(gdprRequestRepository.findByUserOrderByRequestDateDesc(testUser)).thenReturn(testRequests);
+        when(gdprRequestArchiveService.findUserRequests(1)).thenReturn(List.of(archivedRequest));
+
+        // When
+        List<GDPRRequest> result = gdprRequestService.getUserGDPRRequests(1);
+
+        // Then
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(0).getIdRequest());
+        assertEquals(2, result.get(1).getIdRequest());
     }
 
     @Test
@@ -214,18 +290,70 @@ class GDPRRequestServiceTest {
         newRequest.setUser(testUser);
         newRequest.setCompany(testCompany);
 
-        when(userRepository.findById(1)).thenReturn(Optional.of(testUser));
-        when(companyRepository.findById(1)).thenReturn(Optional.of(testCompany));
-        when(gdprRequestRepository.save(any(GDPRRequest.class))).thenReturn(testGDPRRequest);
+        when(gdprRequestRepository.saveAndFlush(any(GDPRRequest.class))).thenReturn(testGDPRRequest);
+        when(gdprRequestRepository.findRequestParties(1, 1)).thenReturn(Optional.of(requestParties()));
 
         // When
         GDPRRequest result = gdprRequestService.createGDPRRequest(newRequest);
 
         // Then
         assertNotNull(result);
-        verify(gdprRequestRepository).save(any(GDPRRequest.class));
-        verify(emailService).sendGDPRRequestConfirmation(testUser, testGDPRRequest);
-        verify(emailService).sendGDPRRequestNotification(testCompany, testGDPRRequest);
+        assertEquals(testGDPRRequest.getIdRequest(), result.getIdRequest());
+        assertEquals(testUser.getEmail(), result.getUser().getEmail());
+        assertEquals(testCompany.getEmail(), result.getCompany().getEmail());
+        verify(userRepository).getReferenceById(1);
+        verify(companyRepository).getReferenceById(1);
+        verify(userRepository, never()).findById(any());
+        verify(companyRepository, never()).findById(any());
+        verify(gdprRequestRepository).saveAndFlush(any(GDPRRequest.class));
+        verify(gdprRequestRepository).findRequestParties(1, 1);
+        verify(emailService).sendGDPRRequestConfirmation(result.getUser(), result);
+        verify(companyNotificationService).notifyNewRequest(result);
+        verify(deadlineTracker).track(result.getIdRequest(), result.getDueDate(), 0);
+        verify(requestRollupService).recordCreated(List.of(testGDPRRequest));
+    }
+
+    @Test
+    void createGDPRRequest_WithUnknownUserOrCompany_ShouldThrowException() {
+        // Given
+        GDPRRequest newRequest = new GDPRRequest();
+        newRequest.setRequestType(GDPRRequestService.REQUEST_TYPE_MODIFICATION);
+        newRequest.setUser(testUser);
+        newRequest.setCompany(testCompany);
+
+        when(gdprRequestRepository.saveAndFlush(any(GDPRRequest.class)))
+                .thenThrow(new DataIntegrityViolationException("fk_gdpr_requests_id_company",
+                        new SQLException("insert violates foreign key constraint", "23503")));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                gdprRequestService.createGDPRRequest(newRequest)
+        );
+
+        assertEquals("User or company not found", exception.getMessage());
+        verify(gdprRequestRepository, never()).findRequestParties(any(), any());
+        verifyNoInteractions(emailService, requestRollupService);
+    }
+
+    @Test
+    void createGDPRRequest_WhenOtherConstraintFails_ShouldReportDatabaseError() {
+        // Given - request_content is longer than the column
+        GDPRRequest newRequest = new GDPRRequest();
+        newRequest.setRequestType(GDPRRequestService.REQUEST_TYPE_MODIFICATION);
+        newRequest.setUser(testUser);
+        newRequest.setCompany(testCompany);
+
+        when(gdprRequestRepository.saveAndFlush(any(GDPRRequest.class)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLException("value too long for type character varying(150)", "22001")));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                gdprRequestService.createGDPRRequest(newRequest)
+        );
+
+        assertEquals("Failed to save GDPR request: value too long for type character varying(150)", exception.getMessage());
+        verifyNoInteractions(emailService);
     }
 
     @Test
@@ -242,7 +370,7 @@ class GDPRRequestServiceTest {
         );
 
         assertEquals("Request type cannot be null or empty", exception.getMessage());
-        verify(gdprRequestRepository, never()).save(any(GDPRRequest.class));
+        verify(gdprRequestRepository, never()).saveAndFlush(any(GDPRRequest.class));
     }
 
     @Test
@@ -259,7 +387,7 @@ class GDPRRequestServiceTest {
         );
 
         assertEquals("Request type cannot be null or empty", exception.getMessage());
-        verify(gdprRequestRepository, never()).save(any(GDPRRequest.class));
+        verify(gdprRequestRepository, never()).saveAndFlush(any(GDPRRequest.class));
     }
 
 
@@ -278,7 +406,7 @@ class GDPRRequestServiceTest {
         );
 
         assertEquals("User cannot be null", exception.getMessage());
-        verify(gdprRequestRepository, never()).save(any(GDPRRequest.class));
+        verify(gdprRequestRepository, never()).saveAndFlush(any(GDPRRequest.class));
     }
 
     @Test
@@ -289,9 +417,8 @@ class GDPRRequestServiceTest {
         newRequest.setUser(testUser);
         newRequest.setCompany(testCompany);
 
-        when(userRepository.findById(1)).thenReturn(Optional.of(testUser));
-        when(companyRepository.findById(1)).thenReturn(Optional.of(testCompany));
-        when(gdprRequestRepository.save(any(GDPRRequest.class))).thenReturn(testGDPRRequest);
+        when(gdprRequestRepository.saveAndFlush(any(GDPRRequest.class))).thenReturn(testGDPRRequest);
+        when(gdprRequestRepository.findRequestParties(1, 1)).thenReturn(Optional.of(requestParties()));
         doThrow(new RuntimeException("Email service error")).when(emailService)
                 .sendGDPRRequestConfirmation(any(User.class), any(GDPRRequest.class));
 
@@ -300,9 +427,53 @@ class GDPRRequestServiceTest {
 
         // Then
         assertNotNull(result);
-        verify(gdprRequestRepository).save(any(GDPRRequest.class));
-        verify(emailService).sendGDPRRequestConfirmation(testUser, testGDPRRequest);
-        verify(emailService).sendGDPRRequestNotification(testCompany, testGDPRRequest);
+        verify(gdprRequestRepository).saveAndFlush(any(GDPRRequest.class));
+        verify(emailService).sendGDPRRequestConfirmation(result.getUser(), result);
+        verify(companyNotificationService).notifyNewRequest(result);
+    }
+
+    @Test
+    void createGDPRRequestGrouped_ShouldUseGeneratedIdFromBatchWriter() {
+        // Given
+        GDPRRequest newRequest = new GDPRRequest();
+        newRequest.setRequestType(GDPRRequestService.REQUEST_TYPE_MODIFICATION);
+        newRequest.setRequestContent("  Test request  ");
+        newRequest.setUser(testUser);
+        newRequest.setCompany(testCompany);
+
+        when(gdprRequestBatchWriter.submit(newRequest)).thenReturn(CompletableFuture.completedFuture(42));
+        when(gdprRequestRepository.findRequestParties(1, 1)).thenReturn(Optional.of(requestParties()));
+
+        // When
+        GDPRRequest result = gdprRequestService.createGDPRRequestGrouped(newRequest);
+
+        // Then
+        assertEquals(42, result.getIdRequest());
+        assertEquals("Test request", result.getRequestContent());
+        assertEquals(GDPRRequestService.STATUS_PENDING, result.getStatus());
+        verify(gdprRequestRepository, never()).saveAndFlush(any(GDPRRequest.class));
+        verify(emailService).sendGDPRRequestConfirmation(result.getUser(), result);
+        verify(companyNotificationService).notifyNewRequest(result);
+    }
+
+    @Test
+    void createGDPRRequestGrouped_WhenBatchRejectsRow_ShouldThrowException() {
+        // Given
+        GDPRRequest newRequest = new GDPRRequest();
+        newRequest.setRequestType(GDPRRequestService.REQUEST_TYPE_DELETION);
+        newRequest.setUser(testUser);
+        newRequest.setCompany(testCompany);
+
+        when(gdprRequestBatchWriter.submit(newRequest))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("User or company not found")));
+
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class, () ->
+                gdprRequestService.createGDPRRequestGrouped(newRequest)
+        );
+
+        assertEquals("User or company not found", exception.getMessage());
+        verifyNoInteractions(emailService);
     }
 
     @Test
@@ -318,6 +489,26 @@ class GDPRRequestServiceTest {
         assertNotNull(result);
         verify(gdprRequestRepository).save(testGDPRRequest);
         verify(emailService).sendGDPRRequestStatusUpdate(eq(testUser), eq(testGDPRRequest), eq(GDPRRequestService.STATUS_PENDING));
+        verify(deadlineTracker).cancel(1);
+        verify(requestRollupService).recordStatusChange(testGDPRRequest, GDPRRequestService.STATUS_PENDING);
+        assertNotNull(result.getProcessedDate());
+        verify(processingTimeAnalytics).recordProcessed(1, testGDPRRequest.getRequestDate(), result.getProcessedDate());
+    }
+
+    @Test
+    void updateRequestStatus_WhenReopened_ShouldClearProcessedDate() {
+        // Given
+        testGDPRRequest.setStatus(GDPRRequestService.STATUS_PROCESSED);
+        testGDPRRequest.setProcessedDate(LocalDateTime.now());
+        when(gdprRequestRepository.findById(1)).thenReturn(Optional.of(testGDPRRequest));
+        when(gdprRequestRepository.save(any(GDPRRequest.class))).thenReturn(testGDPRRequest);
+
+        // When
+        GDPRRequest result = gdprRequestService.updateRequestStatus(1, GDPRRequestService.STATUS_PENDING);
+
+        // Then
+        assertNull(result.getProcessedDate());
+        verify(processingTimeAnalytics, never()).recordProcessed(any(), any(), any());
     }
 
     @Test
@@ -380,19 +571,20 @@ class GDPRRequestServiceTest {
     @Test
     void deleteGDPRRequest_WhenRequestExists_ShouldDeleteRequest() {
         // Given
-        when(gdprRequestRepository.existsById(1)).thenReturn(true);
+        when(gdprRequestRepository.findById(1)).thenReturn(Optional.of(testGDPRRequest));
 
         // When
         gdprRequestService.deleteGDPRRequest(1);
 
         // Then
-        verify(gdprRequestRepository).deleteById(1);
+        verify(gdprRequestRepository).delete(testGDPRRequest);
+        verify(requestRollupService).recordDeleted(testGDPRRequest);
     }
 
     @Test
     void deleteGDPRRequest_WhenRequestDoesNotExist_ShouldThrowException() {
         // Given
-        when(gdprRequestRepository.existsById(999)).thenReturn(false);
+        when(gdprRequestRepository.findById(999)).thenReturn(Optional.empty());
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () ->
@@ -400,7 +592,22 @@ class GDPRRequestServiceTest {
         );
 
         assertEquals("GDPR request not found with id: 999", exception.getMessage());
-        verify(gdprRequestRepository, never()).deleteById(999);
+        verify(gdprRequestRepository, never()).delete(any(GDPRRequest.class));
+        verify(requestRollupService, never()).recordDeleted(any());
+    }
+
+    @Test
+    void deleteGDPRRequest_WhenRequestIsArchived_ShouldDeleteFromArchive() {
+        // Given
+        when(gdprRequestRepository.findById(1)).thenReturn(Optional.empty());
+        when(gdprRequestArchiveService.deleteRequest(1)).thenReturn(Optional.of(testGDPRRequest));
+
+        // When
+        gdprRequestService.deleteGDPRRequest(1);
+
+        // Then
+        verify(gdprRequestRepository, never()).delete(any(GDPRRequest.class));
+        verify(gdprRequestArchiveService).deleteRequest(1);
     }
 
     @Test
@@ -524,8 +731,8 @@ class GDPRRequestServiceTest {
         when(gdprRequestRepository.count()).thenReturn(10L);
         when(gdprRequestRepository.countByStatus(GDPRRequestService.STATUS_PENDING)).thenReturn(6L);
         when(gdprRequestRepository.countByStatus(GDPRRequestService.STATUS_PROCESSED)).thenReturn(4L);
-        when(gdprRequestRepository.findByRequestType(GDPRRequestService.REQUEST_TYPE_MODIFICATION)).thenReturn(testRequests);
-        when(gdprRequestRepository.findByRequestType(GDPRRequestService.REQUEST_TYPE_DELETION)).thenReturn(testRequests);
+        when(gdprRequestRepository.countByRequestType(GDPRRequestService.REQUEST_TYPE_MODIFICATION)).thenReturn(1L);
+        when(gdprRequestRepository.countByRequestType(GDPRRequestService.REQUEST_TYPE_DELETION)).thenReturn(1L);
 
         // When
         GDPRRequestService.GDPRRequestStatistics stats = gdprRequestService.getGDPRRequestStatistics();
@@ -578,6 +785,34 @@ class GDPRRequestServiceTest {
         verify(gdprRequestRepository).findById(999);
     }
 
+    @Test
+    void canCurrentUserAccessRequest_ShouldShareLookupWithHandler() {
+        // Given
+        authenticateAs(1, "CLIENT");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(gdprRequestRepository.findById(1)).thenReturn(Optional.of(testGDPRRequest));
+
+        // When
+        boolean allowed = gdprRequestService.canCurrentUserAccessRequest(1);
+        Optional<GDPRRequest> result = gdprRequestService.getGDPRRequestById(1);
+
+        // Then
+        assertTrue(allowed);
+        assertTrue(result.isPresent());
+        verify(gdprRequestRepository, times(1)).findById(1);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void canCurrentUserAccessRequest_WhenAnonymous_ShouldReturnFalseWithoutQuery() {
+        // When
+        boolean allowed = gdprRequestService.canCurrentUserAccessRequest(1);
+
+        // Then
+        assertFalse(allowed);
+        verifyNoInteractions(gdprRequestRepository);
+    }
+
     @Test
     void isValidRequestType_WithValidTypes_ShouldReturnTrue() {
         // When & Then
@@ -627,4 +862,27 @@ class GDPRRequestServiceTest {
         assertTrue(result.contains(GDPRRequestService.STATUS_PENDING));
         assertTrue(result.contains(GDPRRequestService.STATUS_PROCESSED));
     }
-}
\ No newline at end of file
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private GDPRRequestRepository.RequestParties requestParties() {
+        return new GDPRRequestRepository.RequestParties() {
+            public String getFirstname() { return testUser.getFirstname(); }
+            public String getLastname() { return testUser.getLastname(); }
+            public String getUserEmail() { return testUser.getEmail(); }
+            public String getCompanyName() { return testCompany.getCompanyName(); }
+            public String getCompanyEmail() { return testCompany.getEmail(); }
+            public String getCompanyNotificationMode() { return null; }
+        };
+    }
+
+    private void authenticateAs(Integer userId, String role) {
+        UserPrincipal principal = new UserPrincipal(userId, "user" + userId + "@example.com", role, null, true);
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+    }
+}
@@ -0,0 +1,72 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.models.Company;
+import be.helha.gdprapp.models.GDPRRequest;
+import be.helha.gdprapp.models.User;
+import be.helha.gdprapp.services.GDPRRequestService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Request creation through the group commit writer on H2: ids reserved from the sequence
+ * with the dialect's statement, JDBC batch insert and rollup update in one transaction.
+ */
+@TestPropertySource(properties = "app.gdpr.group-commit.enabled=true")
+class GroupCommitIntegrationTest extends QueryCountIntegrationTest {
+
+    @Autowired
+    private GDPRRequestService gdprRequestService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void createGDPRRequestGrouped_ShouldInsertConcurrentRequests() {
+        // Given
+        assertTrue(gdprRequestService.isGroupCommitEnabled());
+
+        // When
+        List<CompletableFuture<GDPRRequest>> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int company = i + 1;
+            created.add(CompletableFuture.supplyAsync(() -> gdprRequestService.createGDPRRequestGrouped(newRequest(company))));
+        }
+
+        // Then
+        for (CompletableFuture<GDPRRequest> request : created) {
+            Integer id = request.join().getIdRequest();
+            assertNotNull(id);
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM gdpr_requests WHERE id_request = ?", Integer.class, id));
+        }
+    }
+
+    @Test
+    void createGDPRRequestGrouped_WithUnknownCompany_ShouldThrowException() {
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> gdprRequestService.createGDPRRequestGrouped(newRequest(IntegrationTestData.COMPANIES + 100)));
+        assertEquals("User or company not found", exception.getMessage());
+    }
+
+    private GDPRRequest newRequest(int companyId) {
+        User user = new User();
+        user.setIdUser(IntegrationTestData.FIRST_CLIENT_ID + 1);
+        Company company = new Company();
+        company.setIdCompany(companyId);
+
+        GDPRRequest request = new GDPRRequest();
+        request.setRequestType(GDPRRequestService.REQUEST_TYPE_DELETION);
+        request.setRequestContent("Group commit request");
+        request.setUser(user);
+        request.setCompany(company);
+        return request;
+    }
+}
@@ -0,0 +1,64 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.utils.HashedTimerWheel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedTimerWheelTest {
+
+    // 8 buckets of 10 ms: one revolution is 80 ms
+    private final HashedTimerWheel<String> wheel = new HashedTimerWheel<>(10, 8, 1000);
+
+    @Test
+    void expire_ShouldReturnTasksOnceTheirDeadlineIsReached() {
+        // Given
+        wheel.schedule("a", 1025);
+        wheel.schedule("b", 1030);
+
+        // When & Then - deadlines are rounded up to the next tick
+        assertEquals(List.of(), wheel.expire(1029));
+        assertEquals(List.of("a", "b"), wheel.expire(1030));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void expire_WhenDeadlineIsSeveralRevolutionsAway_ShouldWaitForTheLastRound() {
+        // Given - same bucket as 1020, three revolutions later
+        wheel.schedule("late", 1260);
+        wheel.schedule("soon", 1020);
+
+        // When & Then
+        assertEquals(List.of("soon"), wheel.expire(1100));
+        assertEquals(List.of(), wheel.expire(1259));
+        assertEquals(List.of("late"), wheel.expire(1260));
+    }
+
+    @Test
+    void schedule_WhenDeadlineHasPassed_ShouldExpireOnNextTick() {
+        // Given
+        wheel.expire(1500);
+
+        // When
+        wheel.schedule("overdue", 1100);
+
+        // Then
+        assertEquals(List.of("overdue"), wheel.expire(1510));
+    }
+
+    @Test
+    void cancel_ShouldRemovePendingTimeout() {
+        // Given
+        HashedTimerWheel.Timeout<String> timeout = wheel.schedule("cancelled", 1050);
+        wheel.schedule("kept", 1050);
+
+        // When
+        assertTrue(wheel.cancel(timeout));
+
+        // Then
+        assertFalse(wheel.cancel(timeout));
+        assertEquals(List.of("kept"), wheel.expire(1050));
+    }
+}
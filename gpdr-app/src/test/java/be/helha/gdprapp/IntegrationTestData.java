@@ -0,0 +1,93 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.services.GDPRRequestService;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic data set of realistic size for the integration tests:
+ * 50 companies with one manager each, 1 admin, 1000 clients and 5 requests per client (5000 requests).
+ * Inserted once per database with explicit ids, sequences are moved past them.
+ */
+final class IntegrationTestData {
+
+    static final int COMPANIES = 50;
+    static final int CLIENTS = 1000;
+    static final int REQUESTS_PER_CLIENT = 5;
+
+    static final int ADMIN_ID = 1;
+    static final int FIRST_MANAGER_ID = 2;
+    static final int FIRST_CLIENT_ID = FIRST_MANAGER_ID + COMPANIES;
+
+    static final String ADMIN_EMAIL = "admin@gdprapp.test";
+    // Any bcrypt hash: tests authenticate with tokens, never with the password
+    private static final String PASSWORD_HASH = "$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z4gfXN7zQnNnB3tVfFBg1aJ2";
+
+    private IntegrationTestData() {
+    }
+
+    static synchronized void seed(JdbcTemplate jdbcTemplate) {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM companies", Integer.class);
+        if (existing != null && existing > 0) {
+            return;
+        }
+
+        // Roles are created at startup by DataInitializer
+        int adminRole = roleId(jdbcTemplate, "ADMIN");
+        int clientRole = roleId(jdbcTemplate, "CLIENT");
+        int managerRole = roleId(jdbcTemplate, "GERANT");
+
+        List<Object[]> companies = new ArrayList<>();
+        for (int i = 1; i <= COMPANIES; i++) {
+            companies.add(new Object[] {i, "Company " + i, "contact" + i + "@company.test"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO companies (id_company, company_name, email) VALUES (?, ?, ?)", companies);
+
+        List<Object[]> users = new ArrayList<>();
+        users.add(new Object[] {ADMIN_ID, "Ada", "Admin", ADMIN_EMAIL, PASSWORD_HASH, true, adminRole, null});
+        for (int i = 0; i < COMPANIES; i++) {
+            users.add(new Object[] {FIRST_MANAGER_ID + i, "Manager", "M" + i, managerEmail(i), PASSWORD_HASH, true, managerRole, i + 1});
+        }
+        for (int i = 0; i < CLIENTS; i++) {
+            // One client in ten is inactive
+            users.add(new Object[] {FIRST_CLIENT_ID + i, "Client", "C" + i, clientEmail(i), PASSWORD_HASH, i % 10 != 0, clientRole, null});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id_user, firstname, lastname, email, password, active, id_role, id_company) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", users);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> requests = new ArrayList<>();
+        int requestId = 1;
+        for (int i = 0; i < CLIENTS; i++) {
+            for (int j = 0; j < REQUESTS_PER_CLIENT; j++) {
+                String type = j % 2 == 0 ? GDPRRequestService.REQUEST_TYPE_DELETION : GDPRRequestService.REQUEST_TYPE_MODIFICATION;
+                String status = j % 3 == 0 ? GDPRRequestService.STATUS_PROCESSED : GDPRRequestService.STATUS_PENDING;
+                Timestamp date = Timestamp.valueOf(now.minusDays((i * REQUESTS_PER_CLIENT + j) % 90));
+                requests.add(new Object[] {requestId++, type, status, date, "Request " + j + " of client " + i,
+                        FIRST_CLIENT_ID + i, (i + j) % COMPANIES + 1});
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO gdpr_requests (id_request, request_type, status, request_date, request_content, id_user, id_company) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", requests);
+
+        jdbcTemplate.execute("ALTER SEQUENCE companies_seq RESTART WITH " + (COMPANIES + 1));
+        jdbcTemplate.execute("ALTER SEQUENCE users_seq RESTART WITH " + (FIRST_CLIENT_ID + CLIENTS));
+        jdbcTemplate.execute("ALTER SEQUENCE gdpr_requests_seq RESTART WITH " + requestId);
+    }
+
+    static String managerEmail(int index) {
+        return "manager" + index + "@company.test";
+    }
+
+    static String clientEmail(int index) {
+        return "client" + index + "@gdprapp.test";
+    }
+
+    private static int roleId(JdbcTemplate jdbcTemplate, String role) {
+        return jdbcTemplate.queryForObject("SELECT id_role FROM roles WHERE role = ?", Integer.class, role);
+    }
+}
@@ -0,0 +1,166 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.services.OutboundMailScheduler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundMailSchedulerTest {
+
+    private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+    private final List<CompletableFuture<Void>> deliveries = new ArrayList<>();
+    private final CountDownLatch senderBusy = new CountDownLatch(1);
+    private final CountDownLatch releaseSender = new CountDownLatch(1);
+    private OutboundMailScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        // A single sender, so the order of the deliveries is the scheduling order
+        scheduler = new OutboundMailScheduler();
+        ReflectionTestUtils.setField(scheduler, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(scheduler, "enabled", true);
+        ReflectionTestUtils.setField(scheduler, "workers", 1);
+        ReflectionTestUtils.setField(scheduler, "reservedWorkers", 0);
+        ReflectionTestUtils.setField(scheduler, "laneCapacity", 5);
+        ReflectionTestUtils.setField(scheduler, "tenantWeights", "company-3:2");
+        ReflectionTestUtils.setField(scheduler, "shutdownTimeoutMs", 5000L);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        releaseSender.countDown();
+        scheduler.stop();
+    }
+
+    @Test
+    void submit_ShouldServeHigherLanesFirstAndAlternateTenants() throws Exception {
+        // Given
+        scheduler.start();
+        occupySender();
+
+        // When - company 1 floods the operational lane before company 2 and the other lanes
+        queue(OutboundMailScheduler.Lane.BULK, "system", "campaign");
+        queue(OutboundMailScheduler.Lane.OPERATIONAL, "company-1", "c1-a");
+        queue(OutboundMailScheduler.Lane.OPERATIONAL, "company-1", "c1-b");
+        queue(OutboundMailScheduler.Lane.OPERATIONAL, "company-1", "c1-c");
+        queue(OutboundMailScheduler.Lane.OPERATIONAL, "company-2", "c2-a");
+        queue(OutboundMailScheduler.Lane.TRANSACTIONAL, "system", "password-reset");
+        assertEquals(4, scheduler.getDepth(OutboundMailScheduler.Lane.OPERATIONAL));
+        awaitDeliveries();
+
+        // Then
+        assertEquals(List.of("password-reset", "c1-a", "c2-a", "c1-b", "c1-c", "campaign"), sent);
+    }
+
+    @Test
+    void submit_ShouldGiveWeightedTenantsMoreTurns() throws Exception {
+        // Given
+        scheduler.start();
+        occupySender();
+
+        // When - company 3 weighs 2
+        queue(OutboundMailScheduler.Lane.OPERATIONAL, "company-3", "c3-a");
+        queue(OutboundMailScheduler.Lane.OPERATIONAL, "company-3", "c3-b");
+        queue(OutboundMailScheduler.Lane.OPERATIONAL, "company-3", "c3-c");
+        queue(OutboundMailScheduler.Lane.OPERATIONAL, "company-4", "c4-a");
+        queue(OutboundMailScheduler.Lane.OPERATIONAL, "company-4", "c4-b");
+        awaitDeliveries();
+
+        // Then
+        assertEquals(List.of("c3-a", "c3-b", "c4-a", "c3-c", "c4-b"), sent);
+    }
+
+    @Test
+    void submit_WhenLaneIsFull_ShouldReject() throws Exception {
+        // Given
+        scheduler.start();
+        occupySender();
+        for (int i = 0; i < 5; i++) {
+            queue(OutboundMailScheduler.Lane.BULK, "system", "campaign-" + i);
+        }
+
+        // When & Then - other lanes still accept mail
+        assertThrows(RuntimeException.class, () -> queue(OutboundMailScheduler.Lane.BULK, "system", "campaign-5"));
+        queue(OutboundMailScheduler.Lane.TRANSACTIONAL, "system", "password-reset");
+        awaitDeliveries();
+        assertEquals("password-reset", sent.get(0));
+        assertEquals(6, sent.size());
+    }
+
+    @Test
+    void submit_WhenNotStarted_ShouldDeliverOnCaller() {
+        // When
+        CompletableFuture<Void> delivery = scheduler.submit(OutboundMailScheduler.Lane.BULK, null, () -> sent.add("inline"));
+
+        // Then
+        assertTrue(delivery.isDone());
+        assertEquals(List.of("inline"), sent);
+    }
+
+    @Test
+    void submit_AfterStop_ShouldDeliverOnCaller() throws Exception {
+        // Given
+        scheduler.start();
+        scheduler.stop();
+
+        // When
+        CompletableFuture<Void> delivery = scheduler.submit(OutboundMailScheduler.Lane.OPERATIONAL, "company-1", () -> sent.add("inline"));
+
+        // Then
+        assertTrue(delivery.isDone());
+        assertEquals(List.of("inline"), sent);
+    }
+
+    @Test
+    void stop_WhenSendersDoNotDrainInTime_ShouldFailQueuedDeliveries() throws Exception {
+        // Given - the only sender is stuck on an e-mail
+        ReflectionTestUtils.setField(scheduler, "shutdownTimeoutMs", 100L);
+        scheduler.start();
+        occupySender();
+        queue(OutboundMailScheduler.Lane.OPERATIONAL, "company-1", "c1-a");
+        queue(OutboundMailScheduler.Lane.BULK, "system", "campaign");
+
+        // When
+        scheduler.stop();
+
+        // Then
+        for (CompletableFuture<Void> delivery : deliveries) {
+            assertTrue(delivery.isCompletedExceptionally());
+        }
+        assertEquals(0, scheduler.getDepth(OutboundMailScheduler.Lane.OPERATIONAL));
+        assertTrue(sent.isEmpty());
+    }
+
+    // Keep the only sender busy until the test has queued its e-mails
+    private void occupySender() throws InterruptedException {
+        scheduler.submit(OutboundMailScheduler.Lane.OPERATIONAL, "blocker", () -> {
+            senderBusy.countDown();
+            try {
+                releaseSender.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(senderBusy.await(5, TimeUnit.SECONDS));
+    }
+
+    private void queue(OutboundMailScheduler.Lane lane, String tenant, String name) {
+        deliveries.add(scheduler.submit(lane, tenant, () -> sent.add(name)));
+    }
+
+    private void awaitDeliveries() throws Exception {
+        releaseSender.countDown();
+        CompletableFuture.allOf(deliveries.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,124 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.repositories.GDPRRequestRepository;
+import be.helha.gdprapp.services.ProcessingTimeAnalytics;
+import be.helha.gdprapp.services.ProcessingTimeSketchService;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessingTimeAnalyticsTest {
+
+    private static final LocalDateTime REQUEST_DATE = LocalDateTime.of(2025, 3, 1, 10, 0);
+
+    @Mock
+    private ProcessingTimeSketchService processingTimeSketchService;
+
+    @Mock
+    private GDPRRequestRepository gdprRequestRepository;
+
+    @InjectMocks
+    private ProcessingTimeAnalytics processingTimeAnalytics;
+
+    @Test
+    void getReport_ShouldServePercentilesPerCompanyAndOverall() {
+        // Given - company 1 answers in 1 to 100 hours, company 2 always in 200 hours
+        for (int hours = 1; hours <= 100; hours++) {
+            processingTimeAnalytics.recordProcessed(1, REQUEST_DATE, REQUEST_DATE.plusHours(hours));
+        }
+        processingTimeAnalytics.recordProcessed(2, REQUEST_DATE, REQUEST_DATE.plusHours(200));
+        when(gdprRequestRepository.findCompanyBacklogs()).thenReturn(List.of(backlog(2, 3L, LocalDateTime.now().minusHours(10))));
+
+        // When
+        ProcessingTimeAnalytics.ProcessingTimeReport report = processingTimeAnalytics.getReport();
+
+        // Then - within the 0.1% precision of the histograms
+        ProcessingTimeAnalytics.ProcessingTimeStatistics company1 = report.getCompanies().get(0);
+        assertEquals(100, company1.getProcessedRequests());
+        assertEquals(50, company1.getP50Hours(), 0.1);
+        assertEquals(90, company1.getP90Hours(), 0.1);
+        assertEquals(99, company1.getP99Hours(), 0.1);
+        assertEquals(0, company1.getPendingRequests());
+
+        ProcessingTimeAnalytics.ProcessingTimeStatistics company2 = report.getCompanies().get(1);
+        assertEquals(3, company2.getPendingRequests());
+        assertEquals(10, company2.getOldestPendingHours(), 0.1);
+
+        assertEquals(101, report.getOverall().getProcessedRequests());
+        assertEquals(200, report.getOverall().getMaxHours(), 0.2);
+        assertEquals(3, report.getOverall().getPendingRequests());
+    }
+
+    @Test
+    void flush_ShouldReplaceLocalHistogramWithStoredOne() {
+        // Given - another instance already stored one sample for the company
+        processingTimeAnalytics.recordProcessed(1, REQUEST_DATE, REQUEST_DATE.plusHours(1));
+        when(processingTimeSketchService.merge(eq(1), any(Histogram.class))).thenAnswer(invocation -> {
+            Histogram stored = ProcessingTimeSketchService.newHistogram();
+            stored.recordValue(7200);
+            stored.add(invocation.getArgument(1, Histogram.class));
+            return stored;
+        });
+
+        // When
+        processingTimeAnalytics.flush();
+        processingTimeAnalytics.flush();
+
+        // Then - merged once, nothing left to save
+        verify(processingTimeSketchService, times(1)).merge(eq(1), any(Histogram.class));
+        assertEquals(2, processingTimeAnalytics.getCompanyStatistics(1).getProcessedRequests());
+    }
+
+    @Test
+    void flush_WhenSaveFails_ShouldKeepSamplesForNextFlush() {
+        // Given
+        processingTimeAnalytics.recordProcessed(1, REQUEST_DATE, REQUEST_DATE.plusHours(1));
+        when(processingTimeSketchService.merge(eq(1), any(Histogram.class)))
+                .thenThrow(new RuntimeException("Database unavailable"))
+                .thenAnswer(invocation -> invocation.getArgument(1, Histogram.class).copy());
+
+        // When
+        processingTimeAnalytics.flush();
+        processingTimeAnalytics.flush();
+
+        // Then
+        verify(processingTimeSketchService, times(2)).merge(eq(1), argThat(samples -> samples.getTotalCount() == 1));
+        assertEquals(1, processingTimeAnalytics.getCompanyStatistics(1).getProcessedRequests());
+    }
+
+    @Test
+    void start_ShouldLoadStoredHistograms() {
+        // Given
+        Histogram stored = ProcessingTimeSketchService.newHistogram();
+        stored.recordValue(3600);
+        when(processingTimeSketchService.loadSketches()).thenReturn(Map.of(1, ProcessingTimeSketchService.decode(ProcessingTimeSketchService.encode(stored))));
+
+        // When
+        processingTimeAnalytics.start();
+
+        // Then
+        ProcessingTimeAnalytics.ProcessingTimeStatistics stats = processingTimeAnalytics.getCompanyStatistics(1);
+        assertEquals(1, stats.getProcessedRequests());
+        assertEquals(1, stats.getP50Hours(), 0.01);
+    }
+
+    private GDPRRequestRepository.CompanyBacklog backlog(Integer companyId, Long pending, LocalDateTime oldest) {
+        return new GDPRRequestRepository.CompanyBacklog() {
+            public Integer getIdCompany() { return companyId; }
+            public Long getPending() { return pending; }
+            public LocalDateTime getOldestRequestDate() { return oldest; }
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.services.QueryStatisticsService;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Checks the @ExpectedQueries budget of a test method
+class QueryCountExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        queryStatistics(context).reset();
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        ExpectedQueries expected = context.getRequiredTestMethod().getAnnotation(ExpectedQueries.class);
+        if (expected == null || context.getExecutionException().isPresent()) {
+            return;
+        }
+
+        long statements = queryStatistics(context).getTopQueries(Integer.MAX_VALUE).stream()
+                .mapToLong(QueryStatisticsService.QueryStatistics::getCount)
+                .sum();
+        assertTrue(statements <= expected.value(),
+                "Expected at most " + expected.value() + " SQL statements, got " + statements + ": "
+                        + queryStatistics(context).getTopQueries(Integer.MAX_VALUE).stream()
+                        .map(QueryStatisticsService.QueryStatistics::getSql).toList());
+    }
+
+    private QueryStatisticsService queryStatistics(ExtensionContext context) {
+        return SpringExtension.getApplicationContext(context).getBean(QueryStatisticsService.class);
+    }
+}
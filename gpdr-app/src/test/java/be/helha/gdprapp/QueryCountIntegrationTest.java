@@ -0,0 +1,69 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.models.Company;
+import be.helha.gdprapp.models.Role;
+import be.helha.gdprapp.models.User;
+import be.helha.gdprapp.services.ReferenceDataCacheService;
+import be.helha.gdprapp.utils.JWTUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Base of the integration tests: full application on H2 (profile "it") with the seeded data set.
+ * The second-level cache is cleared before each test so query counts do not depend on test order.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("it")
+abstract class QueryCountIntegrationTest {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JWTUtils jwtUtils;
+
+    @Autowired
+    private ReferenceDataCacheService referenceDataCacheService;
+
+    @BeforeEach
+    void seedData() {
+        IntegrationTestData.seed(jdbcTemplate);
+        referenceDataCacheService.evictAll();
+    }
+
+    protected String adminToken() {
+        return bearer(IntegrationTestData.ADMIN_ID, IntegrationTestData.ADMIN_EMAIL, "ADMIN", null);
+    }
+
+    protected String managerToken(int companyId) {
+        return bearer(IntegrationTestData.FIRST_MANAGER_ID + companyId - 1,
+                IntegrationTestData.managerEmail(companyId - 1), "GERANT", companyId);
+    }
+
+    protected String clientToken(int index) {
+        return bearer(IntegrationTestData.FIRST_CLIENT_ID + index, IntegrationTestData.clientEmail(index), "CLIENT", null);
+    }
+
+    private String bearer(int userId, String email, String role, Integer companyId) {
+        User user = new User();
+        user.setIdUser(userId);
+        user.setEmail(email);
+        user.setActive(true);
+        user.setRole(new Role(role));
+        if (companyId != null) {
+            Company company = new Company();
+            company.setIdCompany(companyId);
+            user.setCompany(company);
+        }
+        return "Bearer " + jwtUtils.generateToken(user);
+    }
+}
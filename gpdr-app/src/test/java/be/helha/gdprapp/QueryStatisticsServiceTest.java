@@ -0,0 +1,77 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.services.QueryStatisticsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryStatisticsServiceTest {
+
+    private QueryStatisticsService queryStatisticsService;
+
+    @BeforeEach
+    void setUp() {
+        queryStatisticsService = new QueryStatisticsService();
+        ReflectionTestUtils.setField(queryStatisticsService, "slowQueryMs", 500L);
+        ReflectionTestUtils.setField(queryStatisticsService, "paramSampleRate", 10);
+        ReflectionTestUtils.setField(queryStatisticsService, "maxTrackedStatements", 2);
+    }
+
+    @Test
+    void normalize_ShouldReplaceLiteralsAndCollapseInLists() {
+        // When
+        String normalized = QueryStatisticsService.normalize(
+                "select u1_0.id_user from users u1_0\n  where u1_0.email = 'a@b.be' and u1_0.id_user in (?, ?, ?) limit 10");
+
+        // Then
+        assertEquals("select u1_0.id_user from users u1_0 where u1_0.email = ? and u1_0.id_user in (?...) limit ?", normalized);
+    }
+
+    @Test
+    void getTopQueries_ShouldAggregateByStatementAndRankByTotalTime() {
+        // Given
+        queryStatisticsService.record("select * from roles where id_role = 1", 5, List.of());
+        queryStatisticsService.record("select * from roles where id_role = 2", 7, List.of());
+        queryStatisticsService.record("select * from companies", 40, List.of());
+
+        // When
+        List<QueryStatisticsService.QueryStatistics> top = queryStatisticsService.getTopQueries(10);
+
+        // Then
+        assertEquals(2, top.size());
+        assertEquals("select * from companies", top.get(0).getSql());
+        assertEquals("select * from roles where id_role = ?", top.get(1).getSql());
+        assertEquals(2, top.get(1).getCount());
+        assertEquals(12, top.get(1).getTotalTimeMs());
+        assertEquals(7, top.get(1).getMaxTimeMs());
+    }
+
+    @Test
+    void record_BeyondMaxTrackedStatements_ShouldAggregateUnderOther() {
+        // Given
+        queryStatisticsService.record("select * from roles", 1, List.of());
+        queryStatisticsService.record("select * from companies", 1, List.of());
+        queryStatisticsService.record("select * from users", 1, List.of());
+
+        // When & Then
+        assertTrue(queryStatisticsService.getTopQueries(10).stream()
+                .anyMatch(stats -> QueryStatisticsService.OTHER_STATEMENTS.equals(stats.getSql())));
+    }
+
+    @Test
+    void endRequest_ShouldReturnStatementsOfTheCurrentRequest() {
+        // Given
+        queryStatisticsService.record("select * from roles", 1, List.of());
+        queryStatisticsService.startRequest();
+        queryStatisticsService.record("select * from roles", 1, List.of());
+        queryStatisticsService.record("select * from companies", 1, List.of());
+
+        // When & Then
+        assertEquals(2, queryStatisticsService.endRequest());
+        assertEquals(0, queryStatisticsService.endRequest());
+    }
+}
@@ -0,0 +1,82 @@
+package be.helha.gdprapp;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ReferenceEndpointsQueryCountTest extends QueryCountIntegrationTest {
+
+    private static final int TOTAL_USERS = 1 + IntegrationTestData.COMPANIES + IntegrationTestData.CLIENTS;
+
+    @Test
+    @ExpectedQueries(1)
+    void getAllCompanies_ShouldUseOneStatement() throws Exception {
+        mockMvc.perform(get("/api/companies").header("Authorization", adminToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(IntegrationTestData.COMPANIES)));
+    }
+
+    @Test
+    @ExpectedQueries(2)
+    void getCompaniesWithPagination_ShouldSelectPageAndCount() throws Exception {
+        mockMvc.perform(get("/api/companies/paginated").param("page", "1").param("size", "10")
+                        .header("Authorization", adminToken()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @ExpectedQueries(1)
+    void getAllCompanyNames_ShouldUseOneStatement() throws Exception {
+        mockMvc.perform(get("/api/companies/names").header("Authorization", adminToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(IntegrationTestData.COMPANIES)));
+    }
+
+    @Test
+    @ExpectedQueries(1)
+    void getCompanyStatistics_ShouldUseOneStatement() throws Exception {
+        mockMvc.perform(get("/api/companies/statistics").header("Authorization", adminToken()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @ExpectedQueries(1)
+    void getAllUsers_ShouldLoadRolesAndCompaniesInOneStatement() throws Exception {
+        mockMvc.perform(get("/api/users").header("Authorization", adminToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(TOTAL_USERS)));
+    }
+
+    @Test
+    @ExpectedQueries(1)
+    void getActiveUsers_ShouldUseOneStatement() throws Exception {
+        mockMvc.perform(get("/api/users/active").header("Authorization", adminToken()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @ExpectedQueries(1)
+    void getAllRoles_ShouldUseOneStatement() throws Exception {
+        mockMvc.perform(get("/api/roles").header("Authorization", adminToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)));
+    }
+
+    @Test
+    @ExpectedQueries(5)
+    void getRoleStatistics_ShouldNotGrowWithTheNumberOfUsers() throws Exception {
+        mockMvc.perform(get("/api/roles/statistics").header("Authorization", adminToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalUsers").value(TOTAL_USERS));
+    }
+
+    @Test
+    @ExpectedQueries(1)
+    void getAllRoleNames_ShouldUseOneStatement() throws Exception {
+        mockMvc.perform(get("/api/roles/names").header("Authorization", adminToken()))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,67 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.configuration.ReplicaRoutingDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    private final DataSource primary = new DriverManagerDataSource(PRIMARY_URL, "sa", "");
+    private final DataSource replica = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void getConnection_InReadWriteTransaction_ShouldUsePrimary() throws SQLException {
+        // Given
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, 1000));
+
+        // When & Then
+        assertTrue(urlOf(dataSource).startsWith("jdbc:h2:mem:primary"));
+    }
+
+    @Test
+    void getConnection_InReadOnlyTransaction_ShouldUseReplica() throws SQLException {
+        // Given
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replica, 1000));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When & Then
+        assertTrue(urlOf(dataSource).startsWith("jdbc:h2:mem:replica"));
+    }
+
+    @Test
+    void getConnection_WhenReplicaIsDown_ShouldFallBackToPrimary() throws SQLException {
+        // Given - IFEXISTS refuses to create the missing database, like an unreachable replica
+        DataSource downReplica = new DriverManagerDataSource("jdbc:h2:mem:missing;IFEXISTS=TRUE", "sa", "");
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, downReplica, 60000));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When & Then - the first read falls back, the next ones skip the replica
+        assertTrue(urlOf(dataSource).startsWith("jdbc:h2:mem:primary"));
+        assertTrue(urlOf(dataSource).startsWith("jdbc:h2:mem:primary"));
+    }
+
+    // The URL is only known once the lazy proxy fetched the real connection
+    private String urlOf(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+            return connection.getMetaData().getURL();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.services.RequestPartitionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RequestPartitionServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private RequestPartitionService requestPartitionService;
+
+    @Test
+    void partitionName_ShouldRoundTripThroughMonthOf() {
+        // When
+        String name = RequestPartitionService.partitionName(YearMonth.of(2025, 3));
+
+        // Then
+        assertEquals("gdpr_requests_2025_03", name);
+        assertEquals(YearMonth.of(2025, 3), RequestPartitionService.monthOf(name));
+        assertNull(RequestPartitionService.monthOf(RequestPartitionService.DEFAULT_PARTITION));
+        assertNull(RequestPartitionService.monthOf("gdpr_requests_2025_13"));
+        assertNull(RequestPartitionService.monthOf("gdpr_requests_archive"));
+    }
+
+    @Test
+    void createPartitions_WhenDatabaseIsNotPostgres_ShouldDoNothing() {
+        // Given
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn("H2");
+
+        // When
+        int created = requestPartitionService.createPartitions(YearMonth.of(2025, 1), YearMonth.of(2025, 6));
+
+        // Then
+        assertEquals(0, created);
+        assertTrue(requestPartitionService.listPartitions().isEmpty());
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void archivePartition_WhenMonthHasRequestsToKeep_ShouldNotDropIt() {
+        // Given - one request still pending
+        LocalDateTime cutoff = LocalDateTime.of(2025, 3, 1, 0, 0);
+        when(jdbcTemplate.queryForObject(contains("FROM gdpr_requests_2024_01"), eq(Long.class), eq(cutoff))).thenReturn(1L);
+
+        // When
+        long archived = requestPartitionService.archivePartition("gdpr_requests_2024_01", cutoff);
+
+        // Then
+        assertEquals(-1, archived);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+        verify(jdbcTemplate, never()).execute("DROP TABLE gdpr_requests_2024_01");
+    }
+
+    @Test
+    void archivePartition_WhenNameIsNotAMonth_ShouldThrowException() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> requestPartitionService.archivePartition(RequestPartitionService.DEFAULT_PARTITION, LocalDateTime.now()));
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
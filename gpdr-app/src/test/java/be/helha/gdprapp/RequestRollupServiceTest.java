@@ -0,0 +1,155 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.models.Company;
+import be.helha.gdprapp.models.GDPRRequest;
+import be.helha.gdprapp.repositories.ArchivedGDPRRequestRepository;
+import be.helha.gdprapp.repositories.GDPRRequestRepository;
+import be.helha.gdprapp.repositories.RequestDailyRollupRepository;
+import be.helha.gdprapp.services.GDPRRequestService;
+import be.helha.gdprapp.services.RequestRollupService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RequestRollupServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 1);
+
+    @Mock
+    private RequestDailyRollupRepository requestDailyRollupRepository;
+
+    @Mock
+    private GDPRRequestRepository gdprRequestRepository;
+
+    @Mock
+    private ArchivedGDPRRequestRepository archivedGDPRRequestRepository;
+
+    @InjectMocks
+    private RequestRollupService requestRollupService;
+
+    @Test
+    void recordCreated_ShouldUpdateEachKeyOnceInKeyOrder() {
+        // Given - two requests of company 2, one of company 1, same day
+        List<GDPRRequest> requests = List.of(
+                request(2, GDPRRequestService.REQUEST_TYPE_DELETION),
+                request(1, GDPRRequestService.REQUEST_TYPE_DELETION),
+                request(2, GDPRRequestService.REQUEST_TYPE_DELETION));
+
+        // When
+        requestRollupService.recordCreated(requests);
+
+        // Then
+        InOrder inOrder = inOrder(requestDailyRollupRepository);
+        inOrder.verify(requestDailyRollupRepository).insertIfMissing(DAY, 1, GDPRRequestService.REQUEST_TYPE_DELETION, GDPRRequestService.STATUS_PENDING);
+        inOrder.verify(requestDailyRollupRepository).addToCount(DAY, 1, GDPRRequestService.REQUEST_TYPE_DELETION, GDPRRequestService.STATUS_PENDING, 1L);
+        inOrder.verify(requestDailyRollupRepository).insertIfMissing(DAY, 2, GDPRRequestService.REQUEST_TYPE_DELETION, GDPRRequestService.STATUS_PENDING);
+        inOrder.verify(requestDailyRollupRepository).addToCount(DAY, 2, GDPRRequestService.REQUEST_TYPE_DELETION, GDPRRequestService.STATUS_PENDING, 2L);
+        verifyNoMoreInteractions(requestDailyRollupRepository);
+    }
+
+    @Test
+    void recordStatusChange_ShouldMoveTheRequestToItsNewStatus() {
+        // Given
+        GDPRRequest request = request(1, GDPRRequestService.REQUEST_TYPE_MODIFICATION);
+        request.setStatus(GDPRRequestService.STATUS_PROCESSED);
+
+        // When
+        requestRollupService.recordStatusChange(request, GDPRRequestService.STATUS_PENDING);
+
+        // Then - the decrement never creates a row
+        verify(requestDailyRollupRepository).addToCount(DAY, 1, GDPRRequestService.REQUEST_TYPE_MODIFICATION, GDPRRequestService.STATUS_PENDING, -1L);
+        verify(requestDailyRollupRepository).insertIfMissing(DAY, 1, GDPRRequestService.REQUEST_TYPE_MODIFICATION, GDPRRequestService.STATUS_PROCESSED);
+        verify(requestDailyRollupRepository).addToCount(DAY, 1, GDPRRequestService.REQUEST_TYPE_MODIFICATION, GDPRRequestService.STATUS_PROCESSED, 1L);
+        verify(requestDailyRollupRepository, never()).insertIfMissing(any(), any(), any(), eq(GDPRRequestService.STATUS_PENDING));
+    }
+
+    @Test
+    void recordStatusChange_WhenStatusIsUnchanged_ShouldDoNothing() {
+        // When
+        requestRollupService.recordStatusChange(request(1, GDPRRequestService.REQUEST_TYPE_MODIFICATION), GDPRRequestService.STATUS_PENDING);
+
+        // Then
+        verifyNoInteractions(requestDailyRollupRepository);
+    }
+
+    @Test
+    void getTimeseries_ShouldReturnEveryDayOfTheRange() {
+        // Given - no request on the second day
+        when(requestDailyRollupRepository.findDailyCounts(DAY, DAY.plusDays(2), 1, null, null))
+                .thenReturn(List.of(count(DAY, 4L), count(DAY.plusDays(2), 1L)));
+
+        // When
+        List<RequestRollupService.TimeseriesPoint> points = requestRollupService.getTimeseries(DAY, DAY.plusDays(2), 1, null, null);
+
+        // Then
+        assertEquals(3, points.size());
+        assertEquals(4L, points.get(0).getRequestCount());
+        assertEquals(DAY.plusDays(1), points.get(1).getDay());
+        assertEquals(0L, points.get(1).getRequestCount());
+        assertEquals(1L, points.get(2).getRequestCount());
+    }
+
+    @Test
+    void getTimeseries_WithInvalidRange_ShouldThrowException() {
+        // When & Then
+        assertThrows(RuntimeException.class, () -> requestRollupService.getTimeseries(DAY, DAY.minusDays(1), null, null, null));
+        assertThrows(RuntimeException.class, () -> requestRollupService.getTimeseries(DAY.minusYears(11), DAY, null, null, null));
+        verifyNoInteractions(requestDailyRollupRepository);
+    }
+
+    @Test
+    void findFirstRequestDay_WhenArchivedRequestIsOlder_ShouldReturnItsDay() {
+        // Given
+        when(gdprRequestRepository.findFirstRequestDate()).thenReturn(DAY.atTime(10, 0));
+        when(archivedGDPRRequestRepository.findFirstRequestDate()).thenReturn(LocalDateTime.of(2023, 6, 1, 8, 0));
+
+        // When
+        LocalDate first = requestRollupService.findFirstRequestDay();
+
+        // Then
+        assertEquals(LocalDate.of(2023, 6, 1), first);
+    }
+
+    @Test
+    void findFirstRequestDay_WhenOnlyArchivedRequestsRemain_ShouldReturnTheirFirstDay() {
+        // Given
+        when(gdprRequestRepository.findFirstRequestDate()).thenReturn(null);
+        when(archivedGDPRRequestRepository.findFirstRequestDate()).thenReturn(DAY.atTime(10, 0));
+
+        // When
+        LocalDate first = requestRollupService.findFirstRequestDay();
+
+        // Then
+        assertEquals(DAY, first);
+    }
+
+    private GDPRRequest request(Integer companyId, String requestType) {
+        Company company = new Company();
+        company.setIdCompany(companyId);
+        GDPRRequest request = new GDPRRequest();
+        request.setRequestType(requestType);
+        request.setStatus(GDPRRequestService.STATUS_PENDING);
+        request.setRequestDate(DAY.atTime(10, 0));
+        request.setCompany(company);
+        return request;
+    }
+
+    private RequestDailyRollupRepository.DailyCount count(LocalDate day, Long requestCount) {
+        return new RequestDailyRollupRepository.DailyCount() {
+            public LocalDate getDay() { return day; }
+            public Long getRequestCount() { return requestCount; }
+        };
+    }
+}
@@ -4,6 +4,7 @@ import be.helha.gdprapp.models.Role;
 import be.helha.gdprapp.models.User;
 import be.helha.gdprapp.repositories.RoleRepository;
 import be.helha.gdprapp.repositories.UserRepository;
+import be.helha.gdprapp.services.ReferenceDataCacheService;
 import be.helha.gdprapp.services.RoleService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -30,6 +31,9 @@ class RoleServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ReferenceDataCacheService referenceDataCacheService;
+
     @InjectMocks
     private RoleService roleService;
 
@@ -167,6 +171,7 @@ class RoleServiceTest {
         assertEquals("Role with name 'CLIENT' already exists", exception.getMessage());
         verify(roleRepository).findByRole("CLIENT");
         verify(roleRepository, never()).save(any(Role.class));
+        verifyNoInteractions(referenceDataCacheService);
     }
 
     @Test
@@ -217,6 +222,7 @@ class RoleServiceTest {
         verify(roleRepository).findById(1);
         verify(roleRepository).findByRole("UPDATED_CLIENT");
         verify(roleRepository).save(testRole);
+        verify(referenceDataCacheService).evictRole(1);
     }
 
     @Test
@@ -254,6 +260,7 @@ class RoleServiceTest {
         verify(roleRepository, times(2)).findById(2); // Une fois dans deleteRole, une fois dans hasAssociatedUsers
         verify(userRepository).findByRole(customRole);
         verify(roleRepository).deleteById(2);
+        verify(referenceDataCacheService).evictRole(2);
     }
 
     @Test
@@ -0,0 +1,51 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.models.Company;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class SequenceBatchingTest {
+
+    private static final int ROWS = 10_000;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void persist_TenThousandCompanies_ShouldUseAFewHundredStatements() {
+        // Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        for (int i = 0; i < ROWS; i++) {
+            entityManager.persist(new Company("Company " + i, "contact" + i + "@example.com"));
+            if ((i + 1) % 50 == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+
+        // Then - 200 sequence calls (blocks of 50) + 200 insert batches of 50
+        assertEquals(ROWS, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 500,
+                "Expected at most 500 statements, got " + statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,114 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.services.SmtpCircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmtpCircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AtomicInteger deliveries = new AtomicInteger();
+    private SmtpCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new SmtpCircuitBreaker();
+        ReflectionTestUtils.setField(breaker, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(breaker, "failureThreshold", 3);
+        ReflectionTestUtils.setField(breaker, "openDurationMs", 1000L);
+        ReflectionTestUtils.setField(breaker, "nanoTime", (LongSupplier) now::get);
+        breaker.init();
+    }
+
+    @Test
+    void execute_AfterConsecutiveFailures_ShouldOpenAndFailFast() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IllegalStateException.class, () -> breaker.execute(this::failingDelivery));
+        }
+
+        // When & Then
+        assertEquals(SmtpCircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(SmtpCircuitBreaker.CircuitOpenException.class, () -> breaker.execute(this::delivery));
+        assertEquals(3, deliveries.get());
+    }
+
+    @Test
+    void execute_WhenSuccessInterleaves_ShouldStayClosed() {
+        // When
+        assertThrows(IllegalStateException.class, () -> breaker.execute(this::failingDelivery));
+        assertThrows(IllegalStateException.class, () -> breaker.execute(this::failingDelivery));
+        breaker.execute(this::delivery);
+        assertThrows(IllegalStateException.class, () -> breaker.execute(this::failingDelivery));
+
+        // Then
+        assertEquals(SmtpCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(1, breaker.getConsecutiveFailures());
+    }
+
+    @Test
+    void execute_WhenProbeSucceeds_ShouldCloseCircuit() {
+        // Given
+        openCircuit();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertEquals(SmtpCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        // When
+        breaker.execute(this::delivery);
+
+        // Then
+        assertEquals(SmtpCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getConsecutiveFailures());
+    }
+
+    @Test
+    void execute_WhenProbeFails_ShouldReopenCircuit() {
+        // Given
+        openCircuit();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+
+        // When
+        assertThrows(IllegalStateException.class, () -> breaker.execute(this::failingDelivery));
+
+        // Then
+        assertEquals(SmtpCircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(1000, breaker.getRemainingOpenMs());
+        assertThrows(SmtpCircuitBreaker.CircuitOpenException.class, () -> breaker.execute(this::delivery));
+    }
+
+    @Test
+    void execute_WhileProbeIsRunning_ShouldRejectOtherDeliveries() {
+        // Given
+        openCircuit();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+
+        // When & Then - a second delivery started from inside the probe is rejected
+        breaker.execute(() -> assertThrows(SmtpCircuitBreaker.CircuitOpenException.class, () -> breaker.execute(this::delivery)));
+        assertEquals(SmtpCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private void openCircuit() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IllegalStateException.class, () -> breaker.execute(this::failingDelivery));
+        }
+        assertEquals(SmtpCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    private void delivery() {
+        deliveries.incrementAndGet();
+    }
+
+    private void failingDelivery() {
+        deliveries.incrementAndGet();
+        throw new IllegalStateException("SMTP timeout");
+    }
+}
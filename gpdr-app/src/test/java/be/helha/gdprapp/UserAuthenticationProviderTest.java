@@ -0,0 +1,207 @@
+package be.helha.gdprapp;
+
+import be.helha.gdprapp.controllers.AuthController;
+import be.helha.gdprapp.models.Role;
+import be.helha.gdprapp.models.User;
+import be.helha.gdprapp.repositories.UserRepository;
+import be.helha.gdprapp.security.UserAuthenticationProvider;
+import be.helha.gdprapp.security.UserPrincipal;
+import be.helha.gdprapp.services.AuthService;
+import be.helha.gdprapp.services.CustomUserDetailsService;
+import be.helha.gdprapp.utils.JWTUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserAuthenticationProviderTest {
+
+    private static final String EMAIL = "john.doe@example.com";
+    private static final String PASSWORD = "password123";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private CustomUserDetailsService userDetailsService;
+
+    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+
+    private JWTUtils jwtUtils;
+    private AuthController authController;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        UserAuthenticationProvider provider = new UserAuthenticationProvider();
+        ReflectionTestUtils.setField(provider, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(provider, "passwordEncoder", passwordEncoder);
+
+        jwtUtils = new JWTUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secret", "testSecretKeyForJWTTokenGenerationThatIsLongEnoughForHS512Algorithm");
+        ReflectionTestUtils.setField(jwtUtils, "expirationToken", 60000L);
+        ReflectionTestUtils.setField(jwtUtils, "expirationRefreshToken", 120000L);
+
+        AuthService authService = new AuthService();
+        ReflectionTestUtils.setField(authService, "userRepository", userRepository);
+
+        authController = new AuthController();
+        ReflectionTestUtils.setField(authController, "authService", authService);
+        ReflectionTestUtils.setField(authController, "authenticationManager", new ProviderManager(provider));
+        ReflectionTestUtils.setField(authController, "jwtUtils", jwtUtils);
+
+        Role testRole = new Role();
+        testRole.setIdRole(1);
+        testRole.setRole("CLIENT");
+
+        testUser = new User();
+        testUser.setIdUser(1);
+        testUser.setFirstname("John");
+        testUser.setLastname("Doe");
+        testUser.setEmail(EMAIL);
+        testUser.setPassword(passwordEncoder.encode(PASSWORD));
+        testUser.setActive(true);
+        testUser.setRole(testRole);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void login_WithValidCredentials_ShouldQueryUserOnce() {
+        // Given
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(testUser));
+
+        // When
+        ResponseEntity<?> response = authController.authenticateUser(loginRequest(PASSWORD));
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        AuthController.JwtResponse body = (AuthController.JwtResponse) response.getBody();
+        assertNotNull(body);
+        assertEquals(1, body.getId());
+        assertEquals("CLIENT", body.getRole());
+        assertEquals(EMAIL, jwtUtils.extractUsername(body.getToken()));
+        verify(userRepository, times(1)).findByEmail(EMAIL);
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void login_WithWrongPassword_ShouldReturnUnauthorizedAfterOneQuery() {
+        // Given
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(testUser));
+
+        // When
+        ResponseEntity<?> response = authController.authenticateUser(loginRequest("wrongPassword1"));
+
+        // Then
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verify(userRepository, times(1)).findByEmail(EMAIL);
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void login_WithUnknownEmail_ShouldReturnUnauthorizedAfterOneQuery() {
+        // Given
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.empty());
+
+        // When
+        ResponseEntity<?> response = authController.authenticateUser(loginRequest(PASSWORD));
+
+        // Then
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verify(userRepository, times(1)).findByEmail(EMAIL);
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void login_WithInactiveUser_ShouldBeRejected() {
+        // Given
+        testUser.setActive(false);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(testUser));
+
+        // When
+        ResponseEntity<?> response = authController.authenticateUser(loginRequest(PASSWORD));
+
+        // Then
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(userRepository, times(1)).findByEmail(EMAIL);
+    }
+
+    @Test
+    void refresh_WhenPrincipalAlreadyLoaded_ShouldNotQueryAgain() {
+        // Given
+        String token = jwtUtils.generateToken(testUser);
+        UserPrincipal principal = new UserPrincipal(testUser);
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+
+        AuthController.TokenRefreshRequest request = new AuthController.TokenRefreshRequest();
+        request.setToken(token);
+
+        // When
+        ResponseEntity<?> response = authController.refreshToken(request);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void validate_WithoutLoadedPrincipal_ShouldQueryUserOnce() {
+        // Given
+        String token = jwtUtils.generateToken(testUser);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(testUser));
+
+        AuthController.TokenValidationRequest request = new AuthController.TokenValidationRequest();
+        request.setToken(token);
+
+        // When
+        ResponseEntity<?> response = authController.validateToken(request);
+
+        // Then
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(userRepository, times(1)).findByEmail(EMAIL);
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void validate_WithInvalidToken_ShouldNotQuery() {
+        // Given
+        AuthController.TokenValidationRequest request = new AuthController.TokenValidationRequest();
+        request.setToken("not-a-jwt");
+
+        // When
+        ResponseEntity<?> response = authController.validateToken(request);
+
+        // Then
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+        verifyNoInteractions(userRepository);
+    }
+
+    private AuthController.LoginRequest loginRequest(String password) {
+        AuthController.LoginRequest request = new AuthController.LoginRequest();
+        request.setEmail(EMAIL);
+        request.setPassword(password);
+        return request;
+    }
+}